@@ -0,0 +1,91 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of lookups which are answered from the cache, without calling Azure Key Vault.
+ *
+ * <ul>
+ *     <li>{@code all} is {@link CachedAzureKeyVaultOperation}, which has loaded the whole vault.</li>
+ *     <li>{@code lazy} is {@link LazyCachedAzureKeyVaultOperation}, which has cached the looked up secrets and misses.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CachedLookupBenchmark {
+    private static final long CACHE_TTL_IN_MS = TimeUnit.DAYS.toMillis(1);
+
+    @Param({"all", "lazy"})
+    private String cacheMode;
+
+    @Param({"100", "1000"})
+    private int secretCount;
+
+    private AzureKeyVaultOperation operation;
+
+    @Setup
+    public void setUp() {
+        AzureKeyVaultOptions options = new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(CACHE_TTL_IN_MS)
+                .setNegativeCacheRefreshIntervalInMs(CACHE_TTL_IN_MS);
+        operation = "lazy".equals(cacheMode)
+                ? new LazyCachedAzureKeyVaultOperation(StubKeyVaultHttpClient.newSecretClient(secretCount, 0), options)
+                : new CachedAzureKeyVaultOperation(StubKeyVaultHttpClient.newSecretClient(secretCount, 0), options);
+
+        // Load the cache, so the benchmarks never call the stub
+        hit();
+        miss();
+        remappedHit();
+        environmentStyleHit();
+        foreignPropertyMiss();
+    }
+
+    @Benchmark
+    public String hit() {
+        return operation.getValue("secret-42");
+    }
+
+    @Benchmark
+    public String miss() {
+        return operation.getValue("missing-secret");
+    }
+
+    @Benchmark
+    public String remappedHit() {
+        return operation.getValue("secret.42");
+    }
+
+    @Benchmark
+    public String environmentStyleHit() {
+        return operation.getValue("SECRET_42");
+    }
+
+    /**
+     * Lookup of a property which is defined by another config source, the most common lookup an application makes.
+     *
+     * @return null.
+     */
+    @Benchmark
+    public String foreignPropertyMiss() {
+        return operation.getValue("quarkus.datasource.jdbc.url");
+    }
+}
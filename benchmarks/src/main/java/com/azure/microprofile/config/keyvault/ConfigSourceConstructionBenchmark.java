@@ -0,0 +1,56 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.security.keyvault.secrets.SecretClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of constructing an {@link AzureKeyVaultConfigSource} and looking up its first property, which loads the whole vault.
+ *
+ * <p>The operation is passed to the config source, because the default constructor authenticates with {@code DefaultAzureCredential}.
+ * Every invocation is measured on its own, as it is at application startup.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 30)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConfigSourceConstructionBenchmark {
+    @Param({"100", "1000"})
+    private int secretCount;
+
+    @Param({"0", "5"})
+    private long latencyInMs;
+
+    @Param({"1", "8"})
+    private int fetchParallelism;
+
+    private SecretClient secretClient;
+
+    @Setup
+    public void setUp() {
+        secretClient = StubKeyVaultHttpClient.newSecretClient(secretCount, latencyInMs);
+    }
+
+    @Benchmark
+    public String constructAndLookup() {
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(new CachedAzureKeyVaultOperation(secretClient,
+                new AzureKeyVaultOptions().setFetchParallelism(fetchParallelism)), null);
+        return configSource.getValue("secret-0");
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of cached lookups by 1 to 64 threads while the cache is refreshed concurrently.
+ *
+ * <ul>
+ *     <li>The cache expires every {@link #CACHE_TTL_IN_MS} milliseconds, and a tenth of the secrets change in the meantime.</li>
+ *     <li>With {@code backgroundRefresh} the cache is refreshed by the background scheduler, otherwise by the first caller after expiry.</li>
+ *     <li>Every request to the stub takes {@code latencyInMs}, so a refresh takes a while and contends with the lookups.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ContendedRefreshBenchmark {
+    private static final long CACHE_TTL_IN_MS = 200L;
+    private static final long REFRESH_AHEAD_IN_MS = 100L;
+
+    @Param({"true", "false"})
+    private boolean backgroundRefresh;
+
+    @Param({"1000"})
+    private int secretCount;
+
+    @Param({"1"})
+    private long latencyInMs;
+
+    private CachedAzureKeyVaultOperation operation;
+    private ScheduledExecutorService secretUpdater;
+
+    @Setup
+    public void setUp() {
+        StubKeyVaultHttpClient vault = new StubKeyVaultHttpClient(latencyInMs);
+        for (int i = 0; i < secretCount; i++) {
+            vault.setSecret(StubKeyVaultHttpClient.secretName(i), "value-" + i);
+        }
+        operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(CACHE_TTL_IN_MS)
+                .setBackgroundRefresh(backgroundRefresh)
+                .setRefreshAheadInMs(REFRESH_AHEAD_IN_MS));
+        operation.getProperties();
+
+        // Change a tenth of the secrets every time-to-live, so every refresh fetches some secrets
+        secretUpdater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "benchmark-secret-updater");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int[] next = {0};
+        secretUpdater.scheduleAtFixedRate(() -> {
+            for (int i = 0; i < secretCount / 10; i++) {
+                int index = next[0]++ % secretCount;
+                vault.setSecret(StubKeyVaultHttpClient.secretName(index), "value-" + index + "-" + next[0]);
+            }
+        }, CACHE_TTL_IN_MS, CACHE_TTL_IN_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        secretUpdater.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String lookup1Thread(LookupState lookup) {
+        return operation.getValue(lookup.nextPropertyName());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String lookup8Threads(LookupState lookup) {
+        return operation.getValue(lookup.nextPropertyName());
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String lookup64Threads(LookupState lookup) {
+        return operation.getValue(lookup.nextPropertyName());
+    }
+
+    /**
+     * Property names looked up by a benchmark thread, dotted like the property names of an application.
+     */
+    @State(Scope.Thread)
+    public static class LookupState {
+        private static final int PROPERTY_NAMES = 64;
+        private final String[] propertyNames = new String[PROPERTY_NAMES];
+        private int next;
+
+        @Setup
+        public void setUp(ContendedRefreshBenchmark benchmark) {
+            for (int i = 0; i < PROPERTY_NAMES; i++) {
+                propertyNames[i] = "secret." + (i * 31 % benchmark.secretCount);
+            }
+        }
+
+        String nextPropertyName() {
+            return propertyNames[next++ & (PROPERTY_NAMES - 1)];
+        }
+    }
+}
@@ -0,0 +1,62 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link NoCacheAzureKeyVaultOperation} lookups, which call Azure Key Vault every time.
+ *
+ * <p>With {@code latencyInMs} of 0 the benchmarks measure the client overhead of a lookup, otherwise they show how the latency of
+ * Azure Key Vault adds up, e.g. for a remapped name which is tried as is first.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class NoCacheLookupBenchmark {
+    @Param({"0", "1"})
+    private long latencyInMs;
+
+    private NoCacheAzureKeyVaultOperation operation;
+
+    @Setup
+    public void setUp() {
+        operation = new NoCacheAzureKeyVaultOperation(StubKeyVaultHttpClient.newSecretClient(100, latencyInMs), new AzureKeyVaultOptions());
+    }
+
+    @Benchmark
+    public String hit() {
+        return operation.getValue("secret-42");
+    }
+
+    @Benchmark
+    public String miss() {
+        return operation.getValue("missing-secret");
+    }
+
+    @Benchmark
+    public String remappedHit() {
+        return operation.getValue("secret.42");
+    }
+
+    @Benchmark
+    public String foreignPropertyMiss() {
+        return operation.getValue("quarkus.datasource.jdbc.url");
+    }
+}
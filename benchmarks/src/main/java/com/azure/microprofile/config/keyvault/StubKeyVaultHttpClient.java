@@ -0,0 +1,238 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.Context;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.SecretClientBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-memory stand-in of the Azure Key Vault secrets REST API, used as the {@link HttpClient} of a real {@link SecretClient}.
+ *
+ * <ul>
+ *     <li>Every request is answered after the configured latency, which simulates the round trip to Azure Key Vault.</li>
+ *     <li>Secrets are listed in pages of {@link #PAGE_SIZE}, like Azure Key Vault does by default.</li>
+ *     <li>Secrets which do not exist are answered with 404, so the client throws {@link com.azure.core.exception.ResourceNotFoundException}.</li>
+ * </ul>
+ */
+final class StubKeyVaultHttpClient implements HttpClient {
+    static final String VAULT_URL = "https://stub.vault.azure.net";
+    static final int PAGE_SIZE = 25;
+    private static final String SECRETS_PATH = "/secrets";
+
+    private final Map<String, StubSecret> secrets = new ConcurrentHashMap<>();
+    private final long latencyInNanos;
+
+    /**
+     * Constructor of StubKeyVaultHttpClient.
+     *
+     * @param latencyInMs latency of every request in milliseconds
+     */
+    StubKeyVaultHttpClient(long latencyInMs) {
+        this.latencyInNanos = TimeUnit.MILLISECONDS.toNanos(latencyInMs);
+    }
+
+    /**
+     * Create a {@link SecretClient} which sends its requests to a new stub with secrets {@code secret-0} to {@code secret-<secretCount - 1>}.
+     *
+     * @param secretCount number of secrets
+     * @param latencyInMs latency of every request in milliseconds
+     * @return the {@link SecretClient}.
+     */
+    static SecretClient newSecretClient(int secretCount, long latencyInMs) {
+        StubKeyVaultHttpClient httpClient = new StubKeyVaultHttpClient(latencyInMs);
+        for (int i = 0; i < secretCount; i++) {
+            httpClient.setSecret(secretName(i), "value-" + i);
+        }
+        return httpClient.newSecretClient();
+    }
+
+    /**
+     * Get the name of the secret at an index.
+     *
+     * @param index index of the secret
+     * @return the secret name.
+     */
+    static String secretName(int index) {
+        return "secret-" + index;
+    }
+
+    /**
+     * Create a {@link SecretClient} which sends its requests to this stub.
+     *
+     * @return the {@link SecretClient}.
+     * @implNote The pipeline has no authentication policy, so no credential is needed.
+     */
+    SecretClient newSecretClient() {
+        return new SecretClientBuilder()
+                .vaultUrl(VAULT_URL)
+                .pipeline(new HttpPipelineBuilder().httpClient(this).build())
+                .buildClient();
+    }
+
+    /**
+     * Add or update a secret, which changes its version and update time.
+     *
+     * @param secretName  name of the secret
+     * @param secretValue value of the secret
+     */
+    void setSecret(String secretName, String secretValue) {
+        secrets.compute(secretName, (name, previous) -> new StubSecret(secretValue, previous == null ? 1L : previous.version + 1));
+    }
+
+    @Override
+    public Mono<HttpResponse> send(HttpRequest request) {
+        return Mono.fromCallable(() -> sendSync(request, Context.NONE));
+    }
+
+    @Override
+    public HttpResponse sendSync(HttpRequest request, Context context) {
+        if (latencyInNanos > 0) {
+            LockSupport.parkNanos(latencyInNanos);
+        }
+
+        String path = request.getUrl().getPath();
+        if (path.equals(SECRETS_PATH) || path.equals(SECRETS_PATH + "/")) {
+            return listSecrets(request);
+        }
+        if (path.startsWith(SECRETS_PATH + "/")) {
+            String secretName = path.substring(SECRETS_PATH.length() + 1).split("/", 2)[0];
+            return getSecret(request, secretName);
+        }
+        return new StubHttpResponse(request, 400, "{\"error\":{\"code\":\"BadParameter\",\"message\":\"Unsupported path " + path + "\"}}");
+    }
+
+    private HttpResponse getSecret(HttpRequest request, String secretName) {
+        StubSecret secret = secrets.get(secretName);
+        if (secret == null) {
+            return new StubHttpResponse(request, 404,
+                    "{\"error\":{\"code\":\"SecretNotFound\",\"message\":\"A secret with (name/id) " + secretName + " was not found in this key vault.\"}}");
+        }
+        return new StubHttpResponse(request, 200, "{\"value\":\"" + secret.value + "\",\"id\":\"" + VAULT_URL + SECRETS_PATH + "/" + secretName + "/"
+                + secret.getVersionId() + "\",\"attributes\":" + secret.getAttributes() + "}");
+    }
+
+    private HttpResponse listSecrets(HttpRequest request) {
+        String query = request.getUrl().getQuery();
+        int skip = query != null && query.contains("$skiptoken=") ? Integer.parseInt(query.replaceAll(".*\\$skiptoken=(\\d+).*", "$1")) : 0;
+
+        List<String> secretNames = new ArrayList<>(secrets.keySet());
+        secretNames.sort(null);
+
+        StringBuilder body = new StringBuilder("{\"value\":[");
+        int end = Math.min(skip + PAGE_SIZE, secretNames.size());
+        for (int i = skip; i < end; i++) {
+            String secretName = secretNames.get(i);
+            StubSecret secret = secrets.get(secretName);
+            if (i > skip) {
+                body.append(',');
+            }
+            body.append("{\"id\":\"").append(VAULT_URL).append(SECRETS_PATH).append('/').append(secretName)
+                    .append("\",\"attributes\":").append(secret.getAttributes()).append('}');
+        }
+        body.append("],\"nextLink\":");
+        if (end < secretNames.size()) {
+            body.append('"').append(VAULT_URL).append(SECRETS_PATH).append("?api-version=7.5&maxresults=").append(PAGE_SIZE)
+                    .append("&$skiptoken=").append(end).append('"');
+        } else {
+            body.append("null");
+        }
+        return new StubHttpResponse(request, 200, body.append('}').toString());
+    }
+
+    /**
+     * Secret stored by the stub.
+     */
+    private static final class StubSecret {
+        private static final long CREATED_IN_SECONDS = 1700000000L;
+        private final String value;
+        private final long version;
+
+        private StubSecret(String value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+
+        private String getVersionId() {
+            return String.format("%032x", version);
+        }
+
+        private String getAttributes() {
+            return "{\"enabled\":true,\"created\":" + CREATED_IN_SECONDS + ",\"updated\":" + (CREATED_IN_SECONDS + version)
+                    + ",\"recoveryLevel\":\"Recoverable+Purgeable\",\"recoverableDays\":90}";
+        }
+    }
+
+    /**
+     * JSON response of the stub.
+     */
+    private static final class StubHttpResponse extends HttpResponse {
+        private final int statusCode;
+        private final byte[] body;
+        private final HttpHeaders headers;
+
+        private StubHttpResponse(HttpRequest request, int statusCode, String body) {
+            super(request);
+            this.statusCode = statusCode;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+            this.headers = new HttpHeaders()
+                    .set(HttpHeaderName.CONTENT_TYPE, "application/json; charset=utf-8")
+                    .set(HttpHeaderName.CONTENT_LENGTH, String.valueOf(this.body.length));
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        @Deprecated
+        public String getHeaderValue(String name) {
+            return headers.getValue(HttpHeaderName.fromString(name));
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return Flux.just(ByteBuffer.wrap(body));
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return Mono.just(body);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return Mono.just(new String(body, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return Mono.just(new String(body, charset));
+        }
+    }
+}
@@ -0,0 +1,220 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * This class is used to aggregate the secrets of several Azure Key Vaults which share an ordinal.
+ *
+ * <ul>
+ *     <li>The vaults are listed in precedence order: if several vaults hold a secret, the value of the first one is used.</li>
+ *     <li>The secrets of all vaults are loaded concurrently, so a cold load takes as long as the slowest vault rather than the sum of all.</li>
+ *     <li>
+ *         Lookups are answered from one index of the secret names of the vaults which cache them, in {@code all} or {@code names} cache mode:
+ *         only the vaults which hold the secret are asked for its value, and misses are answered without asking them at all.
+ *         The vaults which don't cache their secret names are asked in precedence order, like before.
+ *     </li>
+ *     <li>
+ *         The index is built on the first lookup, once the vaults are loaded, and rebuilt once one of the vaults has refreshed its secret names.
+ *     </li>
+ * </ul>
+ */
+class AggregateAzureKeyVaultOperation implements AzureKeyVaultOperation {
+    private static final ClientLogger LOGGER = new ClientLogger(AggregateAzureKeyVaultOperation.class);
+    private static final Executor LOAD_EXECUTOR = runnable -> {
+        Thread thread = new Thread(runnable, "azure-keyvault-vault-load");
+        thread.setDaemon(true);
+        thread.start();
+    };
+    private final List<AzureKeyVaultOperation> operations;
+    private volatile VaultIndex index;
+
+    /**
+     * Constructor of AggregateAzureKeyVaultOperation.
+     *
+     * @param operations operations of the vaults, in precedence order
+     */
+    AggregateAzureKeyVaultOperation(List<AzureKeyVaultOperation> operations) {
+        this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    }
+
+    /**
+     * Get secrets from all vaults.
+     *
+     * @return Name/value {@link Map} of secrets, holding the value of the first vault for secrets held by several vaults.
+     */
+    public Map<String, String> getProperties() {
+        Map<String, String> properties = new HashMap<>();
+        loadInParallel(operations, AzureKeyVaultOperation::getProperties)
+                .forEach(vaultProperties -> vaultProperties.forEach(properties::putIfAbsent));
+        return properties;
+    }
+
+    /**
+     * Get secret names from all vaults.
+     *
+     * @return Name {@link Set} of secrets.
+     */
+    public Set<String> getPropertyNames() {
+        Set<String> propertyNames = new HashSet<>();
+        loadInParallel(operations, AzureKeyVaultOperation::getPropertyNames).forEach(propertyNames::addAll);
+        return propertyNames;
+    }
+
+    /**
+     * Get secret value from the first vault which holds it.
+     *
+     * @param secretName Secret name.
+     * @return Secret value if a vault holds it; otherwise, null.
+     * @implNote Property names which end with a secret version are asked to every vault, since they may be version-pinned references, which
+     * are not listed with the secret names.
+     */
+    public String getValue(String secretName) {
+        if (secretName == null) {
+            return null;
+        }
+
+        VaultIndex current = getIndex();
+        BitSet holders = current.getHolders(secretName);
+        boolean pinned = PinnedSecretCache.endsWithVersion(secretName);
+        for (int i = 0; i < operations.size(); i++) {
+            if (current.isIndexed(i) && !pinned && (holders == null || !holders.get(i))) {
+                continue;
+            }
+            String value = operations.get(i).getValue(secretName);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Invalidate a secret in every vault, each vault checks whether it holds the secret.
+     *
+     * @param secretName Secret name.
+     */
+    @Override
+    public void invalidate(String secretName) {
+        operations.forEach(operation -> operation.invalidate(secretName));
+    }
+
+    /**
+     * Get the index of the secret names, rebuilding it if one of the indexed vaults has refreshed its secret names.
+     *
+     * @return the current index.
+     */
+    private VaultIndex getIndex() {
+        VaultIndex current = index;
+        if (current == null || !current.isCurrent(operations)) {
+            current = new VaultIndex(operations);
+            index = current;
+        }
+        return current;
+    }
+
+    /**
+     * Run a load of every operation concurrently, and wait for all of them.
+     *
+     * @param operations operations of the vaults
+     * @param load       load of an operation
+     * @param <T>        type of the loaded value
+     * @return the loaded values in the order of the operations.
+     * @throws RuntimeException the failure of the first failed load, once all loads are done.
+     */
+    static <T> List<T> loadInParallel(Collection<AzureKeyVaultOperation> operations, Function<AzureKeyVaultOperation, T> load) {
+        if (operations.size() == 1) {
+            return Collections.singletonList(load.apply(operations.iterator().next()));
+        }
+
+        List<CompletableFuture<T>> loads = new ArrayList<>(operations.size());
+        for (AzureKeyVaultOperation operation : operations) {
+            loads.add(CompletableFuture.supplyAsync(() -> load.apply(operation), LOAD_EXECUTOR));
+        }
+        try {
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "loadInParallel() failed with exception: " + e.getCause().getMessage());
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        List<T> loaded = new ArrayList<>(loads.size());
+        loads.forEach(future -> loaded.add(future.join()));
+        return loaded;
+    }
+
+    /**
+     * Index of the secret names of the vaults which cache them, to the vaults which hold each of them.
+     *
+     * @implNote Secret names are indexed by their case-insensitive Key Vault secret name, which every property name a vault resolves to the secret
+     * maps to as well, so a vault which isn't indexed with the Key Vault secret name of a property name doesn't hold it.
+     */
+    private static final class VaultIndex {
+        private final List<Set<String>> secretNames;
+        private final Map<String, BitSet> holders = new HashMap<>();
+
+        private VaultIndex(List<AzureKeyVaultOperation> operations) {
+            this.secretNames = new ArrayList<>(operations.size());
+            for (int i = 0; i < operations.size(); i++) {
+                Set<String> names = isIndexable(operations.get(i)) ? operations.get(i).getPropertyNames() : null;
+                secretNames.add(names);
+                if (names == null) {
+                    continue;
+                }
+                for (String name : names) {
+                    holders.computeIfAbsent(toIndexKey(name), ignored -> new BitSet()).set(i);
+                }
+            }
+        }
+
+        /**
+         * Check whether the index is built from the current secret names of the vaults.
+         *
+         * @param operations operations of the vaults
+         * @return true if no indexed vault has refreshed its secret names since the index was built.
+         * @implNote The vaults keep their secret names in an immutable set per load, so a refresh is detected by identity.
+         */
+        private boolean isCurrent(List<AzureKeyVaultOperation> operations) {
+            for (int i = 0; i < operations.size(); i++) {
+                if (secretNames.get(i) != null && operations.get(i).getPropertyNames() != secretNames.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isIndexed(int position) {
+            return secretNames.get(position) != null;
+        }
+
+        private BitSet getHolders(String propertyName) {
+            return holders.get(toIndexKey(propertyName));
+        }
+
+        private static boolean isIndexable(AzureKeyVaultOperation operation) {
+            return operation instanceof CachedAzureKeyVaultOperation || operation instanceof IndexedAzureKeyVaultOperation;
+        }
+
+        private static String toIndexKey(String name) {
+            return AzureKeyVaultOperation.toKeyVaultSecretName(name).toLowerCase(Locale.ROOT);
+        }
+    }
+}
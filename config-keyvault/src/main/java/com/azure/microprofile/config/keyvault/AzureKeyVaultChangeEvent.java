@@ -0,0 +1,95 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Secrets which were added, changed or removed by a refresh of the cache of a config source.
+ *
+ * <ul>
+ *     <li>
+ *         It is delivered to the {@link AzureKeyVaultChangeListener}s, and fired as a CDI event if CDI is present, so beans can observe it
+ *         with {@code @Observes AzureKeyVaultChangeEvent}.
+ *     </li>
+ *     <li>It holds the names of the secrets, as returned by {@link AzureKeyVaultConfigSource#getPropertyNames()}, never their values.</li>
+ *     <li>
+ *         With {@code azure.keyvault.cache.mode} set to {@code names}, values are not cached, so only added and removed secrets are reported.
+ *         With {@code lazy}, a secret is reported when its expired value is fetched again, under the looked up property name.
+ *     </li>
+ * </ul>
+ */
+public final class AzureKeyVaultChangeEvent {
+    private final String vaultUrl;
+    private final Set<String> addedKeys;
+    private final Set<String> changedKeys;
+    private final Set<String> removedKeys;
+
+    /**
+     * Constructor of AzureKeyVaultChangeEvent.
+     *
+     * @param vaultUrl    URL of Azure Key Vault
+     * @param addedKeys   names of the added secrets
+     * @param changedKeys names of the secrets whose value changed
+     * @param removedKeys names of the removed secrets
+     */
+    AzureKeyVaultChangeEvent(String vaultUrl, Set<String> addedKeys, Set<String> changedKeys, Set<String> removedKeys) {
+        this.vaultUrl = vaultUrl;
+        this.addedKeys = Collections.unmodifiableSet(addedKeys);
+        this.changedKeys = Collections.unmodifiableSet(changedKeys);
+        this.removedKeys = Collections.unmodifiableSet(removedKeys);
+    }
+
+    /**
+     * Get the URL of the Azure Key Vault whose secrets changed.
+     *
+     * @return the URL of Azure Key Vault.
+     */
+    public String getVaultUrl() {
+        return vaultUrl;
+    }
+
+    /**
+     * Get the names of the secrets which were added.
+     *
+     * @return the unmodifiable names of the added secrets.
+     */
+    public Set<String> getAddedKeys() {
+        return addedKeys;
+    }
+
+    /**
+     * Get the names of the secrets whose value changed.
+     *
+     * @return the unmodifiable names of the changed secrets.
+     */
+    public Set<String> getChangedKeys() {
+        return changedKeys;
+    }
+
+    /**
+     * Get the names of the secrets which were removed, or aren't selected by the filter anymore.
+     *
+     * @return the unmodifiable names of the removed secrets.
+     */
+    public Set<String> getRemovedKeys() {
+        return removedKeys;
+    }
+
+    /**
+     * Check whether no secret was added, changed or removed.
+     *
+     * @return true if no secret was added, changed or removed; otherwise, false.
+     */
+    boolean isEmpty() {
+        return addedKeys.isEmpty() && changedKeys.isEmpty() && removedKeys.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "AzureKeyVaultChangeEvent{vaultUrl=" + vaultUrl + ", addedKeys=" + addedKeys + ", changedKeys=" + changedKeys
+                + ", removedKeys=" + removedKeys + "}";
+    }
+}
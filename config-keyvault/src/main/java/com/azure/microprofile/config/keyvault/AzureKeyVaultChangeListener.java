@@ -0,0 +1,24 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+/**
+ * Listener of the secrets which change in the caches of the config sources, registered with
+ * {@link AzureKeyVaultConfigSource#addChangeListener(AzureKeyVaultChangeListener)}.
+ *
+ * <ul>
+ *     <li>Listeners are called on a daemon notifier thread, never on the thread which refreshed the cache, one event at a time in refresh order.</li>
+ *     <li>A listener which throws doesn't prevent the other listeners from being called.</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface AzureKeyVaultChangeListener {
+
+    /**
+     * Called after a refresh of a cache added, changed or removed secrets.
+     *
+     * @param event the names of the added, changed and removed secrets.
+     */
+    void onChange(AzureKeyVaultChangeEvent event);
+}
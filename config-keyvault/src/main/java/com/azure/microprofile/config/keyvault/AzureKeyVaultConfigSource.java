@@ -11,6 +11,12 @@ import org.eclipse.microprofile.config.spi.ConfigSource;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Custom ConfigSource for Azure Key Vault.
@@ -18,25 +24,63 @@ import java.util.Set;
 public final class AzureKeyVaultConfigSource implements ConfigSource {
 
     private static final ClientLogger LOGGER = new ClientLogger(AzureKeyVaultConfigSource.class);
+    static final String CACHE_MODE_ALL = "all";
+    static final String CACHE_MODE_NAMES = "names";
+    static final String CACHE_MODE_LAZY = "lazy";
+    static final String CACHE_MODE_NONE = "none";
+    static final int DEFAULT_ORDINAL = 90;
+    private static final String STARTUP_MODE_SYNC = "sync";
+    private static final String STARTUP_MODE_ASYNC = "async";
+    private static final long DEFAULT_STARTUP_DEADLINE_IN_MS = 10000L; // 10 seconds
+    private static final Executor STARTUP_EXECUTOR = runnable -> {
+        Thread thread = new Thread(runnable, "azure-keyvault-startup");
+        thread.setDaemon(true);
+        thread.start();
+    };
     private AzureKeyVaultOperation keyVaultOperation;
 
     private boolean isKeyVaultEnabled = false;
 
+    private final long constructedAtInNanos = System.nanoTime();
+    private final CompletableFuture<Void> initialization;
+    private volatile CompletableFuture<Void> prefetch = CompletableFuture.completedFuture(null);
+    private volatile long startupDeadlineInNanos;
+
     /**
      * Default constructor.
+     * <p>
+     * In {@code sync} startup mode, the source is initialized on the caller thread, and an invalid configuration fails the constructor.
+     * In {@code async} startup mode, the Azure Key Vault client is created on a daemon thread, so the runtime keeps bootstrapping meanwhile.
+     * Lookups wait for it, and fail with its error if the configuration is invalid.
      */
     public AzureKeyVaultConfigSource() {
-        this(null, getConfig());
+        this(getConfig());
+    }
+
+    /**
+     * Constructor with {@link Config} instance, which the source is configured from like with the default constructor.
+     *
+     * @param config {@link Config} instance.
+     */
+    AzureKeyVaultConfigSource(Config config) {
+        if (isAsyncStartup(config)) {
+            this.initialization = CompletableFuture.runAsync(() -> init(null, config), STARTUP_EXECUTOR);
+        } else {
+            init(null, config);
+            this.initialization = CompletableFuture.completedFuture(null);
+        }
     }
 
     /**
-     * Constructor with {@link AzureKeyVaultOperation} instance and {@link Config} instance. This constructor is used for testing.
+     * Constructor with {@link AzureKeyVaultOperation} instance and {@link Config} instance.
+     * This constructor is used for testing, and for the vaults listed in {@code azure.keyvault.vaults}, see {@link AzureKeyVaultConfigSourceProvider}.
      *
      * @param keyVaultOperation {@link AzureKeyVaultOperation} instance.
      * @param config            {@link Config} instance.
      */
     AzureKeyVaultConfigSource(AzureKeyVaultOperation keyVaultOperation, Config config) {
         init(keyVaultOperation, config);
+        this.initialization = CompletableFuture.completedFuture(null);
     }
 
     /**
@@ -57,19 +101,43 @@ public final class AzureKeyVaultConfigSource implements ConfigSource {
      * <ul>
      *  <li>If {@code azure.keyvault.url} is not set, then {@link AzureKeyVaultOperation} will not be initialized.</li>
      *  <li>
-     *      If {@code azure.keyvault.cache} is set to {@code true}, then {@link CachedAzureKeyVaultOperation} will be used.
+     *      If {@code azure.keyvault.vaults} is set, then {@link AzureKeyVaultOperation} will not be initialized either, since the listed vaults are
+     *      provided by {@link AzureKeyVaultConfigSourceProvider}. Setting {@code azure.keyvault.url} as well is rejected.
+     *  </li>
+     *  <li>
+     *      If {@code azure.keyvault.cache} is set to {@code true} and {@code azure.keyvault.cache.mode} is set to {@code names},
+     *      then {@link IndexedAzureKeyVaultOperation} will be used. It caches secret names for {@code azure.keyvault.cache.ttl}, but not secret values.
+     *  </li>
+     *  <li>
+     *      If {@code azure.keyvault.cache} is set to {@code true} and {@code azure.keyvault.cache.mode} is set to {@code lazy},
+     *      then {@link LazyCachedAzureKeyVaultOperation} will be used. It caches each secret on first lookup for {@code azure.keyvault.cache.ttl},
+     *      and misses for {@code azure.keyvault.cache.negative-ttl}, within the bounds of {@code azure.keyvault.cache.max-entries} and {@code azure.keyvault.cache.max-bytes}.
+     *  </li>
+     *  <li>
+     *      If {@code azure.keyvault.cache} is set to {@code true} and {@code azure.keyvault.cache.mode} is not set or set to {@code all},
+     *      then {@link CachedAzureKeyVaultOperation} will be used.
      *      <ul>
      *          <li>If {@code azure.keyvault.cache.ttl} is set, then it will be used as TTL for cache entries.</li>
      *          <li>Otherwise, CachedAzureKeyVaultOperation.DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS will be used as TTL for cache entries.</li>
+     *          <li>
+     *              If {@code azure.keyvault.cache.background-refresh} is set to {@code true}, then the cache will be refreshed by a background scheduler
+     *              {@code azure.keyvault.cache.refresh-ahead} milliseconds before it expires, and expired entries will be served for at most
+     *              {@code azure.keyvault.cache.max-staleness} milliseconds while the background refresh has not succeeded.
+     *          </li>
      *      </ul>
      *  </li>
      *  <li>
      *      Otherwise, {@link NoCacheAzureKeyVaultOperation} will be used.
      *      <ul>
      *          <li>If {@code azure.keyvault.secret-name-regex} is set, then it will be used to filter secret names.</li>
-     *          <li>Otherwise, NoCacheAzureKeyVaultOperation.DEFAULT_SECRET_NAME_REGEX will be used to filter secret names.</li>
+     *          <li>Otherwise, AzureKeyVaultOperation.DEFAULT_SECRET_NAME_REGEX will be used to filter secret names.</li>
      *      </ul>
      *  </li>
+     *  <li>
+     *      If {@code azure.keyvault.startup.mode} is set to {@code async}, then the secrets are prefetched on a daemon thread right away.
+     *      Lookups wait for the prefetch until {@code azure.keyvault.startup.deadline} milliseconds after the source was constructed,
+     *      and are answered as if the vault had no secrets once the deadline has passed, with a warning, until the prefetch completes.
+     *  </li>
      * </ul>
      *
      * @param keyVaultOperation {@link AzureKeyVaultOperation} instance.
@@ -79,25 +147,160 @@ public final class AzureKeyVaultConfigSource implements ConfigSource {
         if (keyVaultOperation != null) {
             this.keyVaultOperation = keyVaultOperation;
             isKeyVaultEnabled = true;
-            return;
+        } else {
+            if (!AzureKeyVaultConfigSourceProvider.getVaultNames(config).isEmpty()) {
+                LOGGER.verbose("Azure Key Vault ConfigSource is not enabled, the vaults listed in 'azure.keyvault.vaults' are provided by "
+                        + AzureKeyVaultConfigSourceProvider.class.getSimpleName() + ".");
+                return;
+            }
+
+            String url = config.getOptionalValue("azure.keyvault.url", String.class).orElse("");
+            isKeyVaultEnabled = !url.isEmpty();
+
+            if (!isKeyVaultEnabled) {
+                LOGGER.warning("Azure Key Vault ConfigSource is not enabled. Please set 'azure.keyvault.url' in your configuration.");
+                return;
+            }
+
+            this.keyVaultOperation = createOperation(url, config);
+        }
+
+        if (config != null) {
+            startPrefetch(config);
+        }
+    }
+
+    /**
+     * Register a listener of the secrets which change in the caches of all Azure Key Vault config sources.
+     *
+     * @param listener the listener, which is called on a notifier thread after each refresh which added, changed or removed secrets.
+     * @throws NullPointerException if the listener is null.
+     */
+    public static void addChangeListener(AzureKeyVaultChangeListener listener) {
+        ChangeNotifier.addListener(listener);
+    }
+
+    /**
+     * Unregister a listener registered with {@link #addChangeListener(AzureKeyVaultChangeListener)}.
+     *
+     * @param listener the listener.
+     */
+    public static void removeChangeListener(AzureKeyVaultChangeListener listener) {
+        ChangeNotifier.removeListener(listener);
+    }
+
+    /**
+     * Create {@link AzureKeyVaultOperation} based on the cache configuration, see {@link #init(AzureKeyVaultOperation, Config)}.
+     *
+     * @param url    URL of Azure Key Vault.
+     * @param config {@link Config} instance.
+     * @return {@link AzureKeyVaultOperation} instance.
+     */
+    static AzureKeyVaultOperation createOperation(String url, Config config) {
+        boolean cached = config.getOptionalValue("azure.keyvault.cache", Boolean.class).orElse(Boolean.TRUE);
+        AzureKeyVaultOptions options = AzureKeyVaultOptions.fromConfig(config);
+        if (!cached) {
+            return new NoCacheAzureKeyVaultOperation(url, options);
         }
 
-        String url = config.getOptionalValue("azure.keyvault.url", String.class).orElse("");
-        isKeyVaultEnabled = !url.isEmpty();
+        String cacheMode = config.getOptionalValue("azure.keyvault.cache.mode", String.class).orElse(CACHE_MODE_ALL);
+        switch (cacheMode) {
+            case CACHE_MODE_ALL:
+                return new CachedAzureKeyVaultOperation(url, options);
+            case CACHE_MODE_NAMES:
+                return new IndexedAzureKeyVaultOperation(url, options);
+            case CACHE_MODE_LAZY:
+                return new LazyCachedAzureKeyVaultOperation(url, options);
+            default:
+                throw LOGGER.logExceptionAsError(new IllegalArgumentException("Unsupported value '" + cacheMode + "' of 'azure.keyvault.cache.mode', supported values are '"
+                        + CACHE_MODE_ALL + "', '" + CACHE_MODE_NAMES + "' and '" + CACHE_MODE_LAZY + "'."));
+        }
+    }
+
+    /**
+     * Check whether {@code azure.keyvault.startup.mode} is set to {@code async}.
+     *
+     * @param config {@link Config} instance.
+     * @return true if the startup mode is {@code async}; false if it is {@code sync} or not set.
+     * @throws IllegalArgumentException if the startup mode is not supported.
+     */
+    static boolean isAsyncStartup(Config config) {
+        String startupMode = config.getOptionalValue("azure.keyvault.startup.mode", String.class).orElse(STARTUP_MODE_SYNC);
+        switch (startupMode) {
+            case STARTUP_MODE_SYNC:
+                return false;
+            case STARTUP_MODE_ASYNC:
+                return true;
+            default:
+                throw LOGGER.logExceptionAsError(new IllegalArgumentException("Unsupported value '" + startupMode + "' of 'azure.keyvault.startup.mode', supported values are '"
+                        + STARTUP_MODE_SYNC + "' and '" + STARTUP_MODE_ASYNC + "'."));
+        }
+    }
 
-        if (!isKeyVaultEnabled) {
-            LOGGER.warning("Azure Key Vault ConfigSource is not enabled. Please set 'azure.keyvault.url' in your configuration.");
+    /**
+     * Start prefetching the secrets on a daemon thread if {@code azure.keyvault.startup.mode} is set to {@code async}.
+     *
+     * @param config {@link Config} instance.
+     * @implNote The prefetch lists the secrets, which loads whatever the cache mode caches, so later lookups don't wait on Azure Key Vault.
+     */
+    private void startPrefetch(Config config) {
+        if (!isAsyncStartup(config)) {
             return;
         }
 
-        boolean cached = config.getOptionalValue("azure.keyvault.cache", Boolean.class).orElse(Boolean.TRUE);
-        if (cached) {
-            Long ttl = config.getOptionalValue("azure.keyvault.cache.ttl", Long.class).orElse(null);
-            this.keyVaultOperation = new CachedAzureKeyVaultOperation(url, ttl);
-        } else {
-            String regex = config.getOptionalValue("azure.keyvault.secret-name-regex", String.class).orElse(null);
-            this.keyVaultOperation = new NoCacheAzureKeyVaultOperation(url, regex);
+        long startupDeadlineInMs = config.getOptionalValue("azure.keyvault.startup.deadline", Long.class).orElse(DEFAULT_STARTUP_DEADLINE_IN_MS);
+        this.startupDeadlineInNanos = constructedAtInNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, startupDeadlineInMs));
+
+        AzureKeyVaultOperation operation = this.keyVaultOperation;
+        long startedAtInNanos = System.nanoTime();
+        this.prefetch = CompletableFuture.runAsync(operation::getPropertyNames, STARTUP_EXECUTOR)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        LOGGER.warning("Prefetching secrets from Azure Key Vault failed, lookups will load them: " + e.getMessage());
+                    } else {
+                        LOGGER.verbose("Prefetched secrets from Azure Key Vault in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtInNanos) + " ms.");
+                    }
+                });
+    }
+
+    /**
+     * Wait for the startup of this source before a lookup.
+     *
+     * @return true if the lookup may use {@link #keyVaultOperation}; false if the startup deadline has passed while the prefetch is still running.
+     * @implNote A failed prefetch doesn't hold lookups back, they load the secrets themselves like in {@code sync} startup mode.
+     * Every lookup answered without the secrets is logged as a warning, so the fallback to other config sources isn't silent.
+     */
+    private boolean awaitStartup() {
+        try {
+            initialization.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        CompletableFuture<Void> pending = prefetch;
+        if (pending.isDone()) {
+            return true;
+        }
+
+        long remainingInNanos = startupDeadlineInNanos - System.nanoTime();
+        if (remainingInNanos > 0) {
+            try {
+                pending.get(remainingInNanos, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (ExecutionException e) {
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warning("Interrupted while waiting for Azure Key Vault secrets to be prefetched, the lookup is answered without them.");
+                return false;
+            } catch (TimeoutException e) {
+                // Fall back below
+            }
         }
+
+        LOGGER.warning("Azure Key Vault secrets were not prefetched within 'azure.keyvault.startup.deadline', "
+                + "the lookup is answered without them until the prefetch completes.");
+        return false;
     }
 
     /**
@@ -107,7 +310,7 @@ public final class AzureKeyVaultConfigSource implements ConfigSource {
      */
     @Override
     public Map<String, String> getProperties() {
-        return isKeyVaultEnabled ? keyVaultOperation.getProperties() : Collections.emptyMap();
+        return awaitStartup() && isKeyVaultEnabled ? keyVaultOperation.getProperties() : Collections.emptyMap();
     }
 
     /**
@@ -117,7 +320,7 @@ public final class AzureKeyVaultConfigSource implements ConfigSource {
      */
     @Override
     public Set<String> getPropertyNames() {
-        return isKeyVaultEnabled ? keyVaultOperation.getPropertyNames() : Collections.emptySet();
+        return awaitStartup() && isKeyVaultEnabled ? keyVaultOperation.getPropertyNames() : Collections.emptySet();
     }
 
     /**
@@ -128,7 +331,7 @@ public final class AzureKeyVaultConfigSource implements ConfigSource {
      */
     @Override
     public String getValue(String key) {
-        return isKeyVaultEnabled ? keyVaultOperation.getValue(key) : null;
+        return awaitStartup() && isKeyVaultEnabled ? keyVaultOperation.getValue(key) : null;
     }
 
     /**
@@ -148,6 +351,6 @@ public final class AzureKeyVaultConfigSource implements ConfigSource {
      */
     @Override
     public int getOrdinal() {
-        return 90;
+        return DEFAULT_ORDINAL;
     }
 }
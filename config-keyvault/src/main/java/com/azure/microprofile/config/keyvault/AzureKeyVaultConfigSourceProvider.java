@@ -0,0 +1,203 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.spi.ConfigProviderResolver;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.eclipse.microprofile.config.spi.ConfigSourceProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Custom ConfigSourceProvider for the Azure Key Vaults listed in {@code azure.keyvault.vaults}.
+ *
+ * <ul>
+ *     <li>
+ *         Every vault is configured with {@code azure.keyvault.vaults.<vault>.*} properties, such as {@code url}, {@code ordinal},
+ *         {@code cache.mode} or {@code secret-name-regex}. Properties which are not set for a vault fall back to {@code azure.keyvault.*}.
+ *     </li>
+ *     <li>
+ *         Vaults with the same ordinal are aggregated into one {@link AzureKeyVaultConfigSource}, in the order they are listed,
+ *         see {@link AggregateAzureKeyVaultOperation}. Vaults with different ordinals are provided as separate sources.
+ *     </li>
+ *     <li>
+ *         {@code azure.keyvault.url} must not be set together with {@code azure.keyvault.vaults}, and each listed vault must have its own URL,
+ *         so no vault is loaded twice. {@link AzureKeyVaultConfigSource} steps aside when {@code azure.keyvault.vaults} is set.
+ *     </li>
+ *     <li>
+ *         The secrets of all vaults are loaded concurrently before the sources are provided, or prefetched in the background
+ *         if {@code azure.keyvault.startup.mode} is set to {@code async}.
+ *     </li>
+ * </ul>
+ */
+public final class AzureKeyVaultConfigSourceProvider implements ConfigSourceProvider {
+
+    private static final ClientLogger LOGGER = new ClientLogger(AzureKeyVaultConfigSourceProvider.class);
+
+    /**
+     * Default constructor.
+     */
+    public AzureKeyVaultConfigSourceProvider() {
+    }
+
+    /**
+     * Get a {@link ConfigSource} per ordinal of the vaults listed in {@code azure.keyvault.vaults}.
+     *
+     * @param forClassLoader the class loader of the configuration.
+     * @return the sources, empty if {@code azure.keyvault.vaults} is not set.
+     */
+    @Override
+    public Iterable<ConfigSource> getConfigSources(ClassLoader forClassLoader) {
+        return getConfigSources(ConfigProviderResolver.instance()
+                .getBuilder()
+                .forClassLoader(forClassLoader)
+                .addDefaultSources()
+                .build());
+    }
+
+    /**
+     * Get a {@link ConfigSource} per ordinal of the vaults listed in {@code azure.keyvault.vaults}.
+     *
+     * @param config {@link Config} instance.
+     * @return the sources, empty if {@code azure.keyvault.vaults} is not set.
+     * @throws IllegalArgumentException if a listed vault has no URL or the URL of another vault, or {@code azure.keyvault.url} is set as well.
+     */
+    static List<ConfigSource> getConfigSources(Config config) {
+        List<String> vaultNames = getVaultNames(config);
+        if (vaultNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, Map<String, AzureKeyVaultOperation>> operationsByOrdinal = new LinkedHashMap<>();
+        Map<String, String> vaultNamesByUrl = new HashMap<>();
+        for (String vaultName : vaultNames) {
+            Config vaultConfig = new VaultScopedConfig(config, vaultName);
+            String url = vaultConfig.getOptionalValue("azure.keyvault.url", String.class).orElse("");
+            if (url.isEmpty()) {
+                throw LOGGER.logExceptionAsError(new IllegalArgumentException("'" + VaultScopedConfig.VAULTS + "." + vaultName
+                        + ".url' must be set for vault '" + vaultName + "' listed in '" + VaultScopedConfig.VAULTS + "'."));
+            }
+            String sameUrlVaultName = vaultNamesByUrl.putIfAbsent(toComparableUrl(url), vaultName);
+            if (sameUrlVaultName != null) {
+                throw LOGGER.logExceptionAsError(new IllegalArgumentException("Vaults '" + sameUrlVaultName + "' and '" + vaultName
+                        + "' listed in '" + VaultScopedConfig.VAULTS + "' have the same url '" + url + "'."));
+            }
+            int ordinal = vaultConfig.getOptionalValue("azure.keyvault.ordinal", Integer.class).orElse(AzureKeyVaultConfigSource.DEFAULT_ORDINAL);
+            operationsByOrdinal.computeIfAbsent(ordinal, ignored -> new LinkedHashMap<>())
+                    .put(vaultName, AzureKeyVaultConfigSource.createOperation(url, vaultConfig));
+        }
+
+        if (!AzureKeyVaultConfigSource.isAsyncStartup(config)) {
+            preload(operationsByOrdinal);
+        }
+
+        List<ConfigSource> configSources = new ArrayList<>();
+        operationsByOrdinal.forEach((ordinal, operations) -> {
+            String name = AzureKeyVaultConfigSource.class.getSimpleName() + "[" + String.join(",", operations.keySet()) + "]";
+            AzureKeyVaultOperation operation = operations.size() == 1 ? operations.values().iterator().next()
+                    : new AggregateAzureKeyVaultOperation(new ArrayList<>(operations.values()));
+            configSources.add(new VaultsConfigSource(name, ordinal, new AzureKeyVaultConfigSource(operation, config)));
+        });
+        return configSources;
+    }
+
+    /**
+     * Get the names of the vaults listed in {@code azure.keyvault.vaults}.
+     *
+     * @param config {@link Config} instance.
+     * @return the names of the vaults, empty if {@code azure.keyvault.vaults} is not set.
+     * @throws IllegalArgumentException if {@code azure.keyvault.url} is set as well, since its vault would be loaded twice if it's listed too.
+     */
+    static List<String> getVaultNames(Config config) {
+        List<String> vaultNames = config.getOptionalValues(VaultScopedConfig.VAULTS, String.class).orElse(Collections.emptyList());
+        if (!vaultNames.isEmpty() && !config.getOptionalValue("azure.keyvault.url", String.class).orElse("").isEmpty()) {
+            throw LOGGER.logExceptionAsError(new IllegalArgumentException("'azure.keyvault.url' must not be set together with '"
+                    + VaultScopedConfig.VAULTS + "', list its vault in '" + VaultScopedConfig.VAULTS + "' instead."));
+        }
+        return vaultNames;
+    }
+
+    /**
+     * Convert a vault URL to the form which identifies the vault, ignoring case and a trailing slash.
+     *
+     * @param url URL of Azure Key Vault.
+     * @return the comparable URL.
+     */
+    private static String toComparableUrl(String url) {
+        String trimmed = url.trim();
+        return (trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Load the secrets of all vaults concurrently, instead of each source loading its vaults on its first lookup in turn.
+     *
+     * @param operationsByOrdinal operations of the vaults by ordinal.
+     * @implNote Vaults which don't cache their secrets are not loaded. A failed load is retried by the first lookup of its source.
+     */
+    private static void preload(Map<Integer, Map<String, AzureKeyVaultOperation>> operationsByOrdinal) {
+        List<AzureKeyVaultOperation> operations = operationsByOrdinal.values().stream()
+                .flatMap(vaultOperations -> vaultOperations.values().stream())
+                .filter(operation -> !(operation instanceof NoCacheAzureKeyVaultOperation))
+                .collect(Collectors.toList());
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        try {
+            AggregateAzureKeyVaultOperation.loadInParallel(operations, AzureKeyVaultOperation::getPropertyNames);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Loading secrets from Azure Key Vaults failed, lookups will load them: " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@link AzureKeyVaultConfigSource} of vaults listed in {@code azure.keyvault.vaults}, with their name and ordinal.
+     */
+    private static final class VaultsConfigSource implements ConfigSource {
+        private final String name;
+        private final int ordinal;
+        private final AzureKeyVaultConfigSource configSource;
+
+        private VaultsConfigSource(String name, int ordinal, AzureKeyVaultConfigSource configSource) {
+            this.name = name;
+            this.ordinal = ordinal;
+            this.configSource = configSource;
+        }
+
+        @Override
+        public Map<String, String> getProperties() {
+            return configSource.getProperties();
+        }
+
+        @Override
+        public Set<String> getPropertyNames() {
+            return configSource.getPropertyNames();
+        }
+
+        @Override
+        public String getValue(String propertyName) {
+            return configSource.getValue(propertyName);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getOrdinal() {
+            return ordinal;
+        }
+    }
+}
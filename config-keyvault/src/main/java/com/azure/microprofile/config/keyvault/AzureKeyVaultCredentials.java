@@ -0,0 +1,133 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.identity.AzureCliCredentialBuilder;
+import com.azure.identity.ClientCertificateCredentialBuilder;
+import com.azure.identity.ClientSecretCredentialBuilder;
+import com.azure.identity.DefaultAzureCredentialBuilder;
+import com.azure.identity.EnvironmentCredentialBuilder;
+import com.azure.identity.ManagedIdentityCredentialBuilder;
+import com.azure.identity.TokenCachePersistenceOptions;
+import com.azure.identity.WorkloadIdentityCredentialBuilder;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * This class is used to create the {@link TokenCredential} which authenticates to Azure Key Vault.
+ *
+ * <ul>
+ *     <li>
+ *         The credential type is selected by {@code azure.keyvault.credential.type}, so a known environment doesn't pay for
+ *         {@link com.azure.identity.DefaultAzureCredential} probing every source in turn before the first call.
+ *     </li>
+ *     <li>
+ *         The tokens of the client certificate and client secret credentials can be cached on disk, so a restart reuses
+ *         the tokens which are still valid instead of requesting new ones from Microsoft Entra ID.
+ *     </li>
+ * </ul>
+ */
+final class AzureKeyVaultCredentials {
+    private static final ClientLogger LOGGER = new ClientLogger(AzureKeyVaultCredentials.class);
+    static final String TYPE_DEFAULT = "default";
+    static final String TYPE_MANAGED_IDENTITY = "managed-identity";
+    static final String TYPE_WORKLOAD_IDENTITY = "workload-identity";
+    static final String TYPE_CLIENT_CERTIFICATE = "client-certificate";
+    static final String TYPE_CLIENT_SECRET = "client-secret";
+    static final String TYPE_ENVIRONMENT = "environment";
+    static final String TYPE_AZURE_CLI = "azure-cli";
+
+    private AzureKeyVaultCredentials() {
+    }
+
+    /**
+     * Create the credential selected by the options.
+     *
+     * @param options options of the operation
+     * @return the credential.
+     * @throws IllegalArgumentException if the credential type is not supported.
+     */
+    static TokenCredential create(AzureKeyVaultOptions options) {
+        String type = Optional.ofNullable(options.getCredentialType()).orElse(TYPE_DEFAULT).toLowerCase(Locale.ROOT);
+        String clientId = options.getCredentialClientId();
+        String tenantId = options.getCredentialTenantId();
+        boolean tokenCacheEnabled = Optional.ofNullable(options.getTokenCacheEnabled()).orElse(Boolean.FALSE);
+        if (tokenCacheEnabled && !TYPE_CLIENT_CERTIFICATE.equals(type) && !TYPE_CLIENT_SECRET.equals(type)) {
+            LOGGER.log(LogLevel.WARNING, () -> "The token cache is only supported by '" + TYPE_CLIENT_CERTIFICATE + "' and '" + TYPE_CLIENT_SECRET
+                    + "' credentials, ignoring '" + AzureKeyVaultOptions.CREDENTIAL_TOKEN_CACHE_ENABLED + "' for '" + type + "' credential.");
+        }
+
+        switch (type) {
+            case TYPE_DEFAULT:
+                DefaultAzureCredentialBuilder defaultBuilder = new DefaultAzureCredentialBuilder();
+                if (clientId != null) {
+                    defaultBuilder.managedIdentityClientId(clientId).workloadIdentityClientId(clientId);
+                }
+                if (tenantId != null) {
+                    defaultBuilder.tenantId(tenantId);
+                }
+                return defaultBuilder.build();
+            case TYPE_MANAGED_IDENTITY:
+                return new ManagedIdentityCredentialBuilder().clientId(clientId).build();
+            case TYPE_WORKLOAD_IDENTITY:
+                WorkloadIdentityCredentialBuilder workloadBuilder = new WorkloadIdentityCredentialBuilder();
+                if (clientId != null) {
+                    workloadBuilder.clientId(clientId);
+                }
+                if (tenantId != null) {
+                    workloadBuilder.tenantId(tenantId);
+                }
+                return workloadBuilder.build();
+            case TYPE_CLIENT_CERTIFICATE:
+                ClientCertificateCredentialBuilder certificateBuilder = new ClientCertificateCredentialBuilder().clientId(clientId).tenantId(tenantId);
+                String certificatePath = options.getCredentialClientCertificatePath();
+                if (certificatePath != null && isPfx(certificatePath)) {
+                    certificateBuilder.pfxCertificate(certificatePath).clientCertificatePassword(options.getCredentialClientCertificatePassword());
+                } else {
+                    certificateBuilder.pemCertificate(certificatePath);
+                }
+                if (tokenCacheEnabled) {
+                    certificateBuilder.tokenCachePersistenceOptions(tokenCachePersistenceOptions(options));
+                }
+                return certificateBuilder.build();
+            case TYPE_CLIENT_SECRET:
+                ClientSecretCredentialBuilder secretBuilder = new ClientSecretCredentialBuilder().clientId(clientId).tenantId(tenantId)
+                        .clientSecret(options.getCredentialClientSecret());
+                if (tokenCacheEnabled) {
+                    secretBuilder.tokenCachePersistenceOptions(tokenCachePersistenceOptions(options));
+                }
+                return secretBuilder.build();
+            case TYPE_ENVIRONMENT:
+                return new EnvironmentCredentialBuilder().build();
+            case TYPE_AZURE_CLI:
+                AzureCliCredentialBuilder cliBuilder = new AzureCliCredentialBuilder();
+                if (tenantId != null) {
+                    cliBuilder.tenantId(tenantId);
+                }
+                return cliBuilder.build();
+            default:
+                throw LOGGER.logExceptionAsError(new IllegalArgumentException("Unsupported value '" + type + "' of '" + AzureKeyVaultOptions.CREDENTIAL_TYPE
+                        + "', supported values are '" + TYPE_DEFAULT + "', '" + TYPE_MANAGED_IDENTITY + "', '" + TYPE_WORKLOAD_IDENTITY + "', '"
+                        + TYPE_CLIENT_CERTIFICATE + "', '" + TYPE_CLIENT_SECRET + "', '" + TYPE_ENVIRONMENT + "' and '" + TYPE_AZURE_CLI + "'."));
+        }
+    }
+
+    private static TokenCachePersistenceOptions tokenCachePersistenceOptions(AzureKeyVaultOptions options) {
+        TokenCachePersistenceOptions persistenceOptions = new TokenCachePersistenceOptions()
+                .setUnencryptedStorageAllowed(Optional.ofNullable(options.getTokenCacheUnencryptedStorageAllowed()).orElse(Boolean.FALSE));
+        if (options.getTokenCacheName() != null) {
+            persistenceOptions.setName(options.getTokenCacheName());
+        }
+        return persistenceOptions;
+    }
+
+    private static boolean isPfx(String certificatePath) {
+        String lowerCasePath = certificatePath.toLowerCase(Locale.ROOT);
+        return lowerCasePath.endsWith(".pfx") || lowerCasePath.endsWith(".p12");
+    }
+}
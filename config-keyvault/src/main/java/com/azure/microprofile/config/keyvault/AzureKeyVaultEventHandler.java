@@ -0,0 +1,228 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.json.JsonProviders;
+import com.azure.json.JsonReader;
+import com.azure.json.JsonToken;
+import com.azure.json.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Handler of Azure Key Vault change events, which invalidates the changed secrets in the caches of the config sources.
+ *
+ * <ul>
+ *     <li>
+ *         Events are accepted in the Event Grid schema or the CloudEvents 1.0 schema, as a single event or a batch. The application mounts
+ *         the handler on an endpoint of its own, such as a JAX-RS resource subscribed to the Event Grid system topic of the vault, and passes
+ *         the request body to {@link #handle(String)}.
+ *     </li>
+ *     <li>
+ *         {@code Microsoft.KeyVault.SecretNewVersionCreated} and {@code Microsoft.KeyVault.SecretExpired} events refetch the affected secret only.
+ *         Other events are ignored. With events, {@code azure.keyvault.cache.ttl} can be set long, as a safety net for missed events.
+ *     </li>
+ *     <li>Events of a vault only invalidate the config sources of that vault, which is identified by its name.</li>
+ * </ul>
+ */
+public final class AzureKeyVaultEventHandler {
+
+    private static final ClientLogger LOGGER = new ClientLogger(AzureKeyVaultEventHandler.class);
+    private static final String SECRET_NEW_VERSION_CREATED = "Microsoft.KeyVault.SecretNewVersionCreated";
+    private static final String SECRET_EXPIRED = "Microsoft.KeyVault.SecretExpired";
+    private static final String SUBSCRIPTION_VALIDATION = "Microsoft.EventGrid.SubscriptionValidationEvent";
+
+    /**
+     * Operations of the config sources by vault name, weakly referenced so config sources which are discarded can be collected.
+     */
+    private static final Map<AzureKeyVaultOperation, String> OPERATIONS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private AzureKeyVaultEventHandler() {
+    }
+
+    /**
+     * Handle Azure Key Vault change events.
+     *
+     * @param payload request body of the events, in the Event Grid schema or the CloudEvents 1.0 schema.
+     * @return the body of the response to an Event Grid subscription validation event, which must be returned to Event Grid;
+     * null if the payload holds no subscription validation event.
+     * @throws IllegalArgumentException if the payload is not an event or a batch of events.
+     */
+    public static String handle(String payload) {
+        List<ChangeEvent> events = parse(payload);
+        String validationResponse = null;
+        for (ChangeEvent event : events) {
+            if (SUBSCRIPTION_VALIDATION.equals(event.type) && event.validationCode != null) {
+                validationResponse = toValidationResponse(event.validationCode);
+            } else if (SECRET_NEW_VERSION_CREATED.equals(event.type) || SECRET_EXPIRED.equals(event.type)) {
+                invalidate(event);
+            } else {
+                LOGGER.log(LogLevel.VERBOSE, () -> "handle() ignored event of type " + event.type);
+            }
+        }
+        return validationResponse;
+    }
+
+    /**
+     * Register the operation of a config source, so events of its vault invalidate its cache.
+     *
+     * @param url       URL of Azure Key Vault
+     * @param operation the operation
+     */
+    static void register(String url, AzureKeyVaultOperation operation) {
+        OPERATIONS.put(operation, toVaultName(url));
+    }
+
+    /**
+     * Invalidate the secret of an event in the operations of its vault.
+     *
+     * @param event the event.
+     */
+    private static void invalidate(ChangeEvent event) {
+        String secretName = event.getSecretName();
+        if (secretName == null || secretName.isEmpty()) {
+            LOGGER.log(LogLevel.WARNING, () -> "handle() ignored event of type " + event.type + " without secret name");
+            return;
+        }
+
+        String vaultName = event.getVaultName();
+        List<AzureKeyVaultOperation> operations = new ArrayList<>();
+        synchronized (OPERATIONS) {
+            OPERATIONS.forEach((operation, operationVaultName) -> {
+                if (vaultName == null || vaultName.equals(operationVaultName)) {
+                    operations.add(operation);
+                }
+            });
+        }
+        LOGGER.log(LogLevel.VERBOSE, () -> "handle() invalidates secret " + secretName + " of vault " + vaultName + " in " + operations.size() + " config sources");
+        operations.forEach(operation -> operation.invalidate(secretName));
+    }
+
+    /**
+     * Get the name of a vault from its URL.
+     *
+     * @param url URL of Azure Key Vault
+     * @return the first label of the host in lower case, such as {@code my-vault} for {@code https://my-vault.vault.azure.net/}.
+     */
+    static String toVaultName(String url) {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            host = null;
+        }
+        if (host == null) {
+            return url.toLowerCase(Locale.ROOT);
+        }
+        int dot = host.indexOf('.');
+        return (dot < 0 ? host : host.substring(0, dot)).toLowerCase(Locale.ROOT);
+    }
+
+    private static List<ChangeEvent> parse(String payload) {
+        try (JsonReader reader = JsonProviders.createReader(payload)) {
+            JsonToken token = reader.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                return reader.readArray(eventReader -> eventReader.readObject(AzureKeyVaultEventHandler::readEvent));
+            } else if (token == JsonToken.START_OBJECT) {
+                return Collections.singletonList(reader.readObject(AzureKeyVaultEventHandler::readEvent));
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw LOGGER.logExceptionAsError(new IllegalArgumentException("The payload is not a valid Event Grid or CloudEvents event: " + e.getMessage(), e));
+        }
+        throw LOGGER.logExceptionAsError(new IllegalArgumentException("The payload is not a valid Event Grid or CloudEvents event."));
+    }
+
+    private static ChangeEvent readEvent(JsonReader reader) throws IOException {
+        ChangeEvent event = new ChangeEvent();
+        while (reader.nextToken() != JsonToken.END_OBJECT) {
+            String fieldName = reader.getFieldName();
+            reader.nextToken();
+            if ("eventType".equals(fieldName) || "type".equals(fieldName)) {
+                event.type = reader.getString();
+            } else if ("subject".equals(fieldName)) {
+                event.subject = reader.getString();
+            } else if ("topic".equals(fieldName) || "source".equals(fieldName)) {
+                event.source = reader.getString();
+            } else if ("data".equals(fieldName) && reader.currentToken() == JsonToken.START_OBJECT) {
+                readData(reader, event);
+            } else {
+                reader.skipChildren();
+            }
+        }
+        return event;
+    }
+
+    private static void readData(JsonReader reader, ChangeEvent event) throws IOException {
+        while (reader.nextToken() != JsonToken.END_OBJECT) {
+            String fieldName = reader.getFieldName();
+            reader.nextToken();
+            if (reader.currentToken() != JsonToken.STRING) {
+                reader.skipChildren();
+            } else if ("VaultName".equalsIgnoreCase(fieldName)) {
+                event.vaultName = reader.getString();
+            } else if ("ObjectName".equalsIgnoreCase(fieldName)) {
+                event.objectName = reader.getString();
+            } else if ("Id".equalsIgnoreCase(fieldName)) {
+                event.id = reader.getString();
+            } else if ("validationCode".equalsIgnoreCase(fieldName)) {
+                event.validationCode = reader.getString();
+            }
+        }
+    }
+
+    private static String toValidationResponse(String validationCode) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonWriter writer = JsonProviders.createWriter(output)) {
+            writer.writeStartObject().writeStringField("validationResponse", validationCode).writeEndObject().flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Change event of Azure Key Vault, with the fields of the Event Grid and CloudEvents schemas merged.
+     */
+    private static final class ChangeEvent {
+        private String type;
+        private String subject;
+        private String source;
+        private String vaultName;
+        private String objectName;
+        private String id;
+        private String validationCode;
+
+        private String getSecretName() {
+            return objectName != null ? objectName : subject;
+        }
+
+        private String getVaultName() {
+            if (vaultName != null) {
+                return vaultName.toLowerCase(Locale.ROOT);
+            }
+            if (id != null) {
+                return toVaultName(id);
+            }
+            if (source != null) {
+                int vaults = source.toLowerCase(Locale.ROOT).lastIndexOf("/vaults/");
+                if (vaults >= 0) {
+                    return source.substring(vaults + "/vaults/".length()).toLowerCase(Locale.ROOT);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * This class is used to record the metrics of an operation and its calls to Azure Key Vault.
+ *
+ * <ul>
+ *     <li>Metrics are recorded with {@link LongAdder}s, so recording doesn't contend between lookups.</li>
+ *     <li>
+ *         The metrics are exposed as {@link AzureKeyVaultMetricsMXBean} by the platform MBeanServer, which metrics libraries and agents
+ *         can scrape without this library depending on any of them. Registration can be disabled with {@code azure.keyvault.metrics.enabled}.
+ *     </li>
+ * </ul>
+ */
+final class AzureKeyVaultMetrics implements AzureKeyVaultMetricsMXBean {
+    static final String DOMAIN = "com.azure.microprofile.config.keyvault";
+    private static final ClientLogger LOGGER = new ClientLogger(AzureKeyVaultMetrics.class);
+    private static final long[] HISTOGRAM_BOUNDS_IN_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder remappedHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final Timer refreshTimer = new Timer();
+    private final Timer secretCallTimer = new Timer();
+    private final Timer listCallTimer = new Timer();
+    private final VaultRequestScheduler scheduler;
+    private volatile LongSupplier cachedEntries = () -> 0;
+    private volatile LongSupplier cachedBytes = () -> 0;
+    private volatile LongSupplier loadedAtInMs = () -> 0;
+
+    /**
+     * Constructor of AzureKeyVaultMetrics.
+     *
+     * @param scheduler scheduler of the calls to Azure Key Vault, which counts the throttled calls
+     */
+    AzureKeyVaultMetrics(VaultRequestScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Register the metrics with the platform MBeanServer, replacing the metrics previously registered for the same vault and cache mode.
+     *
+     * @param url     URL of Azure Key Vault
+     * @param mode    cache mode of the operation
+     * @param options options of the operation
+     * @return the name the metrics are registered with; null if they are not registered.
+     */
+    ObjectName register(String url, String mode, AzureKeyVaultOptions options) {
+        if (!Optional.ofNullable(options.getMetricsEnabled()).orElse(Boolean.TRUE)) {
+            return null;
+        }
+
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + AzureKeyVaultConfigSource.class.getSimpleName()
+                    + ",vault=" + ObjectName.quote(toVaultName(url)) + ",mode=" + mode);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+            return name;
+        } catch (JMException | RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "register() failed to register the metrics of " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Bind the gauges of the cache of the operation.
+     *
+     * @param cachedEntries number of cached entries
+     * @param cachedBytes   estimated size of cached secret names and values in bytes
+     * @param loadedAtInMs  time the cache was loaded, 0 if never
+     */
+    void bindCache(LongSupplier cachedEntries, LongSupplier cachedBytes, LongSupplier loadedAtInMs) {
+        this.cachedEntries = cachedEntries;
+        this.cachedBytes = cachedBytes;
+        this.loadedAtInMs = loadedAtInMs;
+    }
+
+    /**
+     * Record a lookup answered from the cache.
+     *
+     * @param remapped whether the lookup was answered with a remapped secret name.
+     */
+    void recordHit(boolean remapped) {
+        (remapped ? remappedHits : hits).increment();
+    }
+
+    /**
+     * Record a lookup which is not answered from the cache.
+     */
+    void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Record a refresh of the cache.
+     *
+     * @param startInNanos {@link System#nanoTime()} when the refresh started.
+     * @param succeeded    whether the refresh succeeded.
+     */
+    void recordRefresh(long startInNanos, boolean succeeded) {
+        refreshTimer.record(startInNanos);
+        if (!succeeded) {
+            refreshFailures.increment();
+        }
+    }
+
+    /**
+     * Record a call which gets a secret from Azure Key Vault.
+     *
+     * @param startInNanos {@link System#nanoTime()} when the call started.
+     */
+    void recordSecretCall(long startInNanos) {
+        secretCallTimer.record(startInNanos);
+    }
+
+    /**
+     * Record a listing of the secrets in Azure Key Vault.
+     *
+     * @param startInNanos {@link System#nanoTime()} when the listing started.
+     */
+    void recordListCall(long startInNanos) {
+        listCallTimer.record(startInNanos);
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getRemappedHitCount() {
+        return remappedHits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getRefreshCount() {
+        return refreshTimer.count.sum();
+    }
+
+    @Override
+    public long getRefreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    @Override
+    public long getRefreshTotalTimeInMs() {
+        return refreshTimer.getTotalTimeInMs();
+    }
+
+    @Override
+    public long getRefreshMaxTimeInMs() {
+        return refreshTimer.getMaxTimeInMs();
+    }
+
+    @Override
+    public long[] getRefreshHistogram() {
+        return refreshTimer.getHistogram();
+    }
+
+    @Override
+    public long getSecretCallCount() {
+        return secretCallTimer.count.sum();
+    }
+
+    @Override
+    public long getSecretCallTotalTimeInMs() {
+        return secretCallTimer.getTotalTimeInMs();
+    }
+
+    @Override
+    public long getSecretCallMaxTimeInMs() {
+        return secretCallTimer.getMaxTimeInMs();
+    }
+
+    @Override
+    public long[] getSecretCallHistogram() {
+        return secretCallTimer.getHistogram();
+    }
+
+    @Override
+    public long getListCallCount() {
+        return listCallTimer.count.sum();
+    }
+
+    @Override
+    public long getListCallTotalTimeInMs() {
+        return listCallTimer.getTotalTimeInMs();
+    }
+
+    @Override
+    public long getListCallMaxTimeInMs() {
+        return listCallTimer.getMaxTimeInMs();
+    }
+
+    @Override
+    public long[] getListCallHistogram() {
+        return listCallTimer.getHistogram();
+    }
+
+    @Override
+    public long[] getHistogramBoundsInMs() {
+        return HISTOGRAM_BOUNDS_IN_MS.clone();
+    }
+
+    @Override
+    public long getThrottledCallCount() {
+        return scheduler.getThrottledCalls();
+    }
+
+    @Override
+    public long getCachedEntries() {
+        return cachedEntries.getAsLong();
+    }
+
+    @Override
+    public long getCachedBytes() {
+        return cachedBytes.getAsLong();
+    }
+
+    @Override
+    public long getSnapshotAgeInMs() {
+        long loadedAt = loadedAtInMs.getAsLong();
+        return loadedAt == 0 ? -1 : System.currentTimeMillis() - loadedAt;
+    }
+
+    /**
+     * Get the name of a vault from its URL.
+     *
+     * @param url URL of Azure Key Vault
+     * @return the host of the URL; the URL itself if it has no host.
+     */
+    private static String toVaultName(String url) {
+        try {
+            return Optional.ofNullable(URI.create(url).getHost()).orElse(url);
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Count, total, maximum and histogram of durations.
+     */
+    private static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalInNanos = new LongAdder();
+        private final AtomicLong maxInNanos = new AtomicLong();
+        private final LongAdder[] buckets = new LongAdder[HISTOGRAM_BOUNDS_IN_MS.length + 1];
+
+        private Timer() {
+            Arrays.setAll(buckets, ignored -> new LongAdder());
+        }
+
+        private void record(long startInNanos) {
+            long durationInNanos = Math.max(0, System.nanoTime() - startInNanos);
+            count.increment();
+            totalInNanos.add(durationInNanos);
+            maxInNanos.accumulateAndGet(durationInNanos, Math::max);
+
+            long durationInMs = TimeUnit.NANOSECONDS.toMillis(durationInNanos);
+            int bucket = 0;
+            while (bucket < HISTOGRAM_BOUNDS_IN_MS.length && durationInMs > HISTOGRAM_BOUNDS_IN_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        private long getTotalTimeInMs() {
+            return TimeUnit.NANOSECONDS.toMillis(totalInNanos.sum());
+        }
+
+        private long getMaxTimeInMs() {
+            return TimeUnit.NANOSECONDS.toMillis(maxInNanos.get());
+        }
+
+        private long[] getHistogram() {
+            return Arrays.stream(buckets).mapToLong(LongAdder::sum).toArray();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+/**
+ * Metrics of the secrets read from an Azure Key Vault, registered with the platform MBeanServer as
+ * {@code com.azure.microprofile.config.keyvault:type=AzureKeyVaultConfigSource,vault=<vault host>,mode=<cache mode>}.
+ *
+ * <ul>
+ *     <li>Times are in milliseconds. Histograms hold the number of calls per bucket, the buckets are bounded by {@link #getHistogramBoundsInMs()}.</li>
+ *     <li>Counts are cumulative since the config source was created.</li>
+ * </ul>
+ */
+public interface AzureKeyVaultMetricsMXBean {
+
+    /**
+     * Get the number of lookups answered from the cache with the exact secret name.
+     *
+     * @return the number of cache hits.
+     */
+    long getHitCount();
+
+    /**
+     * Get the number of lookups answered from the cache with a remapped secret name, such as {@code my.secret} for {@code my-secret}.
+     *
+     * @return the number of remapped cache hits.
+     */
+    long getRemappedHitCount();
+
+    /**
+     * Get the number of lookups for which the cache holds no value, whether Azure Key Vault is called for them or not.
+     *
+     * @return the number of cache misses.
+     */
+    long getMissCount();
+
+    /**
+     * Get the number of refreshes of the cache, including failed ones.
+     *
+     * @return the number of refreshes.
+     */
+    long getRefreshCount();
+
+    /**
+     * Get the number of failed refreshes of the cache.
+     *
+     * @return the number of failed refreshes.
+     */
+    long getRefreshFailureCount();
+
+    /**
+     * Get the total time of refreshes of the cache.
+     *
+     * @return the total time of refreshes in milliseconds.
+     */
+    long getRefreshTotalTimeInMs();
+
+    /**
+     * Get the longest time of a refresh of the cache.
+     *
+     * @return the longest time of a refresh in milliseconds.
+     */
+    long getRefreshMaxTimeInMs();
+
+    /**
+     * Get the histogram of the time of refreshes of the cache.
+     *
+     * @return the number of refreshes per bound of {@link #getHistogramBoundsInMs()}, followed by the number of longer ones.
+     */
+    long[] getRefreshHistogram();
+
+    /**
+     * Get the number of calls which get a secret from Azure Key Vault.
+     *
+     * @return the number of calls.
+     */
+    long getSecretCallCount();
+
+    /**
+     * Get the total time of calls which get a secret from Azure Key Vault.
+     *
+     * @return the total time of calls in milliseconds.
+     */
+    long getSecretCallTotalTimeInMs();
+
+    /**
+     * Get the longest time of a call which gets a secret from Azure Key Vault.
+     *
+     * @return the longest time of a call in milliseconds.
+     */
+    long getSecretCallMaxTimeInMs();
+
+    /**
+     * Get the histogram of the time of calls which get a secret from Azure Key Vault.
+     *
+     * @return the number of calls per bound of {@link #getHistogramBoundsInMs()}, followed by the number of longer ones.
+     */
+    long[] getSecretCallHistogram();
+
+    /**
+     * Get the number of listings of the secrets in Azure Key Vault.
+     *
+     * @return the number of listings.
+     */
+    long getListCallCount();
+
+    /**
+     * Get the total time of listings of the secrets in Azure Key Vault, including all pages.
+     *
+     * @return the total time of listings in milliseconds.
+     */
+    long getListCallTotalTimeInMs();
+
+    /**
+     * Get the longest time of a listing of the secrets in Azure Key Vault, including all pages.
+     *
+     * @return the longest time of a listing in milliseconds.
+     */
+    long getListCallMaxTimeInMs();
+
+    /**
+     * Get the histogram of the time of listings of the secrets in Azure Key Vault, including all pages.
+     *
+     * @return the number of listings per bound of {@link #getHistogramBoundsInMs()}, followed by the number of longer ones.
+     */
+    long[] getListCallHistogram();
+
+    /**
+     * Get the upper bounds of the histogram buckets.
+     *
+     * @return the upper bounds in milliseconds.
+     */
+    long[] getHistogramBoundsInMs();
+
+    /**
+     * Get the number of calls throttled by Azure Key Vault.
+     *
+     * @return the number of throttled calls.
+     */
+    long getThrottledCallCount();
+
+    /**
+     * Get the number of cached entries, such as secrets, secret names or cached misses depending on the cache mode.
+     *
+     * @return the number of cached entries; 0 if nothing is cached.
+     */
+    long getCachedEntries();
+
+    /**
+     * Get the estimated size of cached secret names and values.
+     *
+     * @return the estimated size in bytes; 0 if nothing is cached.
+     */
+    long getCachedBytes();
+
+    /**
+     * Get the time since the cached secrets or secret names were loaded from Azure Key Vault.
+     *
+     * @return the age of the cache in milliseconds; -1 if it has never been loaded or the cache mode loads secrets one by one.
+     */
+    long getSnapshotAgeInMs();
+}
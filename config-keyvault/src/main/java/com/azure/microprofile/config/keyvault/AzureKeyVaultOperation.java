@@ -3,6 +3,8 @@
 
 package com.azure.microprofile.config.keyvault;
 
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.policy.HttpPipelinePolicy;
 import com.azure.core.util.ClientOptions;
 import com.azure.identity.DefaultAzureCredentialBuilder;
 import com.azure.security.keyvault.secrets.SecretClient;
@@ -10,6 +12,8 @@ import com.azure.security.keyvault.secrets.SecretClientBuilder;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * Azure Key Vault operation interface.
@@ -20,19 +24,40 @@ interface AzureKeyVaultOperation {
      */
     String AZURE_MICROPROFILE_KEY_VAULT_SECRETS = "az-mp-kv-secrets";
 
+    /**
+     * Default secret name regular expression, which matches Key Vault compatible secret names.
+     */
+    String DEFAULT_SECRET_NAME_REGEX = "^[0-9a-zA-Z-]+$";
+
     /**
      * Create a default secret key vault client.
      *
-     * @param url the key vault url
+     * @param url      the key vault url
+     * @param policies additional policies of the HTTP pipeline
      * @return the secret key vault client
      * @implNote The default secret key vault client will use the {@link com.azure.identity.DefaultAzureCredential} for authentication.
      */
-    static SecretClient defaultSecretKeyVaultClient(String url) {
-        return new SecretClientBuilder()
+    static SecretClient defaultSecretKeyVaultClient(String url, HttpPipelinePolicy... policies) {
+        return defaultSecretKeyVaultClient(url, new DefaultAzureCredentialBuilder().build(), policies);
+    }
+
+    /**
+     * Create a secret key vault client authenticated by a credential.
+     *
+     * @param url        the key vault url
+     * @param credential the credential, see {@link AzureKeyVaultCredentials#create(AzureKeyVaultOptions)}
+     * @param policies   additional policies of the HTTP pipeline
+     * @return the secret key vault client
+     */
+    static SecretClient defaultSecretKeyVaultClient(String url, TokenCredential credential, HttpPipelinePolicy... policies) {
+        SecretClientBuilder builder = new SecretClientBuilder()
                 .clientOptions(new ClientOptions().setApplicationId(AZURE_MICROPROFILE_KEY_VAULT_SECRETS))
                 .vaultUrl(url)
-                .credential(new DefaultAzureCredentialBuilder().build())
-                .buildClient();
+                .credential(credential);
+        for (HttpPipelinePolicy policy : policies) {
+            builder.addPolicy(policy);
+        }
+        return builder.buildClient();
     }
 
     /**
@@ -42,12 +67,70 @@ interface AzureKeyVaultOperation {
      *
      * @param propertyName the property name to convert
      * @return the Key Vault compatible secret name
+     * @implNote The property name itself is returned without allocation if it is already a Key Vault compatible secret name.
      */
     static String toKeyVaultSecretName(String propertyName) {
         if (propertyName == null) {
             return null;
         }
-        return propertyName.replaceAll("[^0-9a-zA-Z-]", "-");
+
+        int i = 0;
+        while (i < propertyName.length() && isKeyVaultSecretNameChar(propertyName.charAt(i))) {
+            i++;
+        }
+        if (i == propertyName.length()) {
+            return propertyName;
+        }
+
+        char[] secretName = propertyName.toCharArray();
+        for (; i < secretName.length; i++) {
+            if (!isKeyVaultSecretNameChar(secretName[i])) {
+                secretName[i] = '-';
+            }
+        }
+        return new String(secretName);
+    }
+
+    /**
+     * Check whether a name is a Key Vault compatible secret name, which is equivalent to matching "^[0-9a-zA-Z-]+$".
+     *
+     * @param secretName the name to check
+     * @return true if the name is not empty and only contains 0-9, a-z, A-Z, and - characters; otherwise, false.
+     */
+    static boolean isKeyVaultSecretName(String secretName) {
+        if (secretName.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < secretName.length(); i++) {
+            if (!isKeyVaultSecretNameChar(secretName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create a filter of secret names from a secret name regular expression, which is compiled once.
+     *
+     * @param secretNameRegex the secret name regular expression
+     * @return the filter, which doesn't use the regular expression engine for the default expression "^[0-9a-zA-Z-]+$".
+     */
+    static Predicate<String> secretNameFilter(String secretNameRegex) {
+        if (DEFAULT_SECRET_NAME_REGEX.equals(secretNameRegex)) {
+            return AzureKeyVaultOperation::isKeyVaultSecretName;
+        }
+        Pattern secretNamePattern = Pattern.compile(secretNameRegex);
+        return secretName -> secretNamePattern.matcher(secretName).matches();
+    }
+
+    /**
+     * Check whether a character is allowed in Key Vault secret names.
+     *
+     * @param c the character to check
+     * @return true if the character is one of 0-9, a-z, A-Z, and -; otherwise, false.
+     */
+    static boolean isKeyVaultSecretNameChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-';
     }
 
     /**
@@ -72,4 +155,13 @@ interface AzureKeyVaultOperation {
      */
     String getValue(String secretName);
 
+    /**
+     * Invalidate a secret which has changed in Azure Key Vault, see {@link AzureKeyVaultEventHandler}.
+     *
+     * @param secretName Secret name.
+     * @implNote Operations which don't cache secret values have nothing to invalidate.
+     */
+    default void invalidate(String secretName) {
+    }
+
 }
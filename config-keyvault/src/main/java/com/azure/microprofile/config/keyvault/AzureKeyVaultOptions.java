@@ -0,0 +1,858 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.eclipse.microprofile.config.Config;
+
+import java.util.List;
+
+/**
+ * Tuning options of {@link AzureKeyVaultOperation} implementations.
+ *
+ * <ul>
+ *     <li>A {@code null} value means the option is not set, and the operation will fall back to its own default value.</li>
+ *     <li>The options are read from {@code azure.keyvault.*} configuration properties, see {@link #fromConfig(Config)}.</li>
+ * </ul>
+ */
+final class AzureKeyVaultOptions {
+    static final String CACHE_TTL = "azure.keyvault.cache.ttl";
+    static final String CACHE_BACKGROUND_REFRESH = "azure.keyvault.cache.background-refresh";
+    static final String CACHE_REFRESH_AHEAD = "azure.keyvault.cache.refresh-ahead";
+    static final String CACHE_MAX_STALENESS = "azure.keyvault.cache.max-staleness";
+    static final String CACHE_NEGATIVE_TTL = "azure.keyvault.cache.negative-ttl";
+    static final String CACHE_MAX_ENTRIES = "azure.keyvault.cache.max-entries";
+    static final String CACHE_MAX_BYTES = "azure.keyvault.cache.max-bytes";
+    static final String CACHE_JITTER = "azure.keyvault.cache.jitter";
+    static final String CACHE_INSTANCE_ID = "azure.keyvault.cache.instance-id";
+    static final String CACHE_RETRY_BACKOFF = "azure.keyvault.cache.retry-backoff";
+    static final String CACHE_MAX_RETRY_BACKOFF = "azure.keyvault.cache.max-retry-backoff";
+    static final String SECRET_NAME_REGEX = "azure.keyvault.secret-name-regex";
+    static final String SECRET_VERSION_SEPARATOR = "azure.keyvault.secret-version.separator";
+    static final String EXPANSION_ENABLED = "azure.keyvault.expansion.enabled";
+    static final String EXPANSION_PREFIXED = "azure.keyvault.expansion.prefixed";
+    static final String FETCH_PARALLELISM = "azure.keyvault.fetch.parallelism";
+    static final String FETCH_THREADS = "azure.keyvault.fetch.threads";
+    static final String TRANSACTION_BUDGET = "azure.keyvault.transaction-budget";
+    static final String CACHE_SNAPSHOT_PATH = "azure.keyvault.cache.snapshot.path";
+    static final String CACHE_SNAPSHOT_KEY = "azure.keyvault.cache.snapshot.key";
+    static final String CACHE_SHARED_PATH = "azure.keyvault.cache.shared.path";
+    static final String CREDENTIAL_TYPE = "azure.keyvault.credential.type";
+    static final String CREDENTIAL_CLIENT_ID = "azure.keyvault.credential.client-id";
+    static final String CREDENTIAL_TENANT_ID = "azure.keyvault.credential.tenant-id";
+    static final String CREDENTIAL_CLIENT_SECRET = "azure.keyvault.credential.client-secret";
+    static final String CREDENTIAL_CLIENT_CERTIFICATE_PATH = "azure.keyvault.credential.client-certificate-path";
+    static final String CREDENTIAL_CLIENT_CERTIFICATE_PASSWORD = "azure.keyvault.credential.client-certificate-password";
+    static final String CREDENTIAL_TOKEN_CACHE_ENABLED = "azure.keyvault.credential.token-cache.enabled";
+    static final String CREDENTIAL_TOKEN_CACHE_NAME = "azure.keyvault.credential.token-cache.name";
+    static final String CREDENTIAL_TOKEN_CACHE_UNENCRYPTED_STORAGE_ALLOWED = "azure.keyvault.credential.token-cache.unencrypted-storage-allowed";
+    static final String FILTER_NAME_PREFIX = "azure.keyvault.filter.name-prefix";
+    static final String FILTER_NAME_REGEX = "azure.keyvault.filter.name-regex";
+    static final String FILTER_TAGS = "azure.keyvault.filter.tags";
+    static final String FILTER_CONTENT_TYPE = "azure.keyvault.filter.content-type";
+    static final String FILTER_ENABLED_ONLY = "azure.keyvault.filter.enabled-only";
+    static final String METRICS_ENABLED = "azure.keyvault.metrics.enabled";
+
+    private Long cacheRefreshIntervalInMs;
+    private Boolean backgroundRefresh;
+    private Long refreshAheadInMs;
+    private Long maxStalenessInMs;
+    private Long negativeCacheRefreshIntervalInMs;
+    private Integer cacheMaxEntries;
+    private Long cacheMaxBytes;
+    private Double cacheJitter;
+    private String cacheInstanceId;
+    private Long cacheRetryBackoffInMs;
+    private Long cacheMaxRetryBackoffInMs;
+    private String secretNameRegex;
+    private String secretVersionSeparator;
+    private Boolean expansionEnabled;
+    private Boolean expansionPrefixed;
+    private Integer fetchParallelism;
+    private String fetchThreads;
+    private Integer transactionBudget;
+    private String snapshotPath;
+    private String snapshotKey;
+    private String sharedPath;
+    private String credentialType;
+    private String credentialClientId;
+    private String credentialTenantId;
+    private String credentialClientSecret;
+    private String credentialClientCertificatePath;
+    private String credentialClientCertificatePassword;
+    private Boolean tokenCacheEnabled;
+    private String tokenCacheName;
+    private Boolean tokenCacheUnencryptedStorageAllowed;
+    private String filterNamePrefix;
+    private String filterNameRegex;
+    private List<String> filterTags;
+    private String filterContentType;
+    private Boolean filterEnabledOnly;
+    private Boolean metricsEnabled;
+
+    /**
+     * Create options from {@link Config} instance.
+     *
+     * @param config {@link Config} instance.
+     * @return options read from configuration.
+     */
+    static AzureKeyVaultOptions fromConfig(Config config) {
+        return new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(config.getOptionalValue(CACHE_TTL, Long.class).orElse(null))
+                .setBackgroundRefresh(config.getOptionalValue(CACHE_BACKGROUND_REFRESH, Boolean.class).orElse(null))
+                .setRefreshAheadInMs(config.getOptionalValue(CACHE_REFRESH_AHEAD, Long.class).orElse(null))
+                .setMaxStalenessInMs(config.getOptionalValue(CACHE_MAX_STALENESS, Long.class).orElse(null))
+                .setNegativeCacheRefreshIntervalInMs(config.getOptionalValue(CACHE_NEGATIVE_TTL, Long.class).orElse(null))
+                .setCacheMaxEntries(config.getOptionalValue(CACHE_MAX_ENTRIES, Integer.class).orElse(null))
+                .setCacheMaxBytes(config.getOptionalValue(CACHE_MAX_BYTES, Long.class).orElse(null))
+                .setCacheJitter(config.getOptionalValue(CACHE_JITTER, Double.class).orElse(null))
+                .setCacheInstanceId(config.getOptionalValue(CACHE_INSTANCE_ID, String.class).orElse(null))
+                .setCacheRetryBackoffInMs(config.getOptionalValue(CACHE_RETRY_BACKOFF, Long.class).orElse(null))
+                .setCacheMaxRetryBackoffInMs(config.getOptionalValue(CACHE_MAX_RETRY_BACKOFF, Long.class).orElse(null))
+                .setSecretNameRegex(config.getOptionalValue(SECRET_NAME_REGEX, String.class).orElse(null))
+                .setSecretVersionSeparator(config.getOptionalValue(SECRET_VERSION_SEPARATOR, String.class).orElse(null))
+                .setExpansionEnabled(config.getOptionalValue(EXPANSION_ENABLED, Boolean.class).orElse(null))
+                .setExpansionPrefixed(config.getOptionalValue(EXPANSION_PREFIXED, Boolean.class).orElse(null))
+                .setFetchParallelism(config.getOptionalValue(FETCH_PARALLELISM, Integer.class).orElse(null))
+                .setFetchThreads(config.getOptionalValue(FETCH_THREADS, String.class).orElse(null))
+                .setTransactionBudget(config.getOptionalValue(TRANSACTION_BUDGET, Integer.class).orElse(null))
+                .setSnapshotPath(config.getOptionalValue(CACHE_SNAPSHOT_PATH, String.class).orElse(null))
+                .setSnapshotKey(config.getOptionalValue(CACHE_SNAPSHOT_KEY, String.class).orElse(null))
+                .setSharedPath(config.getOptionalValue(CACHE_SHARED_PATH, String.class).orElse(null))
+                .setCredentialType(config.getOptionalValue(CREDENTIAL_TYPE, String.class).orElse(null))
+                .setCredentialClientId(config.getOptionalValue(CREDENTIAL_CLIENT_ID, String.class).orElse(null))
+                .setCredentialTenantId(config.getOptionalValue(CREDENTIAL_TENANT_ID, String.class).orElse(null))
+                .setCredentialClientSecret(config.getOptionalValue(CREDENTIAL_CLIENT_SECRET, String.class).orElse(null))
+                .setCredentialClientCertificatePath(config.getOptionalValue(CREDENTIAL_CLIENT_CERTIFICATE_PATH, String.class).orElse(null))
+                .setCredentialClientCertificatePassword(config.getOptionalValue(CREDENTIAL_CLIENT_CERTIFICATE_PASSWORD, String.class).orElse(null))
+                .setTokenCacheEnabled(config.getOptionalValue(CREDENTIAL_TOKEN_CACHE_ENABLED, Boolean.class).orElse(null))
+                .setTokenCacheName(config.getOptionalValue(CREDENTIAL_TOKEN_CACHE_NAME, String.class).orElse(null))
+                .setTokenCacheUnencryptedStorageAllowed(config.getOptionalValue(CREDENTIAL_TOKEN_CACHE_UNENCRYPTED_STORAGE_ALLOWED, Boolean.class).orElse(null))
+                .setFilterNamePrefix(config.getOptionalValue(FILTER_NAME_PREFIX, String.class).orElse(null))
+                .setFilterNameRegex(config.getOptionalValue(FILTER_NAME_REGEX, String.class).orElse(null))
+                .setFilterTags(config.getOptionalValues(FILTER_TAGS, String.class).orElse(null))
+                .setFilterContentType(config.getOptionalValue(FILTER_CONTENT_TYPE, String.class).orElse(null))
+                .setFilterEnabledOnly(config.getOptionalValue(FILTER_ENABLED_ONLY, Boolean.class).orElse(null))
+                .setMetricsEnabled(config.getOptionalValue(METRICS_ENABLED, Boolean.class).orElse(null));
+    }
+
+    /**
+     * Get the time-to-live of cache entries in milliseconds.
+     *
+     * @return the time-to-live of cache entries in milliseconds.
+     */
+    Long getCacheRefreshIntervalInMs() {
+        return cacheRefreshIntervalInMs;
+    }
+
+    /**
+     * Set the time-to-live of cache entries in milliseconds.
+     *
+     * @param cacheRefreshIntervalInMs the time-to-live of cache entries in milliseconds.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCacheRefreshIntervalInMs(Long cacheRefreshIntervalInMs) {
+        this.cacheRefreshIntervalInMs = cacheRefreshIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Get whether the cache is refreshed by a background scheduler.
+     *
+     * @return whether the cache is refreshed by a background scheduler.
+     */
+    Boolean getBackgroundRefresh() {
+        return backgroundRefresh;
+    }
+
+    /**
+     * Set whether the cache is refreshed by a background scheduler.
+     *
+     * @param backgroundRefresh whether the cache is refreshed by a background scheduler.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setBackgroundRefresh(Boolean backgroundRefresh) {
+        this.backgroundRefresh = backgroundRefresh;
+        return this;
+    }
+
+    /**
+     * Get how long before the cache expires the background refresh starts, in milliseconds.
+     *
+     * @return how long before the cache expires the background refresh starts, in milliseconds.
+     */
+    Long getRefreshAheadInMs() {
+        return refreshAheadInMs;
+    }
+
+    /**
+     * Set how long before the cache expires the background refresh starts, in milliseconds.
+     *
+     * @param refreshAheadInMs how long before the cache expires the background refresh starts, in milliseconds.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setRefreshAheadInMs(Long refreshAheadInMs) {
+        this.refreshAheadInMs = refreshAheadInMs;
+        return this;
+    }
+
+    /**
+     * Get how long expired cache entries may still be served while the background refresh has not succeeded, in milliseconds.
+     *
+     * @return how long expired cache entries may still be served, in milliseconds.
+     */
+    Long getMaxStalenessInMs() {
+        return maxStalenessInMs;
+    }
+
+    /**
+     * Set how long expired cache entries may still be served while the background refresh has not succeeded, in milliseconds.
+     *
+     * @param maxStalenessInMs how long expired cache entries may still be served, in milliseconds.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setMaxStalenessInMs(Long maxStalenessInMs) {
+        this.maxStalenessInMs = maxStalenessInMs;
+        return this;
+    }
+
+    /**
+     * Get the time-to-live of cached misses in milliseconds.
+     *
+     * @return the time-to-live of cached misses in milliseconds.
+     */
+    Long getNegativeCacheRefreshIntervalInMs() {
+        return negativeCacheRefreshIntervalInMs;
+    }
+
+    /**
+     * Set the time-to-live of cached misses in milliseconds.
+     *
+     * @param negativeCacheRefreshIntervalInMs the time-to-live of cached misses in milliseconds.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setNegativeCacheRefreshIntervalInMs(Long negativeCacheRefreshIntervalInMs) {
+        this.negativeCacheRefreshIntervalInMs = negativeCacheRefreshIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of cached entries.
+     *
+     * @return the maximum number of cached entries.
+     */
+    Integer getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    /**
+     * Set the maximum number of cached entries.
+     *
+     * @param cacheMaxEntries the maximum number of cached entries.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCacheMaxEntries(Integer cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+        return this;
+    }
+
+    /**
+     * Get the maximum estimated size of cached entries in bytes.
+     *
+     * @return the maximum estimated size of cached entries in bytes.
+     */
+    Long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    /**
+     * Set the maximum estimated size of cached entries in bytes.
+     *
+     * @param cacheMaxBytes the maximum estimated size of cached entries in bytes.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCacheMaxBytes(Long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+        return this;
+    }
+
+    /**
+     * Get the fraction of the TTL by which each load of the cache expires early at most.
+     *
+     * @return the fraction of the TTL, between 0 and 1.
+     */
+    Double getCacheJitter() {
+        return cacheJitter;
+    }
+
+    /**
+     * Set the fraction of the TTL by which each load of the cache expires early at most.
+     *
+     * @param cacheJitter the fraction of the TTL, between 0 and 1.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCacheJitter(Double cacheJitter) {
+        this.cacheJitter = cacheJitter;
+        return this;
+    }
+
+    /**
+     * Get the id of the instance, which spreads the refreshes of the instances of a deployment evenly.
+     *
+     * @return the id of the instance.
+     */
+    String getCacheInstanceId() {
+        return cacheInstanceId;
+    }
+
+    /**
+     * Set the id of the instance, which spreads the refreshes of the instances of a deployment evenly.
+     *
+     * @param cacheInstanceId the id of the instance, such as the pod name.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCacheInstanceId(String cacheInstanceId) {
+        this.cacheInstanceId = cacheInstanceId;
+        return this;
+    }
+
+    /**
+     * Get the backoff after a failed refresh of the cache in milliseconds.
+     *
+     * @return the backoff after a failed refresh in milliseconds.
+     */
+    Long getCacheRetryBackoffInMs() {
+        return cacheRetryBackoffInMs;
+    }
+
+    /**
+     * Set the backoff after a failed refresh of the cache in milliseconds, which doubles on every consecutive failure.
+     *
+     * @param cacheRetryBackoffInMs the backoff after a failed refresh in milliseconds.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCacheRetryBackoffInMs(Long cacheRetryBackoffInMs) {
+        this.cacheRetryBackoffInMs = cacheRetryBackoffInMs;
+        return this;
+    }
+
+    /**
+     * Get the maximum backoff after consecutive failed refreshes of the cache in milliseconds.
+     *
+     * @return the maximum backoff in milliseconds.
+     */
+    Long getCacheMaxRetryBackoffInMs() {
+        return cacheMaxRetryBackoffInMs;
+    }
+
+    /**
+     * Set the maximum backoff after consecutive failed refreshes of the cache in milliseconds.
+     *
+     * @param cacheMaxRetryBackoffInMs the maximum backoff in milliseconds.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCacheMaxRetryBackoffInMs(Long cacheMaxRetryBackoffInMs) {
+        this.cacheMaxRetryBackoffInMs = cacheMaxRetryBackoffInMs;
+        return this;
+    }
+
+    /**
+     * Get the secret name regular expression.
+     *
+     * @return the secret name regular expression.
+     */
+    String getSecretNameRegex() {
+        return secretNameRegex;
+    }
+
+    /**
+     * Set the secret name regular expression.
+     *
+     * @param secretNameRegex the secret name regular expression.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setSecretNameRegex(String secretNameRegex) {
+        this.secretNameRegex = secretNameRegex;
+        return this;
+    }
+
+    /**
+     * Get the separator between the secret name and the version of version-pinned secret references.
+     *
+     * @return the separator between the secret name and the version.
+     */
+    String getSecretVersionSeparator() {
+        return secretVersionSeparator;
+    }
+
+    /**
+     * Set the separator between the secret name and the version of version-pinned secret references.
+     *
+     * @param secretVersionSeparator the separator between the secret name and the version.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setSecretVersionSeparator(String secretVersionSeparator) {
+        this.secretVersionSeparator = secretVersionSeparator;
+        return this;
+    }
+
+    /**
+     * Get whether structured secrets are expanded into many properties.
+     *
+     * @return whether structured secrets are expanded into many properties.
+     */
+    Boolean getExpansionEnabled() {
+        return expansionEnabled;
+    }
+
+    /**
+     * Set whether structured secrets are expanded into many properties.
+     *
+     * @param expansionEnabled whether structured secrets are expanded into many properties.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setExpansionEnabled(Boolean expansionEnabled) {
+        this.expansionEnabled = expansionEnabled;
+        return this;
+    }
+
+    /**
+     * Get whether the expanded properties are prefixed with the name of their secret.
+     *
+     * @return whether the expanded properties are prefixed with the name of their secret.
+     */
+    Boolean getExpansionPrefixed() {
+        return expansionPrefixed;
+    }
+
+    /**
+     * Set whether the expanded properties are prefixed with the name of their secret.
+     *
+     * @param expansionPrefixed whether the expanded properties are prefixed with the name of their secret.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setExpansionPrefixed(Boolean expansionPrefixed) {
+        this.expansionPrefixed = expansionPrefixed;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of secrets fetched concurrently.
+     *
+     * @return the maximum number of secrets fetched concurrently.
+     */
+    Integer getFetchParallelism() {
+        return fetchParallelism;
+    }
+
+    /**
+     * Set the maximum number of secrets fetched concurrently.
+     *
+     * @param fetchParallelism the maximum number of secrets fetched concurrently.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setFetchParallelism(Integer fetchParallelism) {
+        this.fetchParallelism = fetchParallelism;
+        return this;
+    }
+
+    /**
+     * Get the threads which fetch the secrets, {@code platform} or {@code virtual}.
+     *
+     * @return the threads which fetch the secrets.
+     */
+    String getFetchThreads() {
+        return fetchThreads;
+    }
+
+    /**
+     * Set the threads which fetch the secrets, {@code platform} or {@code virtual}.
+     *
+     * @param fetchThreads the threads which fetch the secrets.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setFetchThreads(String fetchThreads) {
+        this.fetchThreads = fetchThreads;
+        return this;
+    }
+
+    /**
+     * Get the number of calls to Azure Key Vault allowed per 10 seconds.
+     *
+     * @return the number of calls to Azure Key Vault allowed per 10 seconds.
+     */
+    Integer getTransactionBudget() {
+        return transactionBudget;
+    }
+
+    /**
+     * Set the number of calls to Azure Key Vault allowed per 10 seconds.
+     *
+     * @param transactionBudget the number of calls to Azure Key Vault allowed per 10 seconds.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setTransactionBudget(Integer transactionBudget) {
+        this.transactionBudget = transactionBudget;
+        return this;
+    }
+
+    /**
+     * Get the path of the encrypted snapshot file of the cache.
+     *
+     * @return the path of the encrypted snapshot file of the cache.
+     */
+    String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * Set the path of the encrypted snapshot file of the cache.
+     *
+     * @param snapshotPath the path of the encrypted snapshot file of the cache.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        return this;
+    }
+
+    /**
+     * Get the Base64 encoded AES key of the snapshot file.
+     *
+     * @return the Base64 encoded AES key of the snapshot file.
+     */
+    String getSnapshotKey() {
+        return snapshotKey;
+    }
+
+    /**
+     * Set the Base64 encoded AES key of the snapshot file.
+     *
+     * @param snapshotKey the Base64 encoded AES key of the snapshot file.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setSnapshotKey(String snapshotKey) {
+        this.snapshotKey = snapshotKey;
+        return this;
+    }
+
+    /**
+     * Get the path of the memory-mapped file which shares the cache between the processes of the node.
+     *
+     * @return the path of the memory-mapped file which shares the cache between the processes of the node.
+     */
+    String getSharedPath() {
+        return sharedPath;
+    }
+
+    /**
+     * Set the path of the memory-mapped file which shares the cache between the processes of the node.
+     *
+     * @param sharedPath the path of the memory-mapped file which shares the cache between the processes of the node.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setSharedPath(String sharedPath) {
+        this.sharedPath = sharedPath;
+        return this;
+    }
+
+    /**
+     * Get the type of the credential authenticating to Azure Key Vault.
+     *
+     * @return the type of the credential authenticating to Azure Key Vault.
+     */
+    String getCredentialType() {
+        return credentialType;
+    }
+
+    /**
+     * Set the type of the credential authenticating to Azure Key Vault.
+     *
+     * @param credentialType the type of the credential authenticating to Azure Key Vault.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCredentialType(String credentialType) {
+        this.credentialType = credentialType;
+        return this;
+    }
+
+    /**
+     * Get the client id of the credential.
+     *
+     * @return the client id of the credential.
+     */
+    String getCredentialClientId() {
+        return credentialClientId;
+    }
+
+    /**
+     * Set the client id of the credential.
+     *
+     * @param credentialClientId the client id of the credential.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCredentialClientId(String credentialClientId) {
+        this.credentialClientId = credentialClientId;
+        return this;
+    }
+
+    /**
+     * Get the tenant id of the credential.
+     *
+     * @return the tenant id of the credential.
+     */
+    String getCredentialTenantId() {
+        return credentialTenantId;
+    }
+
+    /**
+     * Set the tenant id of the credential.
+     *
+     * @param credentialTenantId the tenant id of the credential.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCredentialTenantId(String credentialTenantId) {
+        this.credentialTenantId = credentialTenantId;
+        return this;
+    }
+
+    /**
+     * Get the client secret of the credential.
+     *
+     * @return the client secret of the credential.
+     */
+    String getCredentialClientSecret() {
+        return credentialClientSecret;
+    }
+
+    /**
+     * Set the client secret of the credential.
+     *
+     * @param credentialClientSecret the client secret of the credential.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCredentialClientSecret(String credentialClientSecret) {
+        this.credentialClientSecret = credentialClientSecret;
+        return this;
+    }
+
+    /**
+     * Get the path of the client certificate of the credential.
+     *
+     * @return the path of the client certificate of the credential.
+     */
+    String getCredentialClientCertificatePath() {
+        return credentialClientCertificatePath;
+    }
+
+    /**
+     * Set the path of the client certificate of the credential.
+     *
+     * @param credentialClientCertificatePath the path of the client certificate of the credential.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCredentialClientCertificatePath(String credentialClientCertificatePath) {
+        this.credentialClientCertificatePath = credentialClientCertificatePath;
+        return this;
+    }
+
+    /**
+     * Get the password of the PFX client certificate of the credential.
+     *
+     * @return the password of the PFX client certificate of the credential.
+     */
+    String getCredentialClientCertificatePassword() {
+        return credentialClientCertificatePassword;
+    }
+
+    /**
+     * Set the password of the PFX client certificate of the credential.
+     *
+     * @param credentialClientCertificatePassword the password of the PFX client certificate of the credential.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setCredentialClientCertificatePassword(String credentialClientCertificatePassword) {
+        this.credentialClientCertificatePassword = credentialClientCertificatePassword;
+        return this;
+    }
+
+    /**
+     * Get whether the tokens of the credential are cached on disk.
+     *
+     * @return whether the tokens of the credential are cached on disk.
+     */
+    Boolean getTokenCacheEnabled() {
+        return tokenCacheEnabled;
+    }
+
+    /**
+     * Set whether the tokens of the credential are cached on disk.
+     *
+     * @param tokenCacheEnabled whether the tokens of the credential are cached on disk.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setTokenCacheEnabled(Boolean tokenCacheEnabled) {
+        this.tokenCacheEnabled = tokenCacheEnabled;
+        return this;
+    }
+
+    /**
+     * Get the name of the token cache on disk.
+     *
+     * @return the name of the token cache on disk.
+     */
+    String getTokenCacheName() {
+        return tokenCacheName;
+    }
+
+    /**
+     * Set the name of the token cache on disk.
+     *
+     * @param tokenCacheName the name of the token cache on disk.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setTokenCacheName(String tokenCacheName) {
+        this.tokenCacheName = tokenCacheName;
+        return this;
+    }
+
+    /**
+     * Get whether the token cache may be stored unencrypted when no OS keyring is available.
+     *
+     * @return whether the token cache may be stored unencrypted when no OS keyring is available.
+     */
+    Boolean getTokenCacheUnencryptedStorageAllowed() {
+        return tokenCacheUnencryptedStorageAllowed;
+    }
+
+    /**
+     * Set whether the token cache may be stored unencrypted when no OS keyring is available.
+     *
+     * @param tokenCacheUnencryptedStorageAllowed whether the token cache may be stored unencrypted when no OS keyring is available.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setTokenCacheUnencryptedStorageAllowed(Boolean tokenCacheUnencryptedStorageAllowed) {
+        this.tokenCacheUnencryptedStorageAllowed = tokenCacheUnencryptedStorageAllowed;
+        return this;
+    }
+
+    /**
+     * Get the name prefix of the secrets which are read.
+     *
+     * @return the name prefix of the secrets which are read.
+     */
+    String getFilterNamePrefix() {
+        return filterNamePrefix;
+    }
+
+    /**
+     * Set the name prefix of the secrets which are read.
+     *
+     * @param filterNamePrefix the name prefix of the secrets which are read.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setFilterNamePrefix(String filterNamePrefix) {
+        this.filterNamePrefix = filterNamePrefix;
+        return this;
+    }
+
+    /**
+     * Get the name regular expression of the secrets which are read.
+     *
+     * @return the name regular expression of the secrets which are read.
+     */
+    String getFilterNameRegex() {
+        return filterNameRegex;
+    }
+
+    /**
+     * Set the name regular expression of the secrets which are read.
+     *
+     * @param filterNameRegex the name regular expression of the secrets which are read.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setFilterNameRegex(String filterNameRegex) {
+        this.filterNameRegex = filterNameRegex;
+        return this;
+    }
+
+    /**
+     * Get the tags required on the secrets which are read.
+     *
+     * @return the tags required on the secrets which are read.
+     */
+    List<String> getFilterTags() {
+        return filterTags;
+    }
+
+    /**
+     * Set the tags required on the secrets which are read.
+     *
+     * @param filterTags the tags required on the secrets which are read.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setFilterTags(List<String> filterTags) {
+        this.filterTags = filterTags;
+        return this;
+    }
+
+    /**
+     * Get the content type of the secrets which are read.
+     *
+     * @return the content type of the secrets which are read.
+     */
+    String getFilterContentType() {
+        return filterContentType;
+    }
+
+    /**
+     * Set the content type of the secrets which are read.
+     *
+     * @param filterContentType the content type of the secrets which are read.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setFilterContentType(String filterContentType) {
+        this.filterContentType = filterContentType;
+        return this;
+    }
+
+    /**
+     * Get whether only enabled secrets are read.
+     *
+     * @return whether only enabled secrets are read.
+     */
+    Boolean getFilterEnabledOnly() {
+        return filterEnabledOnly;
+    }
+
+    /**
+     * Set whether only enabled secrets are read.
+     *
+     * @param filterEnabledOnly whether only enabled secrets are read.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setFilterEnabledOnly(Boolean filterEnabledOnly) {
+        this.filterEnabledOnly = filterEnabledOnly;
+        return this;
+    }
+
+    /**
+     * Get whether the metrics are registered with the platform MBeanServer.
+     *
+     * @return whether the metrics are registered with the platform MBeanServer.
+     */
+    Boolean getMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Set whether the metrics are registered with the platform MBeanServer.
+     *
+     * @param metricsEnabled whether the metrics are registered with the platform MBeanServer.
+     * @return the updated options.
+     */
+    AzureKeyVaultOptions setMetricsEnabled(Boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+        return this;
+    }
+}
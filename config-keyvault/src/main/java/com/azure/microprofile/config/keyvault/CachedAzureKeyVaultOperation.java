@@ -3,20 +3,28 @@
 
 package com.azure.microprofile.config.keyvault;
 
+import com.azure.core.exception.ResourceNotFoundException;
 import com.azure.core.util.logging.ClientLogger;
 import com.azure.core.util.logging.LogLevel;
 import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
 import com.azure.security.keyvault.secrets.models.SecretProperties;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.text.DateFormat;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * This class is used to fetch and cache the secrets from Azure Key Vault.
@@ -24,26 +32,60 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * <ul>
  *  <li>The cache is refreshed if it is hit but expired after the specified cacheRefreshIntervalInMs.</li>
  *  <li>The default value of cacheRefreshIntervalInMs is 3 minutes.</li>
+ *  <li>The secrets are fetched concurrently by {@link SecretFetcher}. A refresh only fetches the secrets which are added or changed since the previous load.</li>
+ *  <li>
+ *      If background refresh is enabled, a daemon scheduler reloads the cache refreshAheadInMs before it expires,
+ *      and the previous values keep being served while the reload runs. Callers only reload the cache themselves
+ *      when it has never been loaded or has been expired for longer than maxStalenessInMs.
+ *  </li>
+ *  <li>
+ *      If a snapshot path is set, every reload is persisted to an {@link EncryptedSnapshotStore}. On startup the persisted snapshot is
+ *      served right away and revalidated in the background, so a restart neither waits on Azure Key Vault nor fails while it is unreachable.
+ *  </li>
+ *  <li>
+ *      Loads expire early by up to a jitter, and failed refreshes back off exponentially, see {@link RefreshSchedule}. While a failed
+ *      refresh backs off, the expired values are served if they are within maxStalenessInMs, and the failure is rethrown otherwise.
+ *  </li>
+ *  <li>
+ *      If a shared path is set, the processes of the node share the cache through a {@link SharedSnapshotFile}. Only one of them reloads
+ *      the cache from Azure Key Vault at a time and publishes it, the others adopt the published snapshot instead of reloading it.
+ *  </li>
+ *  <li>The secrets changed by a reload, an adopted snapshot or an invalidation are published by {@link ChangeNotifier}.</li>
+ *  <li>Structured secrets are expanded into many properties by {@link SecretExpander}, which are cached and indexed like secrets.</li>
+ *  <li>Version-pinned secret references are served by {@link PinnedSecretCache}, they neither load nor refresh the cache.</li>
  * </ul>
  */
 class CachedAzureKeyVaultOperation implements AzureKeyVaultOperation {
     private static final long DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS = 180000L; // 3 minutes
+    private static final long DEFAULT_REFRESH_AHEAD_IN_MS = 30000L; // 30 seconds
     private static final ClientLogger LOGGER = new ClientLogger(CachedAzureKeyVaultOperation.class);
     private final long cacheRefreshIntervalInMs;
-    private final SecretClient secretKeyVaultClient;
+    private final long refreshAheadInMs;
+    private final long maxStalenessInMs;
+    private final boolean backgroundRefresh;
+    private final SecretFetcher secretFetcher;
+    private final PinnedSecretCache pinnedSecrets;
+    private final SecretExpander secretExpander;
+    private final ScheduledExecutorService refreshScheduler;
+    private final EncryptedSnapshotStore snapshotStore;
+    private final SharedSnapshotFile sharedSnapshot;
+    private final AzureKeyVaultMetrics metrics;
+    private final RefreshSchedule refreshSchedule;
 
-    private final Map<String, String> propertiesMap = new ConcurrentHashMap<>();
-    private final AtomicLong lastUpdateTime = new AtomicLong();
-    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private volatile SecretsSnapshot snapshot = SecretsSnapshot.EMPTY;
+    private final Lock refreshLock = new ReentrantLock();
+    private ScheduledFuture<?> nextBackgroundRefresh;
 
     /**
      * Constructor of CachedAzureKeyVaultOperation.
      *
-     * @param url                      URL of Azure Key Vault
-     * @param cacheRefreshIntervalInMs cache refresh interval in milliseconds
+     * @param url     URL of Azure Key Vault
+     * @param options options of the operation
      */
-    CachedAzureKeyVaultOperation(String url, Long cacheRefreshIntervalInMs) {
-        this(AzureKeyVaultOperation.defaultSecretKeyVaultClient(url), Optional.ofNullable(cacheRefreshIntervalInMs).orElse(DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS));
+    CachedAzureKeyVaultOperation(String url, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(url, options), options);
+        secretFetcher.getMetrics().register(url, AzureKeyVaultConfigSource.CACHE_MODE_ALL, options);
+        AzureKeyVaultEventHandler.register(url, this);
     }
 
     /**
@@ -53,42 +95,95 @@ class CachedAzureKeyVaultOperation implements AzureKeyVaultOperation {
      * @param cacheRefreshIntervalInMs cache refresh interval in milliseconds
      */
     CachedAzureKeyVaultOperation(SecretClient secretKeyVaultClient, Long cacheRefreshIntervalInMs) {
-        this.secretKeyVaultClient = secretKeyVaultClient;
-        this.cacheRefreshIntervalInMs = cacheRefreshIntervalInMs;
+        this(secretKeyVaultClient, new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(cacheRefreshIntervalInMs));
+    }
+
+    /**
+     * Constructor of CachedAzureKeyVaultOperation.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param options              options of the operation
+     */
+    CachedAzureKeyVaultOperation(SecretClient secretKeyVaultClient, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(secretKeyVaultClient, options), options);
+    }
+
+    /**
+     * Constructor of CachedAzureKeyVaultOperation.
+     *
+     * @param secretFetcher fetcher of the secrets from Azure Key Vault
+     * @param options       options of the operation
+     */
+    CachedAzureKeyVaultOperation(SecretFetcher secretFetcher, AzureKeyVaultOptions options) {
+        this.secretFetcher = secretFetcher;
+        this.pinnedSecrets = new PinnedSecretCache(secretFetcher, options);
+        this.secretExpander = new SecretExpander(options);
+        this.metrics = secretFetcher.getMetrics();
+        this.cacheRefreshIntervalInMs = Optional.ofNullable(options.getCacheRefreshIntervalInMs()).orElse(DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS);
+        this.backgroundRefresh = Optional.ofNullable(options.getBackgroundRefresh()).orElse(Boolean.FALSE);
+        this.maxStalenessInMs = Optional.ofNullable(options.getMaxStalenessInMs()).orElse(Long.MAX_VALUE);
+        this.refreshSchedule = new RefreshSchedule(cacheRefreshIntervalInMs, options);
+
+        // The background refresh must start before the cache expires, so refresh-ahead is capped at half of the TTL
+        long refreshAhead = Optional.ofNullable(options.getRefreshAheadInMs()).orElse(DEFAULT_REFRESH_AHEAD_IN_MS);
+        if (refreshAhead >= cacheRefreshIntervalInMs) {
+            LOGGER.log(LogLevel.VERBOSE, () -> "Refresh-ahead " + refreshAhead + "ms is not less than cache TTL " + cacheRefreshIntervalInMs + "ms, using half of the TTL instead.");
+            this.refreshAheadInMs = cacheRefreshIntervalInMs / 2;
+        } else {
+            this.refreshAheadInMs = refreshAhead;
+        }
+
+        String snapshotPath = options.getSnapshotPath();
+        this.snapshotStore = snapshotPath == null || snapshotPath.isEmpty() ? null
+                : new EncryptedSnapshotStore(Paths.get(snapshotPath), options.getSnapshotKey(), secretFetcher.getVaultUrl());
+
+        String sharedPath = options.getSharedPath();
+        this.sharedSnapshot = sharedPath == null || sharedPath.isEmpty() ? null
+                : new SharedSnapshotFile(Paths.get(sharedPath), options.getSnapshotKey(), secretFetcher.getVaultUrl());
+
+        this.refreshScheduler = backgroundRefresh || snapshotStore != null ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "azure-keyvault-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        metrics.bindCache(() -> snapshot.getProperties().size(), () -> snapshot.getSizeInBytes(), () -> snapshot.getLoadedAtInMs());
+
+        if (snapshotStore != null) {
+            restoreSnapshot();
+        }
+        if (sharedSnapshot != null) {
+            try {
+                refreshLock.lock();
+                adoptSharedSnapshot();
+            } finally {
+                refreshLock.unlock();
+            }
+        }
     }
 
     /**
      * Get secrets from Azure Key Vault.
      *
      * @return Name/value {@link Map} of secrets.
-     * @implNote This method is thread-safe. It uses {@link ReadWriteLock} to protect the {@link #propertiesMap}. This method will refresh the cache if the cache is expired.
+     * @implNote This method is thread-safe and lock-free. It returns the current immutable {@link #snapshot}. This method will refresh the cache if the cache is expired.
      */
     public Map<String, String> getProperties() {
-        checkRefreshTimeOut();
+        checkRefreshTimeOut(null);
 
-        try {
-            rwLock.readLock().lock();
-            return Collections.unmodifiableMap(propertiesMap);
-        } finally {
-            rwLock.readLock().unlock();
-        }
+        return snapshot.getProperties();
     }
 
     /**
      * Get secret names from Azure Key Vault.
      *
      * @return Name {@link Set} of secrets.
-     * @implNote This method is thread-safe. It uses {@link ReadWriteLock} to protect the {@link #propertiesMap}. This method will refresh the cache if the cache is expired.
+     * @implNote This method is thread-safe and lock-free. It returns the names of the current immutable {@link #snapshot}, which are not affected by later refreshes. This method will refresh the cache if the cache is expired.
      */
     public Set<String> getPropertyNames() {
-        checkRefreshTimeOut();
+        checkRefreshTimeOut(null);
 
-        try {
-            rwLock.readLock().lock();
-            return propertiesMap.keySet();
-        } finally {
-            rwLock.readLock().unlock();
-        }
+        return snapshot.getPropertyNames();
     }
 
     /**
@@ -96,67 +191,354 @@ class CachedAzureKeyVaultOperation implements AzureKeyVaultOperation {
      *
      * @param secretName Secret name.
      * @return Secret value.
-     * @implNote This method is thread-safe. It uses {@link ReadWriteLock} to protect the {@link #propertiesMap}. This method will refresh the cache if the cache is expired.
+     * @implNote This method is thread-safe and lock-free. It reads the current immutable {@link #snapshot}. This method will refresh the cache if the cache is expired.
      */
     public String getValue(String secretName) {
         if (secretName == null) {
             return null;
         }
+        if (pinnedSecrets.isPinned(secretName)) {
+            return pinnedSecrets.getValue(secretName);
+        }
+
+        checkRefreshTimeOut(secretName);
 
-        checkRefreshTimeOut();
+        // Exact match, aliases and remapped key are resolved by the name index of the snapshot
+        SecretsSnapshot current = snapshot;
+        String resolvedSecretName = current.resolve(secretName);
+        if (resolvedSecretName == null) {
+            metrics.recordMiss();
+            return null;
+        }
+        metrics.recordHit(!resolvedSecretName.equals(secretName));
+        return current.get(resolvedSecretName);
+    }
 
+    /**
+     * Refetch a secret which has changed in Azure Key Vault, and replace it in the cache.
+     *
+     * @param secretName Secret name.
+     * @implNote Only the secret is fetched, the cache keeps its load time, so it is still reloaded as a whole once it expires.
+     * A secret which doesn't exist anymore, or is not selected by the filter anymore, is removed. If the secret cannot be fetched,
+     * the cached value is kept until the next reload.
+     */
+    @Override
+    public void invalidate(String secretName) {
+        if (snapshot.getLoadedAtInMs() == 0) {
+            return;
+        }
+
+        KeyVaultSecret secret;
         try {
-            rwLock.readLock().lock();
-            
-            // Try exact match first
-            String value = propertiesMap.get(secretName);
-            if (value != null) {
-                return value;
-            }
+            secret = secretFetcher.getSelectedSecret(secretName);
+        } catch (ResourceNotFoundException e) {
+            secret = null;
+        } catch (RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "invalidate() failed with exception, keeping the cached secret until the next refresh: " + e.getMessage());
+            return;
+        }
 
-            // Try remapped key (replace non-alphanumeric/dash characters with dash)
-            String remappedSecretName = AzureKeyVaultOperation.toKeyVaultSecretName(secretName);
-            if (!remappedSecretName.equals(secretName)) {
-                return propertiesMap.get(remappedSecretName);
+        try {
+            refreshLock.lock();
+            SecretsSnapshot previous = snapshot;
+            Set<String> staleKeys = secretExpander.getExpanded(secretName).keySet();
+            SecretsSnapshot updated = secret == null ? previous.withSecret(secretName, null, null, staleKeys, Collections.emptyMap())
+                    : previous.withSecret(secretName, secret.getValue(), secret.getProperties(), staleKeys,
+                    secretExpander.expand(secret.getProperties(), secret.getValue()));
+            snapshot = updated;
+            publishChanges(previous, updated);
+            if (snapshotStore != null) {
+                refreshScheduler.execute(() -> persistSnapshot(updated));
             }
-
-            return null;
         } finally {
-            rwLock.readLock().unlock();
+            refreshLock.unlock();
         }
     }
 
     /**
      * Check if the cache is expired. If it is expired, refresh the cache.
+     *
+     * @param propertyName name of the looked up property, null if all properties are requested.
+     * @implNote With background refresh enabled, or while a restored snapshot has not been revalidated yet, an expired cache keeps being served
+     * until it has been expired for longer than {@link #maxStalenessInMs}.
+     */
+    private void checkRefreshTimeOut(String propertyName) {
+        SecretsSnapshot current = snapshot;
+        long lastUpdate = current.getLoadedAtInMs();
+        long expiredForInMs = System.currentTimeMillis() - lastUpdate - refreshSchedule.getTimeToLiveInMs();
+        if (expiredForInMs <= 0) {
+            return;
+        }
+
+        // stale-while-revalidate: the background scheduler is responsible for the refresh
+        if ((backgroundRefresh || current.isRestored()) && lastUpdate != 0 && expiredForInMs <= maxStalenessInMs) {
+            return;
+        }
+
+        if (isBackingOff(current, expiredForInMs)) {
+            return;
+        }
+
+        createOrUpdateHashMap(propertyName);
+    }
+
+    /**
+     * Check whether the refresh of an expired cache backs off after a failed refresh.
+     *
+     * @param current        the current snapshot.
+     * @param expiredForInMs time since the current snapshot expired in milliseconds.
+     * @return true if the refresh backs off and the expired snapshot is served meanwhile; false if the cache may be refreshed.
+     * @throws RuntimeException the failure of the last refresh, if the refresh backs off and the snapshot has never been loaded or is too stale.
      */
-    private void checkRefreshTimeOut() {
-        // refresh periodically
-        if (System.currentTimeMillis() - lastUpdateTime.get() > cacheRefreshIntervalInMs) {
-            createOrUpdateHashMap();
+    private boolean isBackingOff(SecretsSnapshot current, long expiredForInMs) {
+        RuntimeException failure = refreshSchedule.getBackoffFailure();
+        if (failure == null) {
+            return false;
         }
+        if (current.getLoadedAtInMs() != 0 && expiredForInMs <= maxStalenessInMs) {
+            return true;
+        }
+        throw failure;
     }
 
     /**
-     * Refresh the cache.
+     * Refresh the cache if it is still expired once the refresh lock is acquired.
      *
-     * @implNote This method is thread-safe. It uses {@link ReadWriteLock} to protect the {@link #propertiesMap}.
+     * @param propertyName name of the looked up property which waits on the refresh, null if all properties are requested.
+     * @implNote This method is thread-safe. Only one thread reloads the cache at a time, the others wait and then see the reloaded cache.
+     * The wait is recorded as a {@link KeyVaultEvents.LookupStallEvent}.
      */
-    private void createOrUpdateHashMap() {
+    private void createOrUpdateHashMap(String propertyName) {
+        KeyVaultEvents.LookupStallEvent stall = new KeyVaultEvents.LookupStallEvent();
+        stall.begin();
         try {
-            rwLock.writeLock().lock();
-            if (System.currentTimeMillis() - lastUpdateTime.get() > cacheRefreshIntervalInMs) {
-                propertiesMap.clear();
-
-                secretKeyVaultClient.listPropertiesOfSecrets()
-                        .stream()
-                        .map(SecretProperties::getName)
-                        .forEach(key -> propertiesMap.put(key, secretKeyVaultClient.getSecret(key).getValue()));
-                lastUpdateTime.set(System.currentTimeMillis());
-                LOGGER.log(LogLevel.VERBOSE, () -> "createOrUpdateHashMap() updated the cache at " + DateFormat.getDateTimeInstance().format(lastUpdateTime.get()));
+            refreshLock.lock();
+            SecretsSnapshot current = snapshot;
+            long expiredForInMs = System.currentTimeMillis() - current.getLoadedAtInMs() - refreshSchedule.getTimeToLiveInMs();
+            if (expiredForInMs > 0 && !isBackingOff(current, expiredForInMs)) {
+                refresh();
+            }
+        } finally {
+            refreshLock.unlock();
+            KeyVaultEvents.commit(stall, secretFetcher.getVaultUrl(), propertyName, KeyVaultEvents.CAUSE_REFRESH);
+        }
+    }
+
+    /**
+     * Refresh the cache on the background scheduler, regardless of whether it is expired.
+     *
+     * @implNote A failed refresh is retried once the backoff of {@link #refreshSchedule} ends, or after refreshAheadInMs if the backoff is disabled.
+     * Errors are retried as well, since the scheduler would swallow them and background refresh would stop for good.
+     */
+    private void backgroundRefresh() {
+        refreshLock.lock();
+        try {
+            refresh();
+        } catch (Throwable e) {
+            LOGGER.log(LogLevel.WARNING, () -> "backgroundRefresh() failed with exception, serving cached secrets until the next attempt: " + e);
+            long backoffDelayInMs = refreshSchedule.getBackoffDelayInMs();
+            scheduleBackgroundRefresh(backoffDelayInMs > 0 ? backoffDelayInMs : refreshAheadInMs);
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Refresh the cache from Azure Key Vault, or from the snapshot published by another process of the node.
+     *
+     * @implNote With a {@link #sharedSnapshot}, the processes of the node take turns on its lock: the first one reloads the cache from
+     * Azure Key Vault and publishes it, the ones waiting meanwhile adopt the published snapshot once they get the lock.
+     * The caller must hold {@link #refreshLock}.
+     */
+    private void refresh() {
+        if (sharedSnapshot == null) {
+            reload();
+            return;
+        }
+        if (adoptSharedSnapshot()) {
+            return;
+        }
+
+        sharedSnapshot.runExclusively(() -> {
+            if (!adoptSharedSnapshot()) {
+                reload();
+                sharedSnapshot.publish(snapshot);
             }
+        });
+    }
+
+    /**
+     * Adopt the snapshot published to {@link #sharedSnapshot} by another process of the node, if it is newer than the cached one and not expired.
+     *
+     * @return true if the published snapshot is adopted; false if the cache must be reloaded from Azure Key Vault.
+     * @implNote The caller must hold {@link #refreshLock}.
+     */
+    private boolean adoptSharedSnapshot() {
+        SecretsSnapshot published = sharedSnapshot.read();
+        long now = System.currentTimeMillis();
+        if (published == null || published.getLoadedAtInMs() <= snapshot.getLoadedAtInMs()
+                || now - published.getLoadedAtInMs() > refreshSchedule.getTimeToLiveInMs()) {
+            return false;
+        }
+
+        SecretsSnapshot previous = snapshot;
+        refreshSchedule.onLoaded();
+        snapshot = published;
+        publishChanges(previous, published);
+        LOGGER.log(LogLevel.VERBOSE, () -> "adoptSharedSnapshot() adopted " + published.getPropertyNames().size() + " secrets loaded at "
+                + DateFormat.getDateTimeInstance().format(published.getLoadedAtInMs()) + " by another process");
+
+        if (backgroundRefresh) {
+            scheduleBackgroundRefresh(Math.max(0, published.getLoadedAtInMs() + refreshSchedule.getTimeToLiveInMs() - refreshAheadInMs - now));
+        }
+        return true;
+    }
+
+    /**
+     * Load all secrets from Azure Key Vault and replace the cached ones.
+     *
+     * @implNote Secrets whose version and update time are unchanged since the previous snapshot are reused without being fetched again.
+     * The secrets are loaded into a new snapshot, which replaces {@link #snapshot} atomically once it is complete,
+     * so readers keep being served the previous values while the reload runs. The caller must hold {@link #refreshLock}.
+     */
+    private void reload() {
+        long startInNanos = System.nanoTime();
+        KeyVaultEvents.RefreshEvent event = new KeyVaultEvents.RefreshEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            load();
+            succeeded = true;
+        } catch (RuntimeException e) {
+            refreshSchedule.onFailed(e);
+            throw e;
         } finally {
-            rwLock.writeLock().unlock();
+            metrics.recordRefresh(startInNanos, succeeded);
+            KeyVaultEvents.commit(event, secretFetcher.getVaultUrl(), AzureKeyVaultConfigSource.CACHE_MODE_ALL,
+                    succeeded ? snapshot.getProperties().size() : 0, succeeded);
+        }
+    }
+
+    /**
+     * Load all secrets from Azure Key Vault into a new snapshot, see {@link #reload()}.
+     */
+    private void load() {
+        SecretsSnapshot previous = snapshot;
+        Map<String, SecretProperties> listedProperties = new HashMap<>();
+        Map<String, String> loadedProperties = new HashMap<>();
+
+        // Only fetch secrets which are added or changed since the previous snapshot, deleted secrets are not listed anymore
+        Stream<String> changedSecretNames = secretFetcher.listSecretProperties()
+                .filter(properties -> {
+                    listedProperties.put(properties.getName(), properties);
+                    String unchangedValue = previous.getValueIfUnchanged(properties);
+                    if (unchangedValue != null) {
+                        loadedProperties.put(properties.getName(), unchangedValue);
+                        return false;
+                    }
+                    return true;
+                })
+                .map(SecretProperties::getName);
+        Map<String, KeyVaultSecret> changedSecrets = secretFetcher.getSecrets(changedSecretNames);
+        changedSecrets.forEach((key, secret) -> loadedProperties.put(key, secret.getValue()));
+
+        SecretsSnapshot loaded = new SecretsSnapshot(expand(loadedProperties, listedProperties), listedProperties, System.currentTimeMillis());
+        refreshSchedule.onLoaded();
+        snapshot = loaded;
+        publishChanges(previous, loaded);
+        LOGGER.log(LogLevel.VERBOSE, () -> "createOrUpdateHashMap() updated the cache at " + DateFormat.getDateTimeInstance().format(loaded.getLoadedAtInMs())
+                + ", fetched " + changedSecrets.size() + " of " + listedProperties.size() + " secrets");
+
+        if (backgroundRefresh) {
+            scheduleBackgroundRefresh(Math.max(0, refreshSchedule.getTimeToLiveInMs() - refreshAheadInMs));
+        }
+
+        // Nothing to persist if no secret was added, changed or deleted since the previous load
+        if (snapshotStore != null && (previous.getLoadedAtInMs() == 0 || !changedSecrets.isEmpty()
+                || !listedProperties.keySet().equals(previous.getSecretProperties().keySet()))) {
+            refreshScheduler.execute(() -> persistSnapshot(loaded));
+        }
+    }
+
+    /**
+     * Add the properties which the loaded structured secrets are expanded into, see {@link SecretExpander}.
+     *
+     * @param loadedProperties Name/value {@link Map} of the loaded secrets.
+     * @param listedProperties Name/{@link SecretProperties} {@link Map} of the listed secrets.
+     * @return Name/value {@link Map} of the loaded secrets and expanded properties, where secrets take precedence over expanded properties.
+     */
+    private Map<String, String> expand(Map<String, String> loadedProperties, Map<String, SecretProperties> listedProperties) {
+        if (!secretExpander.isEnabled()) {
+            return loadedProperties;
+        }
+
+        secretExpander.retain(listedProperties.keySet());
+        Map<String, String> properties = new HashMap<>();
+        loadedProperties.forEach((secretName, value) -> properties.putAll(secretExpander.expand(listedProperties.get(secretName), value)));
+        properties.putAll(loadedProperties);
+        return properties;
+    }
+
+    /**
+     * Publish the secrets changed between two snapshots, unless the previous one has never been loaded.
+     *
+     * @param previous the replaced snapshot.
+     * @param current  the new snapshot.
+     */
+    private void publishChanges(SecretsSnapshot previous, SecretsSnapshot current) {
+        if (previous.getLoadedAtInMs() != 0) {
+            ChangeNotifier.publish(secretFetcher.getVaultUrl(), previous.getProperties(), current.getProperties());
+        }
+    }
+
+    /**
+     * Restore the snapshot persisted by a previous run, and revalidate it against Azure Key Vault in the background.
+     */
+    private void restoreSnapshot() {
+        SecretsSnapshot restored = snapshotStore.read();
+        if (restored == null) {
+            return;
+        }
+
+        snapshot = restored;
+        LOGGER.log(LogLevel.VERBOSE, () -> "restoreSnapshot() restored " + restored.getPropertyNames().size() + " secrets loaded at "
+                + DateFormat.getDateTimeInstance().format(restored.getLoadedAtInMs()));
+        try {
+            refreshLock.lock();
+            scheduleBackgroundRefresh(0);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Persist a loaded snapshot to {@link #snapshotStore}.
+     *
+     * @param loaded the loaded snapshot.
+     * @implNote This method runs on {@link #refreshScheduler}, so callers never wait on the file system. A failure only keeps the previous file.
+     */
+    private void persistSnapshot(SecretsSnapshot loaded) {
+        try {
+            snapshotStore.write(loaded);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "persistSnapshot() failed with exception, keeping the previous snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Schedule the next background refresh, replacing the pending one if any.
+     *
+     * @param delayInMs delay of the next background refresh in milliseconds
+     * @implNote The caller must hold {@link #refreshLock}.
+     */
+    private void scheduleBackgroundRefresh(long delayInMs) {
+        if (nextBackgroundRefresh != null) {
+            nextBackgroundRefresh.cancel(false);
         }
+        nextBackgroundRefresh = refreshScheduler.schedule(this::backgroundRefresh, delayInMs, TimeUnit.MILLISECONDS);
     }
 
 }
@@ -0,0 +1,208 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class is used to compute the secrets changed by a refresh of a cache, and to deliver them as an {@link AzureKeyVaultChangeEvent}.
+ *
+ * <ul>
+ *     <li>The changes are only computed if they are observed, by a registered {@link AzureKeyVaultChangeListener} or by CDI.</li>
+ *     <li>Events are delivered on a single daemon thread, so refreshes never wait on listeners, and listeners see the events in refresh order.</li>
+ *     <li>
+ *         If CDI 2.0 or later is present, {@code jakarta.enterprise} or {@code javax.enterprise}, events are also fired through the
+ *         {@code BeanManager} of {@code CDI.current()}. CDI is called by reflection, so it is not a dependency of the config source.
+ *     </li>
+ * </ul>
+ */
+final class ChangeNotifier {
+    private static final ClientLogger LOGGER = new ClientLogger(ChangeNotifier.class);
+    private static final List<AzureKeyVaultChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static final CdiEvents CDI_EVENTS = CdiEvents.find();
+    private static final ExecutorService NOTIFIER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "azure-keyvault-change-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ChangeNotifier() {
+    }
+
+    /**
+     * Register a listener of the changes of all config sources.
+     *
+     * @param listener the listener.
+     */
+    static void addListener(AzureKeyVaultChangeListener listener) {
+        LISTENERS.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    /**
+     * Unregister a listener.
+     *
+     * @param listener the listener.
+     */
+    static void removeListener(AzureKeyVaultChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Check whether changes are observed, so callers only compute them if they are.
+     *
+     * @return true if a listener is registered or CDI is present; otherwise, false.
+     */
+    static boolean isObserved() {
+        return !LISTENERS.isEmpty() || CDI_EVENTS != null;
+    }
+
+    /**
+     * Publish the secrets changed between two versions of a cache, if any and if they are observed.
+     *
+     * @param vaultUrl URL of Azure Key Vault
+     * @param previous name/value {@link Map} of the secrets before the refresh.
+     * @param current  name/value {@link Map} of the secrets after the refresh.
+     */
+    static void publish(String vaultUrl, Map<String, String> previous, Map<String, String> current) {
+        if (isObserved()) {
+            publish(diff(vaultUrl, previous, current));
+        }
+    }
+
+    /**
+     * Publish the secrets added or removed between two versions of an index of secret names, if any and if they are observed.
+     *
+     * @param vaultUrl URL of Azure Key Vault
+     * @param previous names of the secrets before the refresh.
+     * @param current  names of the secrets after the refresh.
+     */
+    static void publishNames(String vaultUrl, Set<String> previous, Set<String> current) {
+        if (!isObserved()) {
+            return;
+        }
+
+        Set<String> added = new HashSet<>(current);
+        added.removeAll(previous);
+        Set<String> removed = new HashSet<>(previous);
+        removed.removeAll(current);
+        publish(new AzureKeyVaultChangeEvent(vaultUrl, added, Collections.emptySet(), removed));
+    }
+
+    /**
+     * Compute the secrets changed between two versions of a cache.
+     *
+     * @param vaultUrl URL of Azure Key Vault
+     * @param previous name/value {@link Map} of the secrets before the refresh.
+     * @param current  name/value {@link Map} of the secrets after the refresh.
+     * @return the added, changed and removed secrets.
+     */
+    static AzureKeyVaultChangeEvent diff(String vaultUrl, Map<String, String> previous, Map<String, String> current) {
+        Set<String> added = new HashSet<>();
+        Set<String> changed = new HashSet<>();
+        current.forEach((name, value) -> {
+            if (!previous.containsKey(name)) {
+                added.add(name);
+            } else if (!Objects.equals(previous.get(name), value)) {
+                changed.add(name);
+            }
+        });
+        Set<String> removed = new HashSet<>();
+        previous.keySet().forEach(name -> {
+            if (!current.containsKey(name)) {
+                removed.add(name);
+            }
+        });
+        return new AzureKeyVaultChangeEvent(vaultUrl, added, changed, removed);
+    }
+
+    /**
+     * Deliver an event on the notifier thread, unless it is empty.
+     *
+     * @param event the event.
+     */
+    static void publish(AzureKeyVaultChangeEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        LOGGER.log(LogLevel.VERBOSE, () -> "publish() publishes " + event.getAddedKeys().size() + " added, " + event.getChangedKeys().size()
+                + " changed and " + event.getRemovedKeys().size() + " removed secrets of " + event.getVaultUrl());
+        NOTIFIER.execute(() -> deliver(event));
+    }
+
+    private static void deliver(AzureKeyVaultChangeEvent event) {
+        for (AzureKeyVaultChangeListener listener : LISTENERS) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                LOGGER.log(LogLevel.WARNING, () -> "deliver() failed to notify listener " + listener + ": " + e.getMessage());
+            }
+        }
+        if (CDI_EVENTS != null) {
+            CDI_EVENTS.fire(event);
+        }
+    }
+
+    /**
+     * Reflective access to {@code CDI.current().getBeanManager().getEvent().fire(event)}.
+     */
+    private static final class CdiEvents {
+        private final Method current;
+        private final Method getBeanManager;
+        private final Method getEvent;
+        private final Method fire;
+
+        private CdiEvents(Method current, Method getBeanManager, Method getEvent, Method fire) {
+            this.current = current;
+            this.getBeanManager = getBeanManager;
+            this.getEvent = getEvent;
+            this.fire = fire;
+        }
+
+        /**
+         * Find the CDI API on the class path.
+         *
+         * @return the CDI events; null if CDI 2.0 or later is not present.
+         */
+        private static CdiEvents find() {
+            for (String namespace : new String[] {"jakarta.enterprise", "javax.enterprise"}) {
+                try {
+                    ClassLoader classLoader = ChangeNotifier.class.getClassLoader();
+                    Class<?> cdi = Class.forName(namespace + ".inject.spi.CDI", false, classLoader);
+                    Class<?> beanManager = Class.forName(namespace + ".inject.spi.BeanManager", false, classLoader);
+                    Class<?> event = Class.forName(namespace + ".event.Event", false, classLoader);
+                    return new CdiEvents(cdi.getMethod("current"), cdi.getMethod("getBeanManager"), beanManager.getMethod("getEvent"),
+                            event.getMethod("fire", Object.class));
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    // Not present, or a CDI version without BeanManager.getEvent()
+                }
+            }
+            return null;
+        }
+
+        private void fire(AzureKeyVaultChangeEvent event) {
+            try {
+                Object beanManager = getBeanManager.invoke(current.invoke(null));
+                fire.invoke(getEvent.invoke(beanManager), event);
+            } catch (InvocationTargetException e) {
+                // CDI.current() throws IllegalStateException if no container is running
+                LOGGER.log(LogLevel.VERBOSE, () -> "fire() failed to fire CDI event: " + e.getCause());
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.log(LogLevel.VERBOSE, () -> "fire() failed to fire CDI event: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.json.JsonProviders;
+import com.azure.json.JsonReader;
+import com.azure.json.JsonToken;
+import com.azure.json.JsonWriter;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class is used to persist the last loaded {@link SecretsSnapshot} in an encrypted local file.
+ *
+ * <ul>
+ *     <li>The snapshot is encrypted with AES-GCM, using a Base64 encoded 128, 192 or 256 bit key, and bound to the URL of the vault.</li>
+ *     <li>The file is written to a temporary file next to it first, which then replaces it atomically, so readers never see a partial file.</li>
+ *     <li>A snapshot which is missing, was written for another vault or with another key, or was tampered with, is not read.</li>
+ * </ul>
+ */
+final class EncryptedSnapshotStore {
+    private static final ClientLogger LOGGER = new ClientLogger(EncryptedSnapshotStore.class);
+    private static final byte[] MAGIC = {'A', 'K', 'V', 'S'};
+    private static final byte FORMAT_VERSION = 1;
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_IN_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Path path;
+    private final SecretKeySpec key;
+    private final byte[] associatedData;
+
+    /**
+     * Constructor of EncryptedSnapshotStore.
+     *
+     * @param path     path of the snapshot file
+     * @param key      Base64 encoded AES key
+     * @param vaultUrl URL of Azure Key Vault, which the snapshot is bound to
+     * @throws IllegalArgumentException if the key is not a Base64 encoded 128, 192 or 256 bit key.
+     */
+    EncryptedSnapshotStore(Path path, String key, String vaultUrl) {
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getDecoder().decode(key == null ? "" : key.trim());
+        } catch (IllegalArgumentException e) {
+            throw LOGGER.logExceptionAsError(new IllegalArgumentException("The key of the snapshot '" + AzureKeyVaultOptions.CACHE_SNAPSHOT_KEY
+                    + "' is not Base64 encoded.", e));
+        }
+        if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
+            throw LOGGER.logExceptionAsError(new IllegalArgumentException("The key of the snapshot '" + AzureKeyVaultOptions.CACHE_SNAPSHOT_KEY
+                    + "' must be a Base64 encoded 128, 192 or 256 bit key."));
+        }
+
+        this.path = path.toAbsolutePath();
+        this.key = new SecretKeySpec(keyBytes, "AES");
+        this.associatedData = (vaultUrl == null ? "" : vaultUrl).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the snapshot from the file.
+     *
+     * @return the snapshot with {@link SecretsSnapshot#isRestored()} set; null if the file doesn't exist or cannot be read.
+     */
+    SecretsSnapshot read() {
+        try {
+            return decode(Files.readAllBytes(path), true);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "read() failed to read snapshot " + path + ", which is ignored: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decode an encrypted snapshot, as written to the file.
+     *
+     * @param content  the encrypted snapshot.
+     * @param restored whether the snapshot is restored from a previous run, see {@link SecretsSnapshot#isRestored()}.
+     * @return the snapshot; null if it has an unsupported format, was encrypted for another vault or with another key, or was tampered with.
+     */
+    SecretsSnapshot decode(byte[] content, boolean restored) {
+        try {
+            int headerLength = MAGIC.length + 1;
+            if (content.length < headerLength + IV_LENGTH || !Arrays.equals(MAGIC, Arrays.copyOf(content, MAGIC.length))
+                    || content[MAGIC.length] != FORMAT_VERSION) {
+                LOGGER.log(LogLevel.WARNING, () -> "decode() ignored snapshot " + path + " with unsupported format.");
+                return null;
+            }
+
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_IN_BITS, content, headerLength, IV_LENGTH));
+            cipher.updateAAD(associatedData);
+            byte[] plaintext = cipher.doFinal(content, headerLength + IV_LENGTH, content.length - headerLength - IV_LENGTH);
+            return deserialize(plaintext, restored);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "decode() failed to decrypt snapshot " + path + ", which is ignored: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the snapshot to the file, replacing the previous one atomically.
+     *
+     * @param snapshot the snapshot.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(SecretsSnapshot snapshot) throws IOException {
+        byte[] content = encode(snapshot);
+        Path directory = path.getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            if (Files.getFileStore(temporary).supportsFileAttributeView("posix")) {
+                Files.setPosixFilePermissions(temporary, PosixFilePermissions.fromString("rw-------"));
+            }
+            Files.write(temporary, content);
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Encrypt a snapshot, in the format of the file.
+     *
+     * @param snapshot the snapshot.
+     * @return the encrypted snapshot.
+     * @throws IOException if the snapshot cannot be serialized or encrypted.
+     */
+    byte[] encode(SecretsSnapshot snapshot) throws IOException {
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        byte[] ciphertext;
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_IN_BITS, iv));
+            cipher.updateAAD(associatedData);
+            ciphertext = cipher.doFinal(serialize(snapshot));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to encrypt snapshot", e);
+        }
+        return ByteBuffer.allocate(MAGIC.length + 1 + IV_LENGTH + ciphertext.length)
+                .put(MAGIC).put(FORMAT_VERSION).put(iv).put(ciphertext).array();
+    }
+
+    private static byte[] serialize(SecretsSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonWriter writer = JsonProviders.createWriter(output)) {
+            writer.writeStartObject()
+                    .writeLongField("loadedAt", snapshot.getLoadedAtInMs())
+                    .writeStartArray("secrets");
+            for (Map.Entry<String, String> secret : snapshot.getProperties().entrySet()) {
+                writer.writeStartObject()
+                        .writeStringField("name", secret.getKey())
+                        .writeStringField("value", secret.getValue());
+                SecretProperties properties = snapshot.getSecretProperties().get(secret.getKey());
+                if (properties != null) {
+                    // Same shape as listed by Azure Key Vault, so it is read back by SecretProperties.fromJson
+                    writer.writeStartObject("properties")
+                            .writeStringField("id", properties.getId())
+                            .writeStringField("contentType", properties.getContentType())
+                            .writeMapField("tags", properties.getTags(), JsonWriter::writeString)
+                            .writeStartObject("attributes")
+                            .writeBooleanField("enabled", properties.isEnabled())
+                            .writeNumberField("created", toEpochSecond(properties.getCreatedOn()))
+                            .writeNumberField("updated", toEpochSecond(properties.getUpdatedOn()))
+                            .writeNumberField("nbf", toEpochSecond(properties.getNotBefore()))
+                            .writeNumberField("exp", toEpochSecond(properties.getExpiresOn()))
+                            .writeEndObject()
+                            .writeEndObject();
+                }
+                writer.writeEndObject();
+            }
+            writer.writeEndArray().writeEndObject();
+        }
+        return output.toByteArray();
+    }
+
+    private static SecretsSnapshot deserialize(byte[] plaintext, boolean restored) throws IOException {
+        Map<String, String> properties = new HashMap<>();
+        Map<String, SecretProperties> secretProperties = new HashMap<>();
+        long[] loadedAtInMs = {0L};
+        try (JsonReader reader = JsonProviders.createReader(plaintext)) {
+            reader.readObject(snapshotReader -> {
+                while (snapshotReader.nextToken() != JsonToken.END_OBJECT) {
+                    String fieldName = snapshotReader.getFieldName();
+                    snapshotReader.nextToken();
+                    if ("loadedAt".equals(fieldName)) {
+                        loadedAtInMs[0] = snapshotReader.getLong();
+                    } else if ("secrets".equals(fieldName)) {
+                        snapshotReader.readArray(secretReader -> secretReader.readObject(EncryptedSnapshotStore::readSecret))
+                                .forEach(secret -> {
+                                    properties.put(secret.name, secret.value);
+                                    if (secret.properties != null) {
+                                        secretProperties.put(secret.name, secret.properties);
+                                    }
+                                });
+                    } else {
+                        snapshotReader.skipChildren();
+                    }
+                }
+                return null;
+            });
+        }
+        return new SecretsSnapshot(properties, secretProperties, loadedAtInMs[0], restored);
+    }
+
+    private static PersistedSecret readSecret(JsonReader reader) throws IOException {
+        PersistedSecret secret = new PersistedSecret();
+        while (reader.nextToken() != JsonToken.END_OBJECT) {
+            String fieldName = reader.getFieldName();
+            reader.nextToken();
+            if ("name".equals(fieldName)) {
+                secret.name = reader.getString();
+            } else if ("value".equals(fieldName)) {
+                secret.value = reader.getString();
+            } else if ("properties".equals(fieldName)) {
+                secret.properties = SecretProperties.fromJson(reader);
+            } else {
+                reader.skipChildren();
+            }
+        }
+        return secret;
+    }
+
+    private static Long toEpochSecond(OffsetDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toEpochSecond();
+    }
+
+    /**
+     * Secret read from the snapshot file.
+     */
+    private static final class PersistedSecret {
+        private String name;
+        private String value;
+        private SecretProperties properties;
+    }
+}
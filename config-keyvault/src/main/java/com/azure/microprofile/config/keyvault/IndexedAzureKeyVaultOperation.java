@@ -0,0 +1,260 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.exception.ResourceNotFoundException;
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+
+import java.text.DateFormat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * This class is used to fetch the secrets from Azure Key Vault with a cached index of secret names.
+ *
+ * <ul>
+ *     <li>It caches the names of the secrets, but not their values. Values are fetched from Azure Key Vault every time.</li>
+ *     <li>Lookups of names which do not exist in the index are answered locally, without calling Azure Key Vault.</li>
+ *     <li>The index is refreshed if it is hit but expired after the specified cacheRefreshIntervalInMs. Only one caller refreshes it, the others keep using the expired index meanwhile.</li>
+ *     <li>The default value of cacheRefreshIntervalInMs is 3 minutes.</li>
+ *     <li>
+ *         Loads expire early by up to a jitter, and failed refreshes back off exponentially, see {@link RefreshSchedule}. While a failed refresh
+ *         backs off, the expired index is used, or the failure is rethrown if the index has never been loaded.
+ *     </li>
+ *     <li>The secrets added or removed by a refresh or an invalidation are published by {@link ChangeNotifier}.</li>
+ * </ul>
+ */
+class IndexedAzureKeyVaultOperation implements AzureKeyVaultOperation {
+    private static final long DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS = 180000L; // 3 minutes
+    private static final ClientLogger LOGGER = new ClientLogger(IndexedAzureKeyVaultOperation.class);
+    private final SecretFetcher secretFetcher;
+    private final PinnedSecretCache pinnedSecrets;
+    private final RefreshSchedule refreshSchedule;
+
+    private volatile SecretNameIndex index = SecretNameIndex.EMPTY;
+    private final Lock refreshLock = new ReentrantLock();
+
+    /**
+     * Constructor of IndexedAzureKeyVaultOperation.
+     *
+     * @param url     URL of Azure Key Vault
+     * @param options options of the operation
+     */
+    IndexedAzureKeyVaultOperation(String url, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(url, options), options);
+        secretFetcher.getMetrics().register(url, AzureKeyVaultConfigSource.CACHE_MODE_NAMES, options);
+        AzureKeyVaultEventHandler.register(url, this);
+    }
+
+    /**
+     * Constructor of IndexedAzureKeyVaultOperation.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param options              options of the operation
+     */
+    IndexedAzureKeyVaultOperation(SecretClient secretKeyVaultClient, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(secretKeyVaultClient, options), options);
+    }
+
+    /**
+     * Constructor of IndexedAzureKeyVaultOperation.
+     *
+     * @param secretFetcher fetcher of the secrets from Azure Key Vault
+     * @param options       options of the operation
+     */
+    IndexedAzureKeyVaultOperation(SecretFetcher secretFetcher, AzureKeyVaultOptions options) {
+        this.secretFetcher = secretFetcher;
+        this.pinnedSecrets = new PinnedSecretCache(secretFetcher, options);
+        long cacheRefreshIntervalInMs = Optional.ofNullable(options.getCacheRefreshIntervalInMs()).orElse(DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS);
+        this.refreshSchedule = new RefreshSchedule(cacheRefreshIntervalInMs, options);
+        secretFetcher.getMetrics().bindCache(() -> index.getSecretNames().size(),
+                () -> index.getSecretNames().stream().mapToLong(secretName -> (long) secretName.length() * Character.BYTES).sum(),
+                () -> index.getLoadedAtInMs());
+    }
+
+    /**
+     * Get secrets from Azure Key Vault.
+     *
+     * @return Name/value {@link Map} of secrets.
+     * @implNote The values of all indexed secrets are fetched from Azure Key Vault.
+     */
+    public Map<String, String> getProperties() {
+        Map<String, String> propertiesMap = new HashMap<>();
+        secretFetcher.getSecrets(getIndex(null).getSecretNames().stream())
+                .forEach((prop, secret) -> propertiesMap.put(prop, secret.getValue()));
+
+        return propertiesMap;
+    }
+
+    /**
+     * Get secret names from Azure Key Vault.
+     *
+     * @return Name {@link Set} of secrets.
+     */
+    public Set<String> getPropertyNames() {
+        return getIndex(null).getSecretNames();
+    }
+
+    /**
+     * Get secret value from Azure Key Vault.
+     *
+     * @param secretName Secret name.
+     * @return Secret value if the secret exists in the index; otherwise, null.
+     */
+    public String getValue(String secretName) {
+        if (secretName == null) {
+            return null;
+        }
+        if (pinnedSecrets.isPinned(secretName)) {
+            return pinnedSecrets.getValue(secretName);
+        }
+
+        String indexedSecretName = getIndex(secretName).resolve(secretName);
+        if (indexedSecretName == null) {
+            secretFetcher.getMetrics().recordMiss();
+            return null;
+        }
+        secretFetcher.getMetrics().recordHit(!indexedSecretName.equals(secretName));
+
+        KeyVaultEvents.LookupStallEvent stall = new KeyVaultEvents.LookupStallEvent();
+        stall.begin();
+        try {
+            return secretFetcher.getSecretValue(indexedSecretName);
+        } catch (Exception e) {
+            LOGGER.log(LogLevel.INFORMATIONAL, () -> "getValue() failed with exception: " + e.getMessage());
+            return null;
+        } finally {
+            KeyVaultEvents.commit(stall, secretFetcher.getVaultUrl(), secretName, KeyVaultEvents.CAUSE_REMOTE);
+        }
+    }
+
+    /**
+     * Add a secret which has been created in Azure Key Vault to the index, or remove it if it doesn't exist anymore.
+     *
+     * @param secretName Secret name.
+     * @implNote Values are not cached, so the secret is only fetched to check that it exists and is selected by the filter.
+     */
+    @Override
+    public void invalidate(String secretName) {
+        if (index.getLoadedAtInMs() == 0) {
+            return;
+        }
+
+        boolean exists;
+        try {
+            exists = secretFetcher.getSelectedSecret(secretName) != null;
+        } catch (ResourceNotFoundException e) {
+            exists = false;
+        } catch (RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "invalidate() failed with exception, keeping the index until the next refresh: " + e.getMessage());
+            return;
+        }
+
+        try {
+            refreshLock.lock();
+            SecretNameIndex current = index;
+            if (current.getSecretNames().contains(secretName) != exists) {
+                Set<String> secretNames = new HashSet<>(current.getSecretNames());
+                if (exists) {
+                    secretNames.add(secretName);
+                } else {
+                    secretNames.remove(secretName);
+                }
+                index = new SecretNameIndex(secretNames, current.getLoadedAtInMs());
+                ChangeNotifier.publishNames(secretFetcher.getVaultUrl(), current.getSecretNames(), secretNames);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Get the index of secret names, refreshing it if it is expired.
+     *
+     * @param propertyName name of the looked up property, null if all properties are requested.
+     * @return the index of secret names.
+     * @implNote Callers only wait for the refresh if the index has never been loaded, which is recorded as a {@link KeyVaultEvents.LookupStallEvent}.
+     * Otherwise, if another caller is already refreshing it, or the refresh fails, the expired index is returned.
+     */
+    private SecretNameIndex getIndex(String propertyName) {
+        SecretNameIndex current = index;
+        if (System.currentTimeMillis() - current.getLoadedAtInMs() <= refreshSchedule.getTimeToLiveInMs()) {
+            return current;
+        }
+
+        if (current.getLoadedAtInMs() == 0) {
+            KeyVaultEvents.LookupStallEvent stall = new KeyVaultEvents.LookupStallEvent();
+            stall.begin();
+            try {
+                refreshLock.lock();
+                if (index.getLoadedAtInMs() == 0) {
+                    RuntimeException failure = refreshSchedule.getBackoffFailure();
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    reload();
+                }
+                return index;
+            } finally {
+                refreshLock.unlock();
+                KeyVaultEvents.commit(stall, secretFetcher.getVaultUrl(), propertyName, KeyVaultEvents.CAUSE_REFRESH);
+            }
+        }
+
+        if (refreshSchedule.getBackoffFailure() == null && refreshLock.tryLock()) {
+            try {
+                if (index == current) {
+                    reload();
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(LogLevel.WARNING, () -> "getIndex() failed to refresh the index, using the expired one: " + e.getMessage());
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * List the secret names from Azure Key Vault and replace the index.
+     *
+     * @implNote The caller must hold {@link #refreshLock}.
+     */
+    private void reload() {
+        long startInNanos = System.nanoTime();
+        KeyVaultEvents.RefreshEvent event = new KeyVaultEvents.RefreshEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            Set<String> secretNames = secretFetcher.listSecretProperties()
+                    .map(SecretProperties::getName)
+                    .collect(Collectors.toSet());
+            SecretNameIndex previous = index;
+            SecretNameIndex loaded = new SecretNameIndex(secretNames, System.currentTimeMillis());
+            refreshSchedule.onLoaded();
+            index = loaded;
+            if (previous.getLoadedAtInMs() != 0) {
+                ChangeNotifier.publishNames(secretFetcher.getVaultUrl(), previous.getSecretNames(), secretNames);
+            }
+            succeeded = true;
+            LOGGER.log(LogLevel.VERBOSE, () -> "reload() updated the index at " + DateFormat.getDateTimeInstance().format(loaded.getLoadedAtInMs()));
+        } catch (RuntimeException e) {
+            refreshSchedule.onFailed(e);
+            throw e;
+        } finally {
+            secretFetcher.getMetrics().recordRefresh(startInNanos, succeeded);
+            KeyVaultEvents.commit(event, secretFetcher.getVaultUrl(), AzureKeyVaultConfigSource.CACHE_MODE_NAMES,
+                    succeeded ? index.getSecretNames().size() : 0, succeeded);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * JDK Flight Recorder events of the calls to Azure Key Vault, the refreshes of the caches and the lookups which wait on either.
+ *
+ * <ul>
+ *     <li>Events carry their duration and thread, so config stalls can be correlated with latency spikes of the application.</li>
+ *     <li>Secret names are recorded as hashes, secret values are never recorded.</li>
+ *     <li>Fields are only computed if the event is committed, so disabled events cost little more than a timestamp.</li>
+ * </ul>
+ */
+final class KeyVaultEvents {
+    private static final String PREFIX = "com.azure.microprofile.config.keyvault.";
+
+    /**
+     * Cause of a lookup stall which waited on a refresh of the cache.
+     */
+    static final String CAUSE_REFRESH = "refresh";
+
+    /**
+     * Cause of a lookup stall which waited on calls to Azure Key Vault.
+     */
+    static final String CAUSE_REMOTE = "remote";
+
+    private KeyVaultEvents() {
+    }
+
+    /**
+     * Call to Azure Key Vault, from the request until the response, including retries.
+     */
+    @Name(PREFIX + "VaultCall")
+    @Label("Key Vault Call")
+    @Category({"Azure", "Key Vault Config Source"})
+    @Description("Call to Azure Key Vault which gets a secret or lists the secrets, including all pages")
+    @StackTrace(false)
+    static final class VaultCallEvent extends Event {
+        @Label("Vault")
+        String vaultUrl;
+
+        @Label("Call")
+        String call;
+
+        @Label("Secret Name Hash")
+        String secretNameHash;
+
+        @Label("Priority")
+        String priority;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    /**
+     * Reload of a cache from Azure Key Vault.
+     */
+    @Name(PREFIX + "Refresh")
+    @Label("Key Vault Cache Refresh")
+    @Category({"Azure", "Key Vault Config Source"})
+    @Description("Reload of the cached secrets or secret names from Azure Key Vault")
+    @StackTrace(false)
+    static final class RefreshEvent extends Event {
+        @Label("Vault")
+        String vaultUrl;
+
+        @Label("Cache Mode")
+        String mode;
+
+        @Label("Secrets")
+        int secrets;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    /**
+     * Lookup of a config value which waited on a refresh of the cache or on calls to Azure Key Vault.
+     */
+    @Name(PREFIX + "LookupStall")
+    @Label("Key Vault Lookup Stall")
+    @Category({"Azure", "Key Vault Config Source"})
+    @Description("Config lookup which waited on a lock or a call to Azure Key Vault")
+    static final class LookupStallEvent extends Event {
+        @Label("Vault")
+        String vaultUrl;
+
+        @Label("Property Name Hash")
+        String propertyNameHash;
+
+        @Label("Cause")
+        String cause;
+    }
+
+    /**
+     * Commit a refresh event, if it is enabled and exceeds its threshold.
+     *
+     * @param event     the event, which has begun when the refresh started.
+     * @param vaultUrl  URL of Azure Key Vault.
+     * @param mode      cache mode of the operation.
+     * @param secrets   number of loaded secrets or secret names, 0 if the refresh failed.
+     * @param succeeded whether the refresh succeeded.
+     */
+    static void commit(RefreshEvent event, String vaultUrl, String mode, int secrets, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.vaultUrl = vaultUrl;
+            event.mode = mode;
+            event.secrets = secrets;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Commit a lookup stall event, if it is enabled and exceeds its threshold.
+     *
+     * @param event        the event, which has begun when the lookup started to wait.
+     * @param vaultUrl     URL of Azure Key Vault.
+     * @param propertyName name of the looked up property, null if all properties were requested.
+     * @param cause        what the lookup waited on, {@link #CAUSE_REFRESH} or {@link #CAUSE_REMOTE}.
+     */
+    static void commit(LookupStallEvent event, String vaultUrl, String propertyName, String cause) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.vaultUrl = vaultUrl;
+            event.propertyNameHash = hash(propertyName);
+            event.cause = cause;
+            event.commit();
+        }
+    }
+
+    /**
+     * Hash a secret or property name, so recordings can correlate lookups of the same name without disclosing it.
+     *
+     * @param name the name.
+     * @return the first 8 bytes of the SHA-256 digest of the name, in hexadecimal; null if the name is null.
+     */
+    static String hash(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                hash.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(name.hashCode());
+        }
+    }
+}
@@ -0,0 +1,334 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.exception.ResourceNotFoundException;
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * This class is used to fetch the secrets from Azure Key Vault on first lookup and cache them per key.
+ *
+ * <ul>
+ *     <li>Only the secrets which are looked up are fetched, the vault is never loaded as a whole by {@link #getValue(String)}.</li>
+ *     <li>Each cached value expires cacheRefreshIntervalInMs after it was fetched. The default value of cacheRefreshIntervalInMs is 3 minutes.</li>
+ *     <li>Secrets which do not exist are cached as misses, which expire negativeCacheRefreshIntervalInMs after the lookup. The default value is 30 seconds.</li>
+ *     <li>The cache is bounded by maxEntries and maxBytes, the least recently used entries are evicted first. The default values are 1000 entries and 4 MiB.</li>
+ *     <li>Entries are keyed by the case-insensitive Key Vault secret name, so the property names which remap to the same secret share one entry.</li>
+ *     <li>If fetching an expired entry again fails, the expired entry is served while it has been expired for at most maxStalenessInMs.
+ *     The default value of maxStalenessInMs is unlimited.</li>
+ *     <li>The secrets whose value changed when their expired entry is fetched again are published by {@link ChangeNotifier}.</li>
+ *     <li>A secret name regular expression is used to filter out invalid secret names to reduce unnecessary calls to Azure Key Vault.</li>
+ * </ul>
+ */
+class LazyCachedAzureKeyVaultOperation implements AzureKeyVaultOperation {
+    private static final long DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS = 180000L; // 3 minutes
+    private static final long DEFAULT_NEGATIVE_CACHE_REFRESH_INTERVAL_IN_MS = 30000L; // 30 seconds
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024; // 4 MiB
+    private static final ClientLogger LOGGER = new ClientLogger(LazyCachedAzureKeyVaultOperation.class);
+    private final long cacheRefreshIntervalInMs;
+    private final long negativeCacheRefreshIntervalInMs;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long maxStalenessInMs;
+    private final String secretNameRegex;
+    private final Predicate<String> secretNameFilter;
+    private final SecretFetcher secretFetcher;
+    private final PinnedSecretCache pinnedSecrets;
+
+    /**
+     * Cached entries in least recently used order, guarded by itself.
+     */
+    private final LinkedHashMap<String, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * Constructor of LazyCachedAzureKeyVaultOperation.
+     *
+     * @param url     URL of Azure Key Vault
+     * @param options options of the operation
+     */
+    LazyCachedAzureKeyVaultOperation(String url, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(url, options), options);
+        secretFetcher.getMetrics().register(url, AzureKeyVaultConfigSource.CACHE_MODE_LAZY, options);
+        AzureKeyVaultEventHandler.register(url, this);
+    }
+
+    /**
+     * Constructor of LazyCachedAzureKeyVaultOperation.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param options              options of the operation
+     */
+    LazyCachedAzureKeyVaultOperation(SecretClient secretKeyVaultClient, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(secretKeyVaultClient, options), options);
+    }
+
+    /**
+     * Constructor of LazyCachedAzureKeyVaultOperation.
+     *
+     * @param secretFetcher fetcher of the secrets from Azure Key Vault
+     * @param options       options of the operation
+     */
+    LazyCachedAzureKeyVaultOperation(SecretFetcher secretFetcher, AzureKeyVaultOptions options) {
+        this.secretFetcher = secretFetcher;
+        this.pinnedSecrets = new PinnedSecretCache(secretFetcher, options);
+        this.cacheRefreshIntervalInMs = Optional.ofNullable(options.getCacheRefreshIntervalInMs()).orElse(DEFAULT_CACHE_REFRESH_INTERVAL_IN_MS);
+        this.negativeCacheRefreshIntervalInMs = Optional.ofNullable(options.getNegativeCacheRefreshIntervalInMs()).orElse(DEFAULT_NEGATIVE_CACHE_REFRESH_INTERVAL_IN_MS);
+        this.maxEntries = Optional.ofNullable(options.getCacheMaxEntries()).orElse(DEFAULT_MAX_ENTRIES);
+        this.maxBytes = Optional.ofNullable(options.getCacheMaxBytes()).orElse(DEFAULT_MAX_BYTES);
+        this.maxStalenessInMs = Optional.ofNullable(options.getMaxStalenessInMs()).orElse(Long.MAX_VALUE);
+        this.secretNameRegex = Optional.ofNullable(options.getSecretNameRegex()).orElse(DEFAULT_SECRET_NAME_REGEX);
+        this.secretNameFilter = AzureKeyVaultOperation.secretNameFilter(secretNameRegex);
+        secretFetcher.getMetrics().bindCache(this::getCachedEntries, this::getCachedBytes, () -> 0L);
+    }
+
+    /**
+     * Get secrets from Azure Key Vault.
+     *
+     * @return Name/value {@link Map} of secrets.
+     * @implNote All secrets are fetched from Azure Key Vault, they are not added to the cache.
+     */
+    public Map<String, String> getProperties() {
+        Map<String, String> propertiesMap = new HashMap<>();
+        secretFetcher.getSecrets(secretFetcher.listSecretProperties().map(SecretProperties::getName))
+                .forEach((prop, secret) -> propertiesMap.put(prop, secret.getValue()));
+
+        return propertiesMap;
+    }
+
+    /**
+     * Get secret names from Azure Key Vault.
+     *
+     * @return Name {@link Set} of secrets.
+     */
+    public Set<String> getPropertyNames() {
+        Set<String> keysSet = new TreeSet<>();
+        secretFetcher.listSecretProperties()
+                .map(SecretProperties::getName)
+                .forEach(keysSet::add);
+
+        return keysSet;
+    }
+
+    /**
+     * Get secret value from the cache, or from Azure Key Vault if it is not cached or expired.
+     *
+     * @param secretName Secret name.
+     * @return Secret value if secretName is valid and exists; otherwise, null.
+     */
+    public String getValue(String secretName) {
+        if (secretName == null) {
+            return null;
+        }
+        if (pinnedSecrets.isPinned(secretName)) {
+            return pinnedSecrets.getValue(secretName);
+        }
+
+        String cacheKey = toCacheKey(secretName);
+        long now = System.currentTimeMillis();
+        CacheEntry expired;
+        synchronized (cache) {
+            CacheEntry entry = cache.get(cacheKey);
+            if (entry != null && entry.expiresAtInMs > now) {
+                if (entry.value == null) {
+                    secretFetcher.getMetrics().recordMiss();
+                } else {
+                    secretFetcher.getMetrics().recordHit(false);
+                }
+                return entry.value;
+            }
+            expired = entry;
+        }
+        secretFetcher.getMetrics().recordMiss();
+
+        // Fetch outside the lock, so lookups of other secrets are not blocked on Azure Key Vault
+        Optional<String> value;
+        KeyVaultEvents.LookupStallEvent stall = new KeyVaultEvents.LookupStallEvent();
+        stall.begin();
+        try {
+            value = fetchValue(secretName);
+        } catch (Exception e) {
+            if (expired != null && System.currentTimeMillis() - expired.expiresAtInMs <= maxStalenessInMs) {
+                LOGGER.log(LogLevel.INFORMATIONAL, () -> "getValue() failed to fetch " + secretName + ", serving the expired entry: " + e.getMessage());
+                return expired.value;
+            }
+            LOGGER.log(LogLevel.INFORMATIONAL, () -> "getValue() failed with exception: " + e.getMessage());
+            return null;
+        } finally {
+            KeyVaultEvents.commit(stall, secretFetcher.getVaultUrl(), secretName, KeyVaultEvents.CAUSE_REMOTE);
+        }
+
+        long expiresAtInMs = System.currentTimeMillis() + (value.isPresent() ? cacheRefreshIntervalInMs : negativeCacheRefreshIntervalInMs);
+        CacheEntry replaced = put(cacheKey, new CacheEntry(value.orElse(null), expiresAtInMs, cacheKey));
+        if (replaced != null) {
+            ChangeNotifier.publish(secretFetcher.getVaultUrl(), toMap(secretName, replaced.value), toMap(secretName, value.orElse(null)));
+        }
+        return value.orElse(null);
+    }
+
+    /**
+     * Evict the cached lookups of a secret which has changed in Azure Key Vault, so the next lookup fetches it again.
+     *
+     * @param secretName Secret name.
+     * @implNote Lookups are cached by case-insensitive secret name, so the lookups of all property names remapped to the secret are evicted.
+     */
+    @Override
+    public void invalidate(String secretName) {
+        if (secretName == null) {
+            return;
+        }
+
+        synchronized (cache) {
+            CacheEntry removed = cache.remove(toCacheKey(secretName));
+            if (removed != null) {
+                cachedBytes -= removed.sizeInBytes;
+            }
+        }
+    }
+
+    /**
+     * Get the number of cached entries, including cached misses.
+     *
+     * @return the number of cached entries.
+     */
+    int getCachedEntries() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Get the estimated size of cached entries in bytes.
+     *
+     * @return the estimated size of cached entries in bytes.
+     */
+    long getCachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Fetch secret value from Azure Key Vault.
+     *
+     * @param secretName Secret name.
+     * @return Secret value if the exact or remapped secret name exists; otherwise, empty.
+     * @throws RuntimeException if Azure Key Vault cannot be reached, which must not be cached as a miss.
+     */
+    private Optional<String> fetchValue(String secretName) {
+        // Try exact match first
+        Optional<String> value = tryFetchValue(secretName);
+        if (value.isPresent()) {
+            return value;
+        }
+
+        // Try remapped key (replace non-alphanumeric/dash characters with dash)
+        String remappedSecretName = AzureKeyVaultOperation.toKeyVaultSecretName(secretName);
+        if (!remappedSecretName.equals(secretName)) {
+            return tryFetchValue(remappedSecretName);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Try to fetch secret value from Azure Key Vault.
+     *
+     * @param secretName Secret name.
+     * @return Secret value if secretName is valid and exists; otherwise, empty.
+     */
+    private Optional<String> tryFetchValue(String secretName) {
+        if (!secretNameFilter.test(secretName)) {
+            LOGGER.log(LogLevel.VERBOSE, () -> MessageFormat.format("tryFetchValue() skipped: secretName {0} does not match regex {1}",
+                    secretName, secretNameRegex));
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.ofNullable(secretFetcher.getSecretValue(secretName));
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Get the cache key of a property name, which is shared by the property names remapped to the same secret.
+     *
+     * @param propertyName Property name.
+     * @return the lower case Key Vault secret name, since Azure Key Vault secret names are case-insensitive.
+     */
+    private static String toCacheKey(String propertyName) {
+        return AzureKeyVaultOperation.toKeyVaultSecretName(propertyName).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Put an entry into the cache, evicting the least recently used entries beyond the bounds.
+     *
+     * @param cacheKey the cache key of the secret.
+     * @param entry    the entry to cache.
+     * @return the replaced entry, null if the secret was not cached.
+     */
+    private CacheEntry put(String cacheKey, CacheEntry entry) {
+        if (entry.sizeInBytes > maxBytes) {
+            return null;
+        }
+
+        synchronized (cache) {
+            CacheEntry replaced = cache.put(cacheKey, entry);
+            if (replaced != null) {
+                cachedBytes -= replaced.sizeInBytes;
+            }
+            cachedBytes += entry.sizeInBytes;
+
+            Iterator<CacheEntry> leastRecentlyUsed = cache.values().iterator();
+            while ((cache.size() > maxEntries || cachedBytes > maxBytes) && leastRecentlyUsed.hasNext()) {
+                cachedBytes -= leastRecentlyUsed.next().sizeInBytes;
+                leastRecentlyUsed.remove();
+            }
+            return replaced;
+        }
+    }
+
+    /**
+     * Convert a cached value to a name/value {@link Map}, so changes of the entry can be published.
+     *
+     * @param secretName Secret name.
+     * @param value      the cached value, null for a miss.
+     * @return the name/value {@link Map}, empty for a miss.
+     */
+    private static Map<String, String> toMap(String secretName, String value) {
+        return value == null ? Collections.emptyMap() : Collections.singletonMap(secretName, value);
+    }
+
+    /**
+     * Cached secret value or miss.
+     */
+    private static final class CacheEntry {
+        private final String value;
+        private final long expiresAtInMs;
+        private final long sizeInBytes;
+
+        private CacheEntry(String value, long expiresAtInMs, String cacheKey) {
+            this.value = value;
+            this.expiresAtInMs = expiresAtInMs;
+            this.sizeInBytes = (long) (cacheKey.length() + (value == null ? 0 : value.length())) * Character.BYTES;
+        }
+    }
+}
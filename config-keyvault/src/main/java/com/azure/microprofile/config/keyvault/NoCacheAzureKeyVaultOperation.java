@@ -10,30 +10,42 @@ import com.azure.security.keyvault.secrets.models.SecretProperties;
 
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * This class is used to fetch the secrets from Azure Key Vault.
  *
  * <ul>
  *     <li>It does not cache the secrets. It fetches the secrets from Azure Key Vault every time.</li>
+ *     <li>
+ *         Concurrent lookups of the same secret share one outstanding call to Azure Key Vault and its result, including a missing secret,
+ *         so a burst of lookups of a secret costs one transaction.
+ *     </li>
  *     <li>A secret name regular expression is used to filter out invalid secret names to reduce unnecessary calls to Azure Key Vault.</li>
  *     <li>The default value of the secret name regular expression is "^[0-9a-zA-Z-]+$".</li>
+ *     <li>All secrets are fetched concurrently by {@link SecretFetcher} when all properties are requested.</li>
  * </ul>
  */
 class NoCacheAzureKeyVaultOperation implements AzureKeyVaultOperation {
-    private static final String DEFAULT_SECRET_NAME_REGEX = "^[0-9a-zA-Z-]+$";
     private static final ClientLogger LOGGER = new ClientLogger(NoCacheAzureKeyVaultOperation.class);
     private final String secretNameRegex;
-    private final SecretClient secretKeyVaultClient;
+    private final Predicate<String> secretNameFilter;
+    private final SecretFetcher secretFetcher;
+    private final PinnedSecretCache pinnedSecrets;
+    private final Map<String, CompletableFuture<String>> inFlightLookups = new ConcurrentHashMap<>();
 
     /**
      * Constructor of NoCacheAzureKeyVaultOperation.
      *
-     * @param url   URL of Azure Key Vault
-     * @param regex secret name regular expression
+     * @param url     URL of Azure Key Vault
+     * @param options options of the operation
      */
-    NoCacheAzureKeyVaultOperation(String url, String regex) {
-        this(AzureKeyVaultOperation.defaultSecretKeyVaultClient(url), Optional.ofNullable(regex).orElse(DEFAULT_SECRET_NAME_REGEX));
+    NoCacheAzureKeyVaultOperation(String url, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(url, options), options);
+        secretFetcher.getMetrics().register(url, AzureKeyVaultConfigSource.CACHE_MODE_NONE, options);
     }
 
     /**
@@ -43,8 +55,30 @@ class NoCacheAzureKeyVaultOperation implements AzureKeyVaultOperation {
      * @param secretNameRegex      secret name regular expression
      */
     NoCacheAzureKeyVaultOperation(SecretClient secretKeyVaultClient, String secretNameRegex) {
-        this.secretKeyVaultClient = secretKeyVaultClient;
-        this.secretNameRegex = secretNameRegex;
+        this(secretKeyVaultClient, new AzureKeyVaultOptions().setSecretNameRegex(secretNameRegex));
+    }
+
+    /**
+     * Constructor of NoCacheAzureKeyVaultOperation.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param options              options of the operation
+     */
+    NoCacheAzureKeyVaultOperation(SecretClient secretKeyVaultClient, AzureKeyVaultOptions options) {
+        this(new SecretFetcher(secretKeyVaultClient, options), options);
+    }
+
+    /**
+     * Constructor of NoCacheAzureKeyVaultOperation.
+     *
+     * @param secretFetcher fetcher of the secrets from Azure Key Vault
+     * @param options       options of the operation
+     */
+    NoCacheAzureKeyVaultOperation(SecretFetcher secretFetcher, AzureKeyVaultOptions options) {
+        this.secretFetcher = secretFetcher;
+        this.pinnedSecrets = new PinnedSecretCache(secretFetcher, options);
+        this.secretNameRegex = Optional.ofNullable(options.getSecretNameRegex()).orElse(DEFAULT_SECRET_NAME_REGEX);
+        this.secretNameFilter = AzureKeyVaultOperation.secretNameFilter(secretNameRegex);
     }
 
     /**
@@ -54,10 +88,8 @@ class NoCacheAzureKeyVaultOperation implements AzureKeyVaultOperation {
      */
     public Map<String, String> getProperties() {
         Map<String, String> propertiesMap = new HashMap<>();
-        secretKeyVaultClient.listPropertiesOfSecrets()
-                .stream()
-                .map(SecretProperties::getName)
-                .forEach(prop -> propertiesMap.put(prop, secretKeyVaultClient.getSecret(prop).getValue()));
+        secretFetcher.getSecrets(secretFetcher.listSecretProperties().map(SecretProperties::getName))
+                .forEach((prop, secret) -> propertiesMap.put(prop, secret.getValue()));
 
         return propertiesMap;
     }
@@ -69,8 +101,7 @@ class NoCacheAzureKeyVaultOperation implements AzureKeyVaultOperation {
      */
     public Set<String> getPropertyNames() {
         Set<String> keysSet = new TreeSet<>();
-        secretKeyVaultClient.listPropertiesOfSecrets()
-                .stream()
+        secretFetcher.listSecretProperties()
                 .map(SecretProperties::getName)
                 .forEach(keysSet::add);
 
@@ -87,20 +118,29 @@ class NoCacheAzureKeyVaultOperation implements AzureKeyVaultOperation {
         if (secretName == null) {
             return null;
         }
-
-        // Try exact match first
-        String value = tryGetValue(secretName);
-        if (value != null) {
-            return value;
+        if (pinnedSecrets.isPinned(secretName)) {
+            return pinnedSecrets.getValue(secretName);
         }
 
-        // Try remapped key (replace non-alphanumeric/dash characters with dash)
-        String remappedSecretName = AzureKeyVaultOperation.toKeyVaultSecretName(secretName);
-        if (!remappedSecretName.equals(secretName)) {
-            return tryGetValue(remappedSecretName);
-        }
+        KeyVaultEvents.LookupStallEvent stall = new KeyVaultEvents.LookupStallEvent();
+        stall.begin();
+        try {
+            // Try exact match first
+            String value = tryGetValue(secretName);
+            if (value != null) {
+                return value;
+            }
+
+            // Try remapped key (replace non-alphanumeric/dash characters with dash)
+            String remappedSecretName = AzureKeyVaultOperation.toKeyVaultSecretName(secretName);
+            if (!remappedSecretName.equals(secretName)) {
+                return tryGetValue(remappedSecretName);
+            }
 
-        return null;
+            return null;
+        } finally {
+            KeyVaultEvents.commit(stall, secretFetcher.getVaultUrl(), secretName, KeyVaultEvents.CAUSE_REMOTE);
+        }
     }
 
     /**
@@ -112,18 +152,53 @@ class NoCacheAzureKeyVaultOperation implements AzureKeyVaultOperation {
     private String tryGetValue(String secretName) {
         // Check if secretName is valid using regex secretNameRegex
         // The goal is to bypass unnecessary calls to Azure Key Vault especially there are lots of properties from other sources
-        if (!secretName.matches(secretNameRegex)) {
+        if (!secretNameFilter.test(secretName)) {
             LOGGER.log(LogLevel.VERBOSE, () -> MessageFormat.format("tryGetValue() failed with exception: secretName {0} does not match regex {1}",
                     secretName, secretNameRegex));
             return null;
         }
 
         try {
-            return secretKeyVaultClient.getSecret(secretName).getValue();
+            return fetchValue(secretName);
         } catch (Exception e) {
             LOGGER.log(LogLevel.INFORMATIONAL, () -> "tryGetValue() failed with exception: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Fetch secret value from Azure Key Vault, or join the fetch of the same secret which is already outstanding.
+     *
+     * @param secretName Secret name.
+     * @return Secret value if the secret is selected; otherwise, null.
+     * @implNote The fetch is only shared while it is outstanding, a lookup which starts after it completed fetches the secret again.
+     * Failures, such as a missing secret, are shared with the joined lookups as well.
+     */
+    private String fetchValue(String secretName) {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        CompletableFuture<String> inFlightLookup = inFlightLookups.putIfAbsent(secretName, lookup);
+        if (inFlightLookup != null) {
+            try {
+                return inFlightLookup.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            String value = secretFetcher.getSecretValue(secretName);
+            lookup.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors must complete the lookup as well, or the callers which joined it would wait forever
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLookups.remove(secretName, lookup);
+        }
+    }
+
 }
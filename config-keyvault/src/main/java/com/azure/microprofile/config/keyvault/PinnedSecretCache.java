@@ -0,0 +1,127 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is used to cache the values of version-pinned secret references, such as {@code my-secret/0123456789abcdef0123456789abcdef}.
+ *
+ * <ul>
+ *     <li>
+ *         A property name is a version-pinned reference if it ends with the separator and a version, which Azure Key Vault generates as
+ *         32 hexadecimal digits. The separator defaults to "/". Other property names, such as {@code app/config}, are looked up as before.
+ *     </li>
+ *     <li>
+ *         Secret versions are immutable in Azure Key Vault, so their values are cached permanently, in a tier which no refresh, expiry,
+ *         eviction or change event touches. A pinned reference calls Azure Key Vault once per version.
+ *     </li>
+ *     <li>The secret name part of a reference is remapped like any property name, so {@code my.secret/<version>} reads {@code my-secret}.</li>
+ *     <li>Versions which are not found, or cannot be fetched, are not cached, so a later lookup tries again.</li>
+ * </ul>
+ */
+final class PinnedSecretCache {
+    private static final ClientLogger LOGGER = new ClientLogger(PinnedSecretCache.class);
+    static final String DEFAULT_VERSION_SEPARATOR = "/";
+    private static final int VERSION_LENGTH = 32;
+
+    private final SecretFetcher secretFetcher;
+    private final String separator;
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor of PinnedSecretCache.
+     *
+     * @param secretFetcher fetcher of the secrets
+     * @param options       options of the operation
+     */
+    PinnedSecretCache(SecretFetcher secretFetcher, AzureKeyVaultOptions options) {
+        this.secretFetcher = secretFetcher;
+        this.separator = Optional.ofNullable(options.getSecretVersionSeparator()).orElse(DEFAULT_VERSION_SEPARATOR);
+    }
+
+    /**
+     * Check whether a property name is a version-pinned secret reference.
+     *
+     * @param propertyName the property name.
+     * @return true if the property name is a secret name followed by the separator and a version; otherwise, false.
+     * @implNote Property names are checked without allocation, since every lookup of the config source checks them.
+     */
+    boolean isPinned(String propertyName) {
+        int index = propertyName.length() - VERSION_LENGTH - separator.length();
+        if (separator.isEmpty() || index <= 0 || !propertyName.startsWith(separator, index)) {
+            return false;
+        }
+        return endsWithVersion(propertyName);
+    }
+
+    /**
+     * Check whether a property name ends with a secret version, so it may be a version-pinned secret reference whatever the separator.
+     *
+     * @param propertyName the property name.
+     * @return true if the property name ends with 32 hexadecimal digits; otherwise, false.
+     */
+    static boolean endsWithVersion(String propertyName) {
+        if (propertyName.length() <= VERSION_LENGTH) {
+            return false;
+        }
+        for (int i = propertyName.length() - VERSION_LENGTH; i < propertyName.length(); i++) {
+            char c = propertyName.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the value of a version-pinned secret reference, from the cache or from Azure Key Vault on first use.
+     *
+     * @param propertyName the property name, see {@link #isPinned(String)}.
+     * @return the value of the secret version if it exists and is selected by the filter; otherwise, null.
+     */
+    String getValue(String propertyName) {
+        String value = values.get(propertyName);
+        if (value != null) {
+            secretFetcher.getMetrics().recordHit(false);
+            return value;
+        }
+        secretFetcher.getMetrics().recordMiss();
+
+        int index = propertyName.length() - VERSION_LENGTH - separator.length();
+        String secretName = AzureKeyVaultOperation.toKeyVaultSecretName(propertyName.substring(0, index));
+        String version = propertyName.substring(index + separator.length());
+        KeyVaultEvents.LookupStallEvent stall = new KeyVaultEvents.LookupStallEvent();
+        stall.begin();
+        try {
+            KeyVaultSecret secret = secretFetcher.getSelectedSecret(secretName, version);
+            if (secret == null || secret.getValue() == null) {
+                return null;
+            }
+            // Versions are immutable, so concurrent first lookups which both fetched agree on the value
+            values.putIfAbsent(propertyName, secret.getValue());
+            return secret.getValue();
+        } catch (Exception e) {
+            LOGGER.log(LogLevel.INFORMATIONAL, () -> "getValue() failed with exception: " + e.getMessage());
+            return null;
+        } finally {
+            KeyVaultEvents.commit(stall, secretFetcher.getVaultUrl(), propertyName, KeyVaultEvents.CAUSE_REMOTE);
+        }
+    }
+
+    /**
+     * Get the number of cached secret versions.
+     *
+     * @return the number of cached secret versions.
+     */
+    int size() {
+        return values.size();
+    }
+}
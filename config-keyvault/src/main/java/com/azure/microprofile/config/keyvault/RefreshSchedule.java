@@ -0,0 +1,146 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class is used to schedule the refreshes of a cache, so the instances of a deployment don't refresh in lockstep.
+ *
+ * <ul>
+ *     <li>
+ *         Each load expires up to jitter times the TTL early, so instances which started together spread their refreshes over the
+ *         jitter window. The default jitter is 0, which expires every load after exactly the TTL.
+ *     </li>
+ *     <li>
+ *         If an instance id is set, such as the pod name, the offset within the jitter window is derived from it, so the instances are
+ *         spread evenly and deterministically. Otherwise, a random offset is drawn for every load.
+ *     </li>
+ *     <li>
+ *         After a failed refresh, the next one is only attempted after a backoff, which starts at retryBackoffInMs and doubles on every
+ *         consecutive failure up to maxRetryBackoffInMs. A successful refresh resets it.
+ *     </li>
+ * </ul>
+ */
+final class RefreshSchedule {
+    private static final ClientLogger LOGGER = new ClientLogger(RefreshSchedule.class);
+    private static final long DEFAULT_RETRY_BACKOFF_IN_MS = 1000L; // 1 second
+    private static final long DEFAULT_MAX_RETRY_BACKOFF_IN_MS = 60000L; // 1 minute
+
+    private final long cacheRefreshIntervalInMs;
+    private final long maxJitterInMs;
+    private final double instanceOffset;
+    private final long retryBackoffInMs;
+    private final long maxRetryBackoffInMs;
+
+    private volatile long jitterInMs;
+    private volatile long retryAtInMs;
+    private volatile RuntimeException lastFailure;
+    private int consecutiveFailures;
+
+    /**
+     * Constructor of RefreshSchedule.
+     *
+     * @param cacheRefreshIntervalInMs TTL of the cache in milliseconds
+     * @param options                  options of the operation
+     */
+    RefreshSchedule(long cacheRefreshIntervalInMs, AzureKeyVaultOptions options) {
+        double jitter = Optional.ofNullable(options.getCacheJitter()).orElse(0.0);
+        if (jitter < 0 || jitter > 1) {
+            throw LOGGER.logExceptionAsError(new IllegalArgumentException("The value of '" + AzureKeyVaultOptions.CACHE_JITTER
+                    + "' must be between 0 and 1, but was " + jitter + "."));
+        }
+
+        this.cacheRefreshIntervalInMs = cacheRefreshIntervalInMs;
+        this.maxJitterInMs = (long) (cacheRefreshIntervalInMs * jitter);
+        this.instanceOffset = toInstanceOffset(options.getCacheInstanceId());
+        this.retryBackoffInMs = Math.max(0, Optional.ofNullable(options.getCacheRetryBackoffInMs()).orElse(DEFAULT_RETRY_BACKOFF_IN_MS));
+        this.maxRetryBackoffInMs = Math.max(retryBackoffInMs,
+                Optional.ofNullable(options.getCacheMaxRetryBackoffInMs()).orElse(DEFAULT_MAX_RETRY_BACKOFF_IN_MS));
+        this.jitterInMs = nextJitterInMs();
+    }
+
+    /**
+     * Get the time-to-live of the current load, which is the TTL shortened by its jitter.
+     *
+     * @return the time-to-live of the current load in milliseconds.
+     */
+    long getTimeToLiveInMs() {
+        return cacheRefreshIntervalInMs - jitterInMs;
+    }
+
+    /**
+     * Get the failure of the last refresh while its backoff lasts.
+     *
+     * @return the failure of the last refresh if the next one must not be attempted yet; otherwise, null.
+     */
+    RuntimeException getBackoffFailure() {
+        RuntimeException failure = lastFailure;
+        return failure != null && System.currentTimeMillis() < retryAtInMs ? failure : null;
+    }
+
+    /**
+     * Get the time until the backoff of the last failed refresh ends.
+     *
+     * @return the remaining backoff in milliseconds; 0 if the next refresh may be attempted now.
+     */
+    long getBackoffDelayInMs() {
+        return lastFailure == null ? 0 : Math.max(0, retryAtInMs - System.currentTimeMillis());
+    }
+
+    /**
+     * Record a successful load, which resets the backoff and draws the jitter of the new load.
+     *
+     * @implNote The caller must hold the refresh lock of the operation.
+     */
+    void onLoaded() {
+        consecutiveFailures = 0;
+        lastFailure = null;
+        retryAtInMs = 0;
+        jitterInMs = nextJitterInMs();
+    }
+
+    /**
+     * Record a failed refresh, which backs off the next one.
+     *
+     * @param failure the failure.
+     * @implNote The caller must hold the refresh lock of the operation.
+     */
+    void onFailed(RuntimeException failure) {
+        consecutiveFailures++;
+        long backoffInMs = Math.min(maxRetryBackoffInMs, retryBackoffInMs << Math.min(consecutiveFailures - 1, 30));
+        retryAtInMs = System.currentTimeMillis() + backoffInMs;
+        lastFailure = failure;
+        LOGGER.log(LogLevel.VERBOSE, () -> "onFailed() backs off the next refresh for " + backoffInMs + " ms after " + consecutiveFailures + " consecutive failures");
+    }
+
+    private long nextJitterInMs() {
+        if (maxJitterInMs == 0) {
+            return 0;
+        }
+        double offset = Double.isNaN(instanceOffset) ? ThreadLocalRandom.current().nextDouble() : instanceOffset;
+        return (long) (maxJitterInMs * offset);
+    }
+
+    /**
+     * Map an instance id to an offset within the jitter window.
+     *
+     * @param instanceId the instance id, such as the pod name.
+     * @return the offset in [0, 1), which is uniformly distributed over instance ids; NaN if the instance id is not set.
+     */
+    static double toInstanceOffset(String instanceId) {
+        if (instanceId == null || instanceId.isEmpty()) {
+            return Double.NaN;
+        }
+        // Name-based UUIDs are digests, so similar pod names get unrelated offsets. The top 2 bits hold the UUID variant.
+        long bits = UUID.nameUUIDFromBytes(instanceId.getBytes(StandardCharsets.UTF_8)).getLeastSignificantBits() << 2;
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,226 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.json.JsonProviders;
+import com.azure.json.JsonReader;
+import com.azure.json.JsonToken;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is used to expand a structured secret, which holds the configuration of a whole component, into many config properties.
+ *
+ * <ul>
+ *     <li>
+ *         Secrets with the content type {@code application/json} hold a JSON object, whose nested fields are joined with dots, and whose arrays
+ *         of values are joined with commas. Secrets with the content type {@code text/x-java-properties} hold a {@code .properties} file.
+ *     </li>
+ *     <li>The expanded properties are prefixed with the secret name and a dot, unless expansionPrefixed is false.</li>
+ *     <li>
+ *         A secret is parsed once per version, its expanded properties are reused as long as its version and update time are unchanged,
+ *         like {@link SecretsSnapshot#getValueIfUnchanged(SecretProperties)} reuses its value.
+ *     </li>
+ *     <li>A secret which cannot be parsed is not expanded, and is only served as is.</li>
+ * </ul>
+ */
+final class SecretExpander {
+    private static final ClientLogger LOGGER = new ClientLogger(SecretExpander.class);
+    static final String CONTENT_TYPE_JSON = "application/json";
+    static final String CONTENT_TYPE_PROPERTIES = "text/x-java-properties";
+
+    private final boolean enabled;
+    private final boolean prefixed;
+
+    /**
+     * Expanded properties of the secrets by secret name.
+     */
+    private final Map<String, Expansion> expansions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor of SecretExpander.
+     *
+     * @param options options of the operation
+     */
+    SecretExpander(AzureKeyVaultOptions options) {
+        this.enabled = Optional.ofNullable(options.getExpansionEnabled()).orElse(Boolean.FALSE);
+        this.prefixed = Optional.ofNullable(options.getExpansionPrefixed()).orElse(Boolean.TRUE);
+    }
+
+    /**
+     * Check whether structured secrets are expanded.
+     *
+     * @return true if structured secrets are expanded; otherwise, false.
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Expand a secret into config properties.
+     *
+     * @param properties {@link SecretProperties} of the secret.
+     * @param value      value of the secret.
+     * @return Unmodifiable name/value {@link Map} of the expanded properties; empty if the secret is not structured or cannot be parsed.
+     */
+    Map<String, String> expand(SecretProperties properties, String value) {
+        String contentType = toMediaType(properties.getContentType());
+        if (!enabled || value == null || contentType == null) {
+            return Collections.emptyMap();
+        }
+
+        String secretName = properties.getName();
+        String stamp = toStamp(properties);
+        Expansion cached = expansions.get(secretName);
+        if (cached != null && stamp != null && stamp.equals(cached.stamp)) {
+            return cached.properties;
+        }
+
+        Map<String, String> expanded;
+        try {
+            expanded = CONTENT_TYPE_JSON.equals(contentType) ? parseJson(value) : parseProperties(value);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "expand() failed to parse secret " + secretName + " of content type " + contentType
+                    + ", which is not expanded: " + e.getMessage());
+            expanded = Collections.emptyMap();
+        }
+
+        Map<String, String> prefixedProperties = new HashMap<>();
+        expanded.forEach((key, expandedValue) -> prefixedProperties.put(prefixed ? secretName + "." + key : key, expandedValue));
+        Map<String, String> result = Collections.unmodifiableMap(prefixedProperties);
+        expansions.put(secretName, new Expansion(stamp, result));
+        return result;
+    }
+
+    /**
+     * Get the properties a secret was last expanded into.
+     *
+     * @param secretName Secret name.
+     * @return Unmodifiable name/value {@link Map} of the expanded properties; empty if the secret has not been expanded.
+     */
+    Map<String, String> getExpanded(String secretName) {
+        Expansion cached = expansions.get(secretName);
+        return cached == null ? Collections.emptyMap() : cached.properties;
+    }
+
+    /**
+     * Forget the expansions of the secrets which don't exist anymore.
+     *
+     * @param secretNames names of the existing secrets.
+     */
+    void retain(Set<String> secretNames) {
+        expansions.keySet().retainAll(secretNames);
+    }
+
+    /**
+     * Get the stamp which identifies a version of a secret.
+     *
+     * @param properties {@link SecretProperties} of the secret.
+     * @return the version and update time of the secret; null if it has neither, in which case it is always parsed again.
+     * @implNote Listed secrets have no version, only an update time.
+     */
+    private static String toStamp(SecretProperties properties) {
+        if (properties.getVersion() == null && properties.getUpdatedOn() == null) {
+            return null;
+        }
+        return properties.getVersion() + "@" + properties.getUpdatedOn();
+    }
+
+    /**
+     * Get the media type of a content type, if it is expanded.
+     *
+     * @param contentType the content type, possibly with parameters such as {@code charset}.
+     * @return {@link #CONTENT_TYPE_JSON} or {@link #CONTENT_TYPE_PROPERTIES}; null if the content type is not expanded.
+     */
+    private static String toMediaType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        String mediaType = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        return CONTENT_TYPE_JSON.equals(mediaType) || CONTENT_TYPE_PROPERTIES.equals(mediaType) ? mediaType : null;
+    }
+
+    private static Map<String, String> parseProperties(String value) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(value));
+        Map<String, String> expanded = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> expanded.put(key, properties.getProperty(key)));
+        return expanded;
+    }
+
+    private static Map<String, String> parseJson(String value) throws IOException {
+        try (JsonReader reader = JsonProviders.createReader(value)) {
+            if (reader.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("The secret is not a JSON object.");
+            }
+            Map<String, String> expanded = new HashMap<>();
+            readJson(reader, null, expanded);
+            return expanded;
+        }
+    }
+
+    /**
+     * Read the current JSON value into flattened properties.
+     *
+     * @param reader   the reader, positioned on the value.
+     * @param key      the flattened key of the value, null for the root object.
+     * @param expanded the flattened properties.
+     * @throws IOException if the JSON cannot be read.
+     */
+    private static void readJson(JsonReader reader, String key, Map<String, String> expanded) throws IOException {
+        JsonToken token = reader.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (reader.nextToken() != JsonToken.END_OBJECT) {
+                String fieldName = reader.getFieldName();
+                reader.nextToken();
+                readJson(reader, key == null ? fieldName : key + "." + fieldName, expanded);
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            // Arrays of values are lists in MicroProfile Config, nested objects and arrays are indexed instead
+            List<String> values = new ArrayList<>();
+            int index = 0;
+            while (reader.nextToken() != JsonToken.END_ARRAY) {
+                if (reader.isStartArrayOrObject()) {
+                    readJson(reader, key + "[" + index + "]", expanded);
+                } else if (reader.currentToken() != JsonToken.NULL) {
+                    values.add(reader.getText().replace(",", "\\,"));
+                }
+                index++;
+            }
+            if (!values.isEmpty()) {
+                expanded.put(key, String.join(",", values));
+            }
+        } else if (token != JsonToken.NULL) {
+            expanded.put(key, reader.getText());
+        }
+    }
+
+    /**
+     * Expanded properties of a version of a secret.
+     */
+    private static final class Expansion {
+        private final String stamp;
+        private final Map<String, String> properties;
+
+        private Expansion(String stamp, Map<String, String> properties) {
+            this.stamp = stamp;
+            this.properties = properties;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import com.azure.microprofile.config.keyvault.VaultRequestScheduler.Priority;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class is used to call Azure Key Vault on behalf of the operations.
+ *
+ * <ul>
+ *     <li>Secrets are fetched concurrently, at most parallelism calls are outstanding at a time.</li>
+ *     <li>Fetching starts as soon as a secret name is listed, while later listing pages are still being retrieved.</li>
+ *     <li>The default value of parallelism is 8. If parallelism is 1, secrets are fetched one by one on the caller thread.</li>
+ *     <li>
+ *         Fetches run on a bounded pool of platform threads, or on virtual threads if the fetch threads are {@code virtual} and the JDK
+ *         supports them (JDK 21+). Virtual threads don't hold a platform thread while they wait on Azure Key Vault, so parallelism can be
+ *         raised cheaply. On older JDKs, the platform pool is used.
+ *     </li>
+ *     <li>
+ *         Every call is scheduled by {@link VaultRequestScheduler} within the transaction budget of the vault. Lookups of single secrets
+ *         are interactive calls, listing and fetching many secrets are bulk calls.
+ *     </li>
+ *     <li>Only the secrets selected by {@link SecretFilter} are listed and fetched.</li>
+ * </ul>
+ */
+final class SecretFetcher {
+    private static final ClientLogger LOGGER = new ClientLogger(SecretFetcher.class);
+    static final String FETCH_THREADS_PLATFORM = "platform";
+    static final String FETCH_THREADS_VIRTUAL = "virtual";
+    private static final String FETCH_THREAD_NAME = "azure-keyvault-secret-fetch";
+    private static final int DEFAULT_PARALLELISM = 8;
+    private static final long IDLE_THREAD_TIMEOUT_IN_MS = 60000L; // 1 minute
+    private final SecretClient secretKeyVaultClient;
+    private final int parallelism;
+    private final Executor executor;
+    private final VaultRequestScheduler scheduler;
+    private final SecretFilter filter;
+    private final AzureKeyVaultMetrics metrics;
+
+    /**
+     * Constructor of SecretFetcher, which creates the default SecretClient of Azure Key Vault.
+     *
+     * @param url     URL of Azure Key Vault
+     * @param options options of the operation
+     */
+    SecretFetcher(String url, AzureKeyVaultOptions options) {
+        this(new VaultRequestScheduler(options.getTransactionBudget()), url, options);
+    }
+
+    /**
+     * Constructor of SecretFetcher.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param options              options of the operation
+     * @implNote Throttled calls, listing pages after the first one and retries are only accounted by the policy of
+     * {@link VaultRequestScheduler#newThrottlingPolicy()}, which the SecretClient doesn't have, so they are not honored by the scheduler.
+     */
+    SecretFetcher(SecretClient secretKeyVaultClient, AzureKeyVaultOptions options) {
+        this(secretKeyVaultClient, options.getFetchParallelism(), new VaultRequestScheduler(options.getTransactionBudget()), new SecretFilter(options),
+                options.getFetchThreads());
+    }
+
+    /**
+     * Constructor of SecretFetcher.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param parallelism          maximum number of secrets fetched concurrently
+     */
+    SecretFetcher(SecretClient secretKeyVaultClient, Integer parallelism) {
+        this(secretKeyVaultClient, parallelism, new VaultRequestScheduler(null));
+    }
+
+    private SecretFetcher(VaultRequestScheduler scheduler, String url, AzureKeyVaultOptions options) {
+        this(AzureKeyVaultOperation.defaultSecretKeyVaultClient(url, AzureKeyVaultCredentials.create(options), scheduler.newThrottlingPolicy()),
+                options.getFetchParallelism(), scheduler, new SecretFilter(options), options.getFetchThreads());
+    }
+
+    /**
+     * Constructor of SecretFetcher.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param parallelism          maximum number of secrets fetched concurrently
+     * @param scheduler            scheduler of the calls to Azure Key Vault
+     */
+    SecretFetcher(SecretClient secretKeyVaultClient, Integer parallelism, VaultRequestScheduler scheduler) {
+        this(secretKeyVaultClient, parallelism, scheduler, new SecretFilter(new AzureKeyVaultOptions()));
+    }
+
+    /**
+     * Constructor of SecretFetcher.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param parallelism          maximum number of secrets fetched concurrently
+     * @param scheduler            scheduler of the calls to Azure Key Vault
+     * @param filter               filter of the secrets which are read
+     */
+    SecretFetcher(SecretClient secretKeyVaultClient, Integer parallelism, VaultRequestScheduler scheduler, SecretFilter filter) {
+        this(secretKeyVaultClient, parallelism, scheduler, filter, null);
+    }
+
+    /**
+     * Constructor of SecretFetcher.
+     *
+     * @param secretKeyVaultClient SecretClient of Azure Key Vault
+     * @param parallelism          maximum number of secrets fetched concurrently
+     * @param scheduler            scheduler of the calls to Azure Key Vault
+     * @param filter               filter of the secrets which are read
+     * @param threads              threads which fetch the secrets, {@code platform} or {@code virtual}
+     */
+    SecretFetcher(SecretClient secretKeyVaultClient, Integer parallelism, VaultRequestScheduler scheduler, SecretFilter filter, String threads) {
+        this.secretKeyVaultClient = secretKeyVaultClient;
+        this.parallelism = Math.max(1, Optional.ofNullable(parallelism).orElse(DEFAULT_PARALLELISM));
+        this.scheduler = scheduler;
+        this.filter = filter;
+        this.metrics = new AzureKeyVaultMetrics(scheduler);
+
+        String fetchThreads = Optional.ofNullable(threads).orElse(FETCH_THREADS_PLATFORM);
+        if (!FETCH_THREADS_PLATFORM.equals(fetchThreads) && !FETCH_THREADS_VIRTUAL.equals(fetchThreads)) {
+            throw LOGGER.logExceptionAsError(new IllegalArgumentException("Unsupported value '" + fetchThreads + "' of 'azure.keyvault.fetch.threads', supported values are '"
+                    + FETCH_THREADS_PLATFORM + "' and '" + FETCH_THREADS_VIRTUAL + "'."));
+        }
+
+        ThreadFactory virtualThreadFactory = FETCH_THREADS_VIRTUAL.equals(fetchThreads) ? newVirtualThreadFactory(FETCH_THREAD_NAME + "-") : null;
+        if (this.parallelism > 1 && virtualThreadFactory != null) {
+            // A virtual thread per fetch, which waits for a permit without holding a platform thread
+            Semaphore permits = new Semaphore(this.parallelism);
+            this.executor = runnable -> virtualThreadFactory.newThread(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    runnable.run();
+                } finally {
+                    permits.release();
+                }
+            }).start();
+        } else if (this.parallelism > 1) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(this.parallelism, this.parallelism,
+                    IDLE_THREAD_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, FETCH_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Create a factory of virtual threads, if the JDK supports them.
+     *
+     * @param namePrefix prefix of the names of the threads, which are numbered
+     * @return the factory of virtual threads; null if the JDK doesn't support them, such as JDK 17, or only as a preview feature which is disabled.
+     * @implNote The factory is created by reflection, so the library keeps running on JDKs older than 21.
+     */
+    static ThreadFactory newVirtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(LogLevel.INFORMATIONAL, () -> "Virtual threads are not supported by this JDK, secrets are fetched on platform threads.");
+            return null;
+        }
+    }
+
+    /**
+     * Get the maximum number of secrets fetched concurrently.
+     *
+     * @return the maximum number of secrets fetched concurrently.
+     */
+    int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Get the metrics of the calls to Azure Key Vault, which the operation records its lookups and refreshes to as well.
+     *
+     * @return the metrics.
+     */
+    AzureKeyVaultMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the URL of Azure Key Vault.
+     *
+     * @return the URL of Azure Key Vault; empty if the client has none.
+     */
+    String getVaultUrl() {
+        return Optional.ofNullable(secretKeyVaultClient.getVaultUrl()).orElse("");
+    }
+
+    /**
+     * List properties of the secrets in Azure Key Vault which are selected by the filter.
+     *
+     * @return lazily paged {@link Stream} of secret properties.
+     * @implNote Azure Key Vault cannot filter the listing, so the filter is applied to the listed properties, before any value is fetched.
+     * The first page takes a bulk token here, the later pages take theirs in the policy of {@link VaultRequestScheduler#newThrottlingPolicy()}.
+     */
+    Stream<SecretProperties> listSecretProperties() {
+        scheduler.acquire(Priority.BULK);
+        long startInNanos = System.nanoTime();
+        KeyVaultEvents.VaultCallEvent event = new KeyVaultEvents.VaultCallEvent();
+        event.begin();
+        Spliterator<SecretProperties> listed;
+        try {
+            listed = secretKeyVaultClient.listPropertiesOfSecrets().stream().spliterator();
+        } catch (RuntimeException e) {
+            commit(event, "list", null, Priority.BULK, false);
+            throw e;
+        }
+
+        // Pages are retrieved while the stream is consumed, so the listing is recorded once the last page has been consumed
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<SecretProperties>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private boolean recorded;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super SecretProperties> action) {
+                boolean advanced;
+                try {
+                    advanced = listed.tryAdvance(action);
+                } catch (RuntimeException e) {
+                    if (!recorded) {
+                        recorded = true;
+                        commit(event, "list", null, Priority.BULK, false);
+                    }
+                    throw e;
+                }
+                if (!advanced && !recorded) {
+                    recorded = true;
+                    metrics.recordListCall(startInNanos);
+                    commit(event, "list", null, Priority.BULK, true);
+                }
+                return advanced;
+            }
+        }, false).filter(filter::test);
+    }
+
+    /**
+     * Get the latest value of a secret from Azure Key Vault for a lookup, if the secret is selected by the filter.
+     *
+     * @param secretName Secret name.
+     * @return the secret value if the secret is selected; otherwise, null.
+     * @implNote A secret name which is not selected is not looked up. The properties of a fetched secret are checked as well,
+     * since a lookup doesn't list them first.
+     */
+    String getSecretValue(String secretName) {
+        KeyVaultSecret secret = getSelectedSecret(secretName);
+        return secret == null ? null : secret.getValue();
+    }
+
+    /**
+     * Get the latest version of a secret from Azure Key Vault for a lookup, if the secret is selected by the filter.
+     *
+     * @param secretName Secret name.
+     * @return the secret if it is selected; otherwise, null.
+     */
+    KeyVaultSecret getSelectedSecret(String secretName) {
+        if (!filter.testName(secretName)) {
+            return null;
+        }
+        KeyVaultSecret secret = getSecret(secretName);
+        return secret.getProperties() == null || filter.test(secret.getProperties()) ? secret : null;
+    }
+
+    /**
+     * Get a version of a secret from Azure Key Vault for a lookup, if the secret is selected by the filter.
+     *
+     * @param secretName Secret name.
+     * @param version    Secret version.
+     * @return the secret version if it is selected; otherwise, null.
+     */
+    KeyVaultSecret getSelectedSecret(String secretName, String version) {
+        if (!filter.testName(secretName)) {
+            return null;
+        }
+        KeyVaultSecret secret = getSecret(secretName, version, Priority.INTERACTIVE);
+        return secret.getProperties() == null || filter.test(secret.getProperties()) ? secret : null;
+    }
+
+    /**
+     * Get the latest version of a secret from Azure Key Vault for a lookup, which takes precedence over bulk fetches.
+     *
+     * @param secretName Secret name.
+     * @return the secret.
+     */
+    KeyVaultSecret getSecret(String secretName) {
+        return getSecret(secretName, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Get the latest version of a secret from Azure Key Vault, once the scheduler lets the call through.
+     *
+     * @param secretName Secret name.
+     * @param priority   priority of the call.
+     * @return the secret.
+     */
+    private KeyVaultSecret getSecret(String secretName, Priority priority) {
+        return getSecret(secretName, null, priority);
+    }
+
+    /**
+     * Get a version of a secret from Azure Key Vault, once the scheduler lets the call through.
+     *
+     * @param secretName Secret name.
+     * @param version    Secret version, null for the latest version.
+     * @param priority   priority of the call.
+     * @return the secret.
+     */
+    private KeyVaultSecret getSecret(String secretName, String version, Priority priority) {
+        scheduler.acquire(priority);
+        long startInNanos = System.nanoTime();
+        KeyVaultEvents.VaultCallEvent event = new KeyVaultEvents.VaultCallEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            KeyVaultSecret secret = version == null
+                    ? secretKeyVaultClient.getSecret(secretName) : secretKeyVaultClient.getSecret(secretName, version);
+            succeeded = true;
+            return secret;
+        } finally {
+            metrics.recordSecretCall(startInNanos);
+            commit(event, "getSecret", secretName, priority, succeeded);
+        }
+    }
+
+    /**
+     * Commit a JDK Flight Recorder event of a call to Azure Key Vault, if it is enabled.
+     *
+     * @param event      the event, which has begun when the call started.
+     * @param call       name of the call.
+     * @param secretName Secret name, null if the call is not about a single secret.
+     * @param priority   priority of the call.
+     * @param succeeded  whether the call succeeded.
+     */
+    private void commit(KeyVaultEvents.VaultCallEvent event, String call, String secretName, Priority priority, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.vaultUrl = getVaultUrl();
+            event.call = call;
+            event.secretNameHash = KeyVaultEvents.hash(secretName);
+            event.priority = priority.name();
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Get the latest versions of secrets from Azure Key Vault.
+     *
+     * @param secretNames {@link Stream} of secret names, which may be lazily listed.
+     * @return Name/secret {@link Map} in the order of the secret names.
+     * @implNote If any secret cannot be fetched, the pending fetches are cancelled and the failure is rethrown.
+     */
+    Map<String, KeyVaultSecret> getSecrets(Stream<String> secretNames) {
+        Map<String, KeyVaultSecret> secrets = new LinkedHashMap<>();
+        if (executor == null) {
+            secretNames.forEach(secretName -> secrets.put(secretName, getSecret(secretName, Priority.BULK)));
+            return secrets;
+        }
+
+        Map<String, CompletableFuture<KeyVaultSecret>> pendingSecrets = new LinkedHashMap<>();
+        try {
+            secretNames.forEach(secretName -> pendingSecrets.put(secretName,
+                    CompletableFuture.supplyAsync(() -> getSecret(secretName, Priority.BULK), executor)));
+            pendingSecrets.forEach((secretName, pendingSecret) -> secrets.put(secretName, pendingSecret.join()));
+            return secrets;
+        } catch (RuntimeException e) {
+            pendingSecrets.values().forEach(pendingSecret -> pendingSecret.cancel(false));
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
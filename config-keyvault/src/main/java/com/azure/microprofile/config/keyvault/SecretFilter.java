@@ -0,0 +1,106 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * This class is used to select the secrets of Azure Key Vault which are read, from their listed {@link SecretProperties}.
+ *
+ * <ul>
+ *     <li>Secrets can be selected by name prefix, name regular expression, required tags and content type.</li>
+ *     <li>Disabled secrets, whose value cannot be read, can be skipped by setting enabledOnly to true. By default, all secrets are selected.</li>
+ *     <li>Secrets which are not selected are never fetched nor cached.</li>
+ * </ul>
+ */
+final class SecretFilter {
+    private final String namePrefix;
+    private final Pattern namePattern;
+    private final Map<String, String> requiredTags;
+    private final String contentType;
+    private final boolean enabledOnly;
+
+    /**
+     * Constructor of SecretFilter.
+     *
+     * @param options options of the operation
+     */
+    SecretFilter(AzureKeyVaultOptions options) {
+        this.namePrefix = options.getFilterNamePrefix();
+        this.namePattern = options.getFilterNameRegex() == null ? null : Pattern.compile(options.getFilterNameRegex());
+        this.requiredTags = parseTags(options.getFilterTags());
+        this.contentType = options.getFilterContentType();
+        this.enabledOnly = Optional.ofNullable(options.getFilterEnabledOnly()).orElse(Boolean.FALSE);
+    }
+
+    /**
+     * Check whether a secret name is selected, before its properties are known.
+     *
+     * @param secretName Secret name.
+     * @return true if the name matches the name prefix and the name regular expression; otherwise, false.
+     */
+    boolean testName(String secretName) {
+        return (namePrefix == null || secretName.startsWith(namePrefix))
+                && (namePattern == null || namePattern.matcher(secretName).matches());
+    }
+
+    /**
+     * Check whether a secret is selected.
+     *
+     * @param properties {@link SecretProperties} of the secret.
+     * @return true if the secret matches all criteria; otherwise, false.
+     */
+    boolean test(SecretProperties properties) {
+        if (!testName(properties.getName())) {
+            return false;
+        }
+        if (enabledOnly && !Boolean.TRUE.equals(properties.isEnabled())) {
+            return false;
+        }
+        if (contentType != null && !contentType.equalsIgnoreCase(properties.getContentType())) {
+            return false;
+        }
+        if (!requiredTags.isEmpty()) {
+            Map<String, String> tags = properties.getTags() == null ? Collections.emptyMap() : properties.getTags();
+            for (Map.Entry<String, String> requiredTag : requiredTags.entrySet()) {
+                if (!tags.containsKey(requiredTag.getKey())
+                        || (requiredTag.getValue() != null && !Objects.equals(requiredTag.getValue(), tags.get(requiredTag.getKey())))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse required tags, given as {@code name=value} to require a value or {@code name} to only require the tag.
+     *
+     * @param tags the required tags.
+     * @return Name/value {@link Map} of required tags, with a null value if any value is accepted.
+     */
+    private static Map<String, String> parseTags(List<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> requiredTags = new LinkedHashMap<>();
+        for (String tag : tags) {
+            int separator = tag.indexOf('=');
+            if (separator < 0) {
+                requiredTags.put(tag.trim(), null);
+            } else {
+                requiredTags.put(tag.substring(0, separator).trim(), tag.substring(separator + 1).trim());
+            }
+        }
+        return requiredTags;
+    }
+}
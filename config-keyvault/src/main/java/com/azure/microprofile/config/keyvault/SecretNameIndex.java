@@ -0,0 +1,117 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the secret names in Azure Key Vault.
+ *
+ * <ul>
+ *     <li>It answers whether a secret exists without calling Azure Key Vault.</li>
+ *     <li>
+ *         It maps the accepted aliases of each secret name to the secret name, so resolving a property name is a single hash lookup.
+ *         For secret {@code my-secret-name}, the aliases are {@code my-secret-name}, {@code my.secret.name}, {@code my_secret_name}
+ *         and {@code MY_SECRET_NAME}. Exact secret names take precedence over aliases.
+ *     </li>
+ *     <li>An index is never modified once created, a refresh creates a new index instead.</li>
+ * </ul>
+ */
+final class SecretNameIndex {
+    /**
+     * Index which has never been loaded.
+     */
+    static final SecretNameIndex EMPTY = new SecretNameIndex(Collections.emptySet(), 0L);
+
+    private final Set<String> secretNames;
+    private final Map<String, String> aliases;
+    private final long loadedAtInMs;
+
+    /**
+     * Constructor of SecretNameIndex.
+     *
+     * @param secretNames  names of the secrets, which are copied
+     * @param loadedAtInMs time when the names were listed, in milliseconds since the epoch
+     */
+    SecretNameIndex(Collection<String> secretNames, long loadedAtInMs) {
+        this.secretNames = Collections.unmodifiableSet(new HashSet<>(secretNames));
+        this.loadedAtInMs = loadedAtInMs;
+
+        Map<String, String> aliasMap = new HashMap<>(secretNames.size() * 8);
+        secretNames.forEach(secretName -> aliasMap.put(secretName, secretName));
+        secretNames.forEach(secretName -> {
+            aliasMap.putIfAbsent(secretName.replace('-', '.'), secretName);
+            aliasMap.putIfAbsent(secretName.replace('-', '_'), secretName);
+        });
+        secretNames.forEach(secretName -> aliasMap.putIfAbsent(secretName.replace('-', '_').toUpperCase(Locale.ROOT), secretName));
+        this.aliases = aliasMap;
+    }
+
+    /**
+     * Get secret names of the index.
+     *
+     * @return Unmodifiable name {@link Set} of secrets.
+     */
+    Set<String> getSecretNames() {
+        return secretNames;
+    }
+
+    /**
+     * Resolve a property name to the name of an existing secret.
+     *
+     * @param propertyName the property name.
+     * @return the exact property name if such a secret exists; otherwise, the secret name the property name is an alias of,
+     * or the remapped secret name if such a secret exists; otherwise, null.
+     */
+    String resolve(String propertyName) {
+        String secretName = aliases.get(propertyName);
+        if (secretName != null || !needsRemapping(propertyName)) {
+            return secretName;
+        }
+
+        // Mixed separators or other characters, which the aliases don't cover
+        String remappedSecretName = AzureKeyVaultOperation.toKeyVaultSecretName(propertyName);
+        return secretNames.contains(remappedSecretName) ? remappedSecretName : null;
+    }
+
+    /**
+     * Get time when the names were listed.
+     *
+     * @return time when the names were listed, in milliseconds since the epoch. 0 if the index has never been loaded.
+     */
+    long getLoadedAtInMs() {
+        return loadedAtInMs;
+    }
+
+    /**
+     * Check whether the remapped secret name of a property name may differ from the aliases of the index.
+     *
+     * @param propertyName the property name.
+     * @return false if the property name is a valid secret name, or only contains dots or only contains underscores as separators; otherwise, true.
+     */
+    private static boolean needsRemapping(String propertyName) {
+        boolean dash = false;
+        boolean dot = false;
+        boolean underscore = false;
+        for (int i = 0; i < propertyName.length(); i++) {
+            char c = propertyName.charAt(i);
+            if (c == '-') {
+                dash = true;
+            } else if (c == '.') {
+                dot = true;
+            } else if (c == '_') {
+                underscore = true;
+            } else if (!AzureKeyVaultOperation.isKeyVaultSecretNameChar(c)) {
+                return true;
+            }
+        }
+        return (dash ? 1 : 0) + (dot ? 1 : 0) + (underscore ? 1 : 0) > 1;
+    }
+}
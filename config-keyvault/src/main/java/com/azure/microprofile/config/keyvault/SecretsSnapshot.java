@@ -0,0 +1,213 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the secrets loaded from Azure Key Vault.
+ *
+ * <ul>
+ *     <li>A snapshot is never modified once created, a refresh creates a new snapshot instead.</li>
+ *     <li>It can be shared between threads without locking.</li>
+ *     <li>It indexes the accepted aliases of the secret names once, see {@link SecretNameIndex}.</li>
+ *     <li>It keeps the listed {@link SecretProperties} of the secrets, so the next refresh only fetches the secrets which have changed since.</li>
+ *     <li>It holds the properties which structured secrets are expanded into, see {@link SecretExpander}.</li>
+ *     <li>It may be restored from an {@link EncryptedSnapshotStore}, in which case it is served until it has been revalidated against Azure Key Vault.</li>
+ * </ul>
+ */
+final class SecretsSnapshot {
+    /**
+     * Snapshot which has never been loaded.
+     */
+    static final SecretsSnapshot EMPTY = new SecretsSnapshot(Collections.emptyMap(), 0L);
+
+    private final Map<String, String> properties;
+    private final Map<String, SecretProperties> secretProperties;
+    private final SecretNameIndex nameIndex;
+    private final long loadedAtInMs;
+    private final boolean restored;
+    private final long sizeInBytes;
+
+    /**
+     * Constructor of SecretsSnapshot.
+     *
+     * @param properties   Name/value {@link Map} of secrets, which is copied
+     * @param loadedAtInMs time when the secrets were loaded, in milliseconds since the epoch
+     */
+    SecretsSnapshot(Map<String, String> properties, long loadedAtInMs) {
+        this(properties, Collections.emptyMap(), loadedAtInMs);
+    }
+
+    /**
+     * Constructor of SecretsSnapshot.
+     *
+     * @param properties       Name/value {@link Map} of secrets, which is copied
+     * @param secretProperties Name/{@link SecretProperties} {@link Map} of secrets as listed from Azure Key Vault, which is copied
+     * @param loadedAtInMs     time when the secrets were loaded, in milliseconds since the epoch
+     */
+    SecretsSnapshot(Map<String, String> properties, Map<String, SecretProperties> secretProperties, long loadedAtInMs) {
+        this(properties, secretProperties, loadedAtInMs, false);
+    }
+
+    /**
+     * Constructor of SecretsSnapshot.
+     *
+     * @param properties       Name/value {@link Map} of secrets, which is copied
+     * @param secretProperties Name/{@link SecretProperties} {@link Map} of secrets as listed from Azure Key Vault, which is copied
+     * @param loadedAtInMs     time when the secrets were loaded, in milliseconds since the epoch
+     * @param restored         whether the snapshot was restored from an {@link EncryptedSnapshotStore} instead of loaded from Azure Key Vault
+     */
+    SecretsSnapshot(Map<String, String> properties, Map<String, SecretProperties> secretProperties, long loadedAtInMs, boolean restored) {
+        this.properties = Collections.unmodifiableMap(new HashMap<>(properties));
+        this.secretProperties = Collections.unmodifiableMap(new HashMap<>(secretProperties));
+        this.nameIndex = new SecretNameIndex(this.properties.keySet(), loadedAtInMs);
+        this.loadedAtInMs = loadedAtInMs;
+        this.restored = restored;
+        this.sizeInBytes = this.properties.entrySet().stream()
+                .mapToLong(entry -> (long) (entry.getKey().length() + (entry.getValue() == null ? 0 : entry.getValue().length())) * Character.BYTES)
+                .sum();
+    }
+
+    /**
+     * Get secrets of the snapshot.
+     *
+     * @return Unmodifiable name/value {@link Map} of secrets.
+     */
+    Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Get secret names of the snapshot.
+     *
+     * @return Unmodifiable name {@link Set} of secrets.
+     */
+    Set<String> getPropertyNames() {
+        return properties.keySet();
+    }
+
+    /**
+     * Get secret value of the snapshot.
+     *
+     * @param secretName Secret name.
+     * @return Secret value if it exists in the snapshot; otherwise, null.
+     */
+    String get(String secretName) {
+        return properties.get(secretName);
+    }
+
+    /**
+     * Get listed {@link SecretProperties} of the snapshot.
+     *
+     * @return Unmodifiable name/{@link SecretProperties} {@link Map} of secrets.
+     */
+    Map<String, SecretProperties> getSecretProperties() {
+        return secretProperties;
+    }
+
+    /**
+     * Resolve a property name to the name of a secret in the snapshot.
+     *
+     * @param propertyName the property name.
+     * @return the secret name, see {@link SecretNameIndex#resolve(String)}; null if no secret matches.
+     */
+    String resolve(String propertyName) {
+        return nameIndex.resolve(propertyName);
+    }
+
+    /**
+     * Get secret value of the snapshot if the secret has not changed since it was loaded.
+     *
+     * @param listedProperties {@link SecretProperties} of the secret as currently listed from Azure Key Vault.
+     * @return Secret value if the secret exists in the snapshot with the same version and update time; otherwise, null.
+     * @implNote A secret without version nor update time is always considered changed.
+     */
+    String getValueIfUnchanged(SecretProperties listedProperties) {
+        SecretProperties loadedProperties = secretProperties.get(listedProperties.getName());
+        if (loadedProperties == null
+                || (listedProperties.getVersion() == null && listedProperties.getUpdatedOn() == null)
+                || !Objects.equals(loadedProperties.getVersion(), listedProperties.getVersion())
+                || !Objects.equals(loadedProperties.getUpdatedOn(), listedProperties.getUpdatedOn())) {
+            return null;
+        }
+        return properties.get(listedProperties.getName());
+    }
+
+    /**
+     * Get time when the secrets were loaded.
+     *
+     * @return time when the secrets were loaded, in milliseconds since the epoch. 0 if the snapshot has never been loaded.
+     */
+    long getLoadedAtInMs() {
+        return loadedAtInMs;
+    }
+
+    /**
+     * Get whether the snapshot was restored from an {@link EncryptedSnapshotStore}.
+     *
+     * @return true if the snapshot was restored and not yet revalidated against Azure Key Vault.
+     */
+    boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Get the estimated size of the secret names and values of the snapshot.
+     *
+     * @return the estimated size in bytes.
+     */
+    long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Create a copy of the snapshot where a single secret is replaced, added or removed.
+     *
+     * @param secretName Secret name.
+     * @param value      Secret value, null to remove the secret.
+     * @param properties {@link SecretProperties} of the secret, null if it is removed.
+     * @return the new snapshot, with the same load time.
+     */
+    SecretsSnapshot withSecret(String secretName, String value, SecretProperties properties) {
+        return withSecret(secretName, value, properties, Collections.emptySet(), Collections.emptyMap());
+    }
+
+    /**
+     * Create a copy of the snapshot where a single secret and the properties it is expanded into are replaced, added or removed.
+     *
+     * @param secretName         Secret name.
+     * @param value              Secret value, null to remove the secret.
+     * @param properties         {@link SecretProperties} of the secret, null if it is removed.
+     * @param staleKeys          names of the properties the secret was previously expanded into, which are removed.
+     * @param expandedProperties Name/value {@link Map} of the properties the secret is now expanded into, see {@link SecretExpander}.
+     * @return the new snapshot, with the same load time.
+     * @implNote Secrets take precedence over expanded properties of the same name, which are neither removed nor replaced.
+     */
+    SecretsSnapshot withSecret(String secretName, String value, SecretProperties properties, Set<String> staleKeys,
+                               Map<String, String> expandedProperties) {
+        Map<String, String> updatedProperties = new HashMap<>(this.properties);
+        Map<String, SecretProperties> updatedSecretProperties = new HashMap<>(this.secretProperties);
+        staleKeys.stream().filter(key -> !updatedSecretProperties.containsKey(key)).forEach(updatedProperties::remove);
+        expandedProperties.forEach((key, expandedValue) -> {
+            if (!updatedSecretProperties.containsKey(key)) {
+                updatedProperties.put(key, expandedValue);
+            }
+        });
+        if (value == null) {
+            updatedProperties.remove(secretName);
+            updatedSecretProperties.remove(secretName);
+        } else {
+            updatedProperties.put(secretName, value);
+            updatedSecretProperties.put(secretName, properties);
+        }
+        return new SecretsSnapshot(updatedProperties, updatedSecretProperties, loadedAtInMs, restored);
+    }
+}
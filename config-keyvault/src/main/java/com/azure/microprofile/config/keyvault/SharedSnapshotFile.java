@@ -0,0 +1,250 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class is used to share the loaded {@link SecretsSnapshot} between the JVMs of a node, through a memory-mapped file.
+ *
+ * <ul>
+ *     <li>
+ *         The snapshot is encrypted like {@link EncryptedSnapshotStore} and published with a sequence number: the sequence is odd while a
+ *         process writes the snapshot and even once it is complete, so readers never decrypt a partial snapshot.
+ *     </li>
+ *     <li>
+ *         Only one process refreshes the snapshot from Azure Key Vault at a time: the refresher holds an exclusive lock on a lock file next
+ *         to the snapshot, the other processes wait for it and then read the published snapshot instead of calling Azure Key Vault.
+ *     </li>
+ *     <li>
+ *         Readers only copy and decrypt the mapping when its sequence has changed since their last read, so checking for a newer snapshot
+ *         costs one read of the mapped memory.
+ *     </li>
+ * </ul>
+ */
+final class SharedSnapshotFile {
+    private static final ClientLogger LOGGER = new ClientLogger(SharedSnapshotFile.class);
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int HEADER_LENGTH = 16;
+    private static final int MAX_READ_ATTEMPTS = 16;
+
+    /**
+     * Locks of the files shared in this JVM, since file locks are held by the JVM and don't exclude its own threads.
+     */
+    private static final Map<Path, Lock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final Path lockPath;
+    private final EncryptedSnapshotStore codec;
+    /**
+     * Read-only mapping of the shared file.
+     */
+    private MappedByteBuffer mapping;
+    private long lastSequence;
+    /**
+     * Thread which holds the lock file through this instance, the only one allowed to write the shared file.
+     */
+    private volatile Thread exclusiveOwner;
+
+    /**
+     * Constructor of SharedSnapshotFile.
+     *
+     * @param path     path of the shared file
+     * @param key      Base64 encoded AES key
+     * @param vaultUrl URL of Azure Key Vault, which the snapshot is bound to
+     * @throws IllegalArgumentException if the key is not a Base64 encoded 128, 192 or 256 bit key.
+     */
+    SharedSnapshotFile(Path path, String key, String vaultUrl) {
+        this.path = path.toAbsolutePath();
+        this.lockPath = Paths.get(this.path + ".lock");
+        this.codec = new EncryptedSnapshotStore(this.path, key, vaultUrl);
+    }
+
+    /**
+     * Read the snapshot published by any process of the node, if it has changed since the last read.
+     *
+     * @return the published snapshot; null if nothing is published, it hasn't changed since the last read, or it cannot be read.
+     */
+    synchronized SecretsSnapshot read() {
+        try {
+            for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+                MappedByteBuffer current = map(HEADER_LENGTH);
+                if (current == null) {
+                    return null;
+                }
+
+                long sequence = (long) LONGS.getVolatile(current, SEQUENCE_OFFSET);
+                if (sequence == lastSequence) {
+                    return null;
+                }
+                if ((sequence & 1) != 0) {
+                    // A process is publishing, wait for it
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                int length = (int) (long) LONGS.getVolatile(current, LENGTH_OFFSET);
+                current = map(HEADER_LENGTH + length);
+                if (length <= 0 || current == null) {
+                    return null;
+                }
+                byte[] content = new byte[length];
+                current.get(HEADER_LENGTH, content);
+                // Keep the plain reads of the content before the validating read of the sequence, like StampedLock.validate()
+                VarHandle.acquireFence();
+                if ((long) LONGS.getVolatile(current, SEQUENCE_OFFSET) != sequence) {
+                    continue;
+                }
+
+                SecretsSnapshot published = codec.decode(content, false);
+                lastSequence = sequence;
+                return published;
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "read() failed to read shared snapshot " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Publish a snapshot to the other processes of the node.
+     *
+     * @param snapshot the snapshot.
+     * @implNote The caller must run within {@link #runExclusively(Runnable)}: the file is only mapped writable while this process holds
+     * the lock file, so processes never write the snapshot concurrently. Otherwise the snapshot isn't published.
+     */
+    synchronized void publish(SecretsSnapshot snapshot) {
+        if (exclusiveOwner != Thread.currentThread()) {
+            LOGGER.log(LogLevel.VERBOSE, () -> "publish() skipped, " + lockPath + " isn't locked by this thread");
+            return;
+        }
+
+        try {
+            byte[] content = codec.encode(snapshot);
+            createFile(path);
+            MappedByteBuffer writable;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (channel.size() < HEADER_LENGTH + content.length) {
+                    channel.write(ByteBuffer.allocate(1), HEADER_LENGTH + content.length - 1);
+                }
+                writable = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + content.length);
+            }
+
+            long sequence = ((long) LONGS.getVolatile(writable, SEQUENCE_OFFSET)) | 1;
+            LONGS.setVolatile(writable, SEQUENCE_OFFSET, sequence);
+            writable.put(HEADER_LENGTH, content);
+            LONGS.setVolatile(writable, LENGTH_OFFSET, (long) content.length);
+            LONGS.setVolatile(writable, SEQUENCE_OFFSET, sequence + 1);
+            lastSequence = sequence + 1;
+            LOGGER.log(LogLevel.VERBOSE, () -> "publish() published snapshot " + (sequence + 1) + " to " + path);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(LogLevel.WARNING, () -> "publish() failed to publish shared snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run a refresh while no other process of the node refreshes the shared snapshot.
+     *
+     * @param refresh the refresh.
+     * @implNote If the lock file cannot be locked, the refresh runs anyway, so the cache is still refreshed, only not exclusively.
+     */
+    void runExclusively(Runnable refresh) {
+        Lock jvmLock = JVM_LOCKS.computeIfAbsent(lockPath, ignored -> new ReentrantLock());
+        jvmLock.lock();
+        try {
+            FileChannel channel;
+            FileLock fileLock;
+            try {
+                createFile(lockPath);
+                channel = FileChannel.open(lockPath, StandardOpenOption.WRITE);
+                fileLock = channel.lock();
+            } catch (IOException | OverlappingFileLockException e) {
+                LOGGER.log(LogLevel.WARNING, () -> "runExclusively() failed to lock " + lockPath + ", refreshing without it: " + e.getMessage());
+                refresh.run();
+                return;
+            }
+
+            try (FileChannel ignored = channel; FileLock ignoredLock = fileLock) {
+                exclusiveOwner = Thread.currentThread();
+                refresh.run();
+            } catch (IOException e) {
+                LOGGER.log(LogLevel.VERBOSE, () -> "runExclusively() failed to release " + lockPath + ": " + e.getMessage());
+            }
+        } finally {
+            exclusiveOwner = null;
+            jvmLock.unlock();
+        }
+    }
+
+    /**
+     * Map the shared file read-only, remapping it if it has grown.
+     *
+     * @param minLength minimum length of the mapping.
+     * @return the mapping; null if the file doesn't exist or is shorter than minLength.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private MappedByteBuffer map(int minLength) throws IOException {
+        if (mapping != null && mapping.capacity() >= minLength) {
+            return mapping;
+        }
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < minLength || size < HEADER_LENGTH) {
+                return null;
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return mapping;
+        }
+    }
+
+    /**
+     * Create a file readable and writable by the owner only, if it doesn't exist.
+     *
+     * @param file the file.
+     * @throws IOException if the file cannot be created.
+     */
+    private static void createFile(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        try {
+            if (file.getParent().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            } else {
+                Files.createFile(file);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Created by another process meanwhile
+        }
+    }
+}
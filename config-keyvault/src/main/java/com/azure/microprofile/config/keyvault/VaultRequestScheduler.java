@@ -0,0 +1,287 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpPipelineNextSyncPolicy;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import reactor.core.publisher.Mono;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is used to schedule the calls to Azure Key Vault within its transaction limits.
+ *
+ * <ul>
+ *     <li>
+ *         Calls take tokens from a token bucket sized to transactionBudget, the number of transactions allowed per 10 seconds like the
+ *         Azure Key Vault service limits. The bucket refills continuously. If transactionBudget is not set, calls are not limited.
+ *     </li>
+ *     <li>
+ *         {@link Priority#INTERACTIVE} calls, which a config lookup waits on, take precedence over {@link Priority#BULK} calls, which load or
+ *         refresh many secrets. Bulk calls leave a reserve of the bucket to interactive calls, and wait while interactive calls are waiting.
+ *     </li>
+ *     <li>When Azure Key Vault throttles a call, all calls wait for its Retry-After before they are sent again.</li>
+ *     <li>
+ *         Every HTTP request is a transaction, so the policy of {@link #newThrottlingPolicy()} takes a token for each request which the caller
+ *         of {@link #acquire(Priority)} could not account for: every listing page after the first one, and every retry.
+ *     </li>
+ * </ul>
+ */
+final class VaultRequestScheduler {
+    private static final ClientLogger LOGGER = new ClientLogger(VaultRequestScheduler.class);
+    private static final long BUDGET_WINDOW_IN_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final double INTERACTIVE_RESERVE_RATIO = 0.2;
+    private static final long DEFAULT_RETRY_AFTER_IN_MS = 1000L; // 1 second
+    static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final HttpHeaderName RETRY_AFTER_MS = HttpHeaderName.fromString("retry-after-ms");
+    private static final HttpHeaderName X_MS_RETRY_AFTER_MS = HttpHeaderName.fromString("x-ms-retry-after-ms");
+    private static final String[] NEXT_PAGE_QUERIES = {"$skiptoken=", "%24skiptoken="};
+    private static final String ATTEMPTED = "azure-keyvault-attempted";
+
+    /**
+     * Priority of a call to Azure Key Vault.
+     */
+    enum Priority {
+        /**
+         * Call which a config lookup waits on.
+         */
+        INTERACTIVE,
+        /**
+         * Call of a bulk load or refresh.
+         */
+        BULK
+    }
+
+    private final double capacity;
+    private final double interactiveReserve;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAtInNanos;
+    private int waitingInteractiveCalls;
+    private volatile long pausedUntilInNanos = System.nanoTime();
+    private final LongAdder throttledCalls = new LongAdder();
+    private final LongAdder takenTokens = new LongAdder();
+
+    /**
+     * Constructor of VaultRequestScheduler.
+     *
+     * @param transactionBudget number of transactions allowed per 10 seconds, null if calls are not limited
+     */
+    VaultRequestScheduler(Integer transactionBudget) {
+        this.capacity = transactionBudget == null ? 0 : Math.max(1, transactionBudget);
+        this.interactiveReserve = capacity * INTERACTIVE_RESERVE_RATIO;
+        this.tokensPerNano = capacity / BUDGET_WINDOW_IN_NANOS;
+        this.tokens = capacity;
+        this.refilledAtInNanos = System.nanoTime();
+    }
+
+    /**
+     * Wait until a call may be sent to Azure Key Vault.
+     *
+     * @param priority priority of the call.
+     * @implNote If the waiting thread is interrupted, the call is sent right away and the thread stays interrupted.
+     */
+    void acquire(Priority priority) {
+        if (capacity == 0 && pausedUntilInNanos - System.nanoTime() <= 0) {
+            return;
+        }
+
+        boolean interactive = priority == Priority.INTERACTIVE;
+        synchronized (this) {
+            if (interactive) {
+                waitingInteractiveCalls++;
+            }
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    long waitInNanos = pausedUntilInNanos - now;
+                    if (waitInNanos <= 0) {
+                        waitInNanos = tryTakeToken(interactive, now);
+                        if (waitInNanos <= 0) {
+                            return;
+                        }
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, waitInNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (interactive && --waitingInteractiveCalls == 0) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Pause all calls after Azure Key Vault throttled a call.
+     *
+     * @param headers headers of the throttled response, which may contain Retry-After.
+     */
+    void onThrottled(HttpHeaders headers) {
+        throttledCalls.increment();
+        long retryAfterInMs = getRetryAfterInMs(headers);
+        long pausedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterInMs);
+        synchronized (this) {
+            if (pausedUntil - pausedUntilInNanos > 0) {
+                pausedUntilInNanos = pausedUntil;
+            }
+            tokens = 0;
+            notifyAll();
+        }
+        LOGGER.log(LogLevel.WARNING, () -> "Azure Key Vault throttled a call, pausing calls for " + retryAfterInMs + " ms.");
+    }
+
+    /**
+     * Get the number of calls which Azure Key Vault throttled.
+     *
+     * @return the number of throttled calls.
+     */
+    long getThrottledCalls() {
+        return throttledCalls.sum();
+    }
+
+    /**
+     * Get the number of tokens taken from the bucket.
+     *
+     * @return the number of tokens taken, 0 if calls are not limited.
+     */
+    long getTakenTokens() {
+        return takenTokens.sum();
+    }
+
+    /**
+     * Create a policy of the HTTP pipeline which pauses this scheduler whenever Azure Key Vault throttles a call,
+     * including the calls which are retried by the pipeline.
+     *
+     * @return the policy.
+     * @implNote The policy must run on every retry, which is the default position of a policy. Listing pages after the first one
+     * take bulk tokens. Retries take interactive tokens, except retries of listing pages, since the policy cannot tell a lookup from a bulk fetch.
+     */
+    HttpPipelinePolicy newThrottlingPolicy() {
+        return new HttpPipelinePolicy() {
+            @Override
+            public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+                return Mono.defer(() -> {
+                    beforeRequest(context);
+                    return next.process();
+                }).doOnNext(this::onResponse);
+            }
+
+            @Override
+            public HttpResponse processSync(HttpPipelineCallContext context, HttpPipelineNextSyncPolicy next) {
+                beforeRequest(context);
+                HttpResponse response = next.processSync();
+                onResponse(response);
+                return response;
+            }
+
+            private void beforeRequest(HttpPipelineCallContext context) {
+                URL url = context.getHttpRequest().getUrl();
+                boolean nextPage = isNextPage(url.getQuery());
+                if (context.getData(ATTEMPTED).isPresent()) {
+                    acquire(nextPage || url.getPath().endsWith("/secrets") ? Priority.BULK : Priority.INTERACTIVE);
+                } else {
+                    context.setData(ATTEMPTED, Boolean.TRUE);
+                    if (nextPage) {
+                        acquire(Priority.BULK);
+                    }
+                }
+            }
+
+            private void onResponse(HttpResponse response) {
+                if (response.getStatusCode() == HTTP_TOO_MANY_REQUESTS) {
+                    onThrottled(response.getHeaders());
+                }
+            }
+        };
+    }
+
+    /**
+     * Take a token from the bucket if the priority allows it.
+     *
+     * @param interactive whether the call is interactive.
+     * @param now         current time in nanoseconds.
+     * @return 0 if a token was taken; otherwise, nanoseconds to wait before trying again.
+     * @implNote The caller must hold the monitor of this scheduler.
+     */
+    private long tryTakeToken(boolean interactive, long now) {
+        if (capacity == 0) {
+            return 0;
+        }
+
+        tokens = Math.min(capacity, tokens + (now - refilledAtInNanos) * tokensPerNano);
+        refilledAtInNanos = now;
+
+        // Bulk calls let waiting interactive calls go first, and don't take the reserve of interactive calls
+        double required = interactive ? 1 : 1 + Math.min(interactiveReserve, capacity - 1);
+        if (!interactive && waitingInteractiveCalls > 0) {
+            // Notified when the last waiting interactive call is sent
+            return BUDGET_WINDOW_IN_NANOS;
+        }
+        if (tokens >= required) {
+            tokens -= 1;
+            takenTokens.increment();
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((required - tokens) / tokensPerNano));
+    }
+
+    /**
+     * Check whether a request retrieves a listing page after the first one, whose URL is the nextLink of the previous page.
+     *
+     * @param query query of the request URL, null if it has none.
+     * @return true if the query continues a listing; otherwise, false.
+     */
+    private static boolean isNextPage(String query) {
+        if (query != null) {
+            for (String nextPageQuery : NEXT_PAGE_QUERIES) {
+                if (query.contains(nextPageQuery)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the delay requested by a throttled response.
+     *
+     * @param headers headers of the throttled response.
+     * @return the delay in milliseconds, {@link #DEFAULT_RETRY_AFTER_IN_MS} if the response doesn't request one.
+     */
+    static long getRetryAfterInMs(HttpHeaders headers) {
+        if (headers != null) {
+            for (HttpHeaderName retryAfterMs : new HttpHeaderName[] {RETRY_AFTER_MS, X_MS_RETRY_AFTER_MS}) {
+                String value = headers.getValue(retryAfterMs);
+                if (value != null) {
+                    try {
+                        return Long.parseLong(value.trim());
+                    } catch (NumberFormatException ignored) {
+                        // Try the next header
+                    }
+                }
+            }
+            String retryAfter = headers.getValue(HttpHeaderName.RETRY_AFTER);
+            if (retryAfter != null) {
+                try {
+                    return Duration.ofSeconds(Long.parseLong(retryAfter.trim())).toMillis();
+                } catch (NumberFormatException ignored) {
+                    // Retry-After as HTTP date is not used by Azure Key Vault
+                }
+            }
+        }
+        return DEFAULT_RETRY_AFTER_IN_MS;
+    }
+}
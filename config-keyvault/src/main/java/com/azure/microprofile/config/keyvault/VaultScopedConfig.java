@@ -0,0 +1,97 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigValue;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.eclipse.microprofile.config.spi.Converter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * View of a {@link Config} instance for one of the vaults listed in {@code azure.keyvault.vaults}.
+ *
+ * <ul>
+ *     <li>A property {@code azure.keyvault.<property>} is read from {@code azure.keyvault.vaults.<vault>.<property>} first.</li>
+ *     <li>
+ *         If it is not set for the vault, the shared {@code azure.keyvault.<property>} is used instead, except for the properties which
+ *         identify a single vault, see {@link #VAULT_ONLY_PROPERTIES}.
+ *     </li>
+ * </ul>
+ */
+final class VaultScopedConfig implements Config {
+    static final String PREFIX = "azure.keyvault.";
+    static final String VAULTS = "azure.keyvault.vaults";
+
+    /**
+     * Properties which are never shared between vaults.
+     */
+    private static final Set<String> VAULT_ONLY_PROPERTIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "azure.keyvault.url", "azure.keyvault.ordinal", AzureKeyVaultOptions.CACHE_SNAPSHOT_PATH, AzureKeyVaultOptions.CACHE_SHARED_PATH)));
+
+    private final Config config;
+    private final String vaultPrefix;
+
+    /**
+     * Constructor of VaultScopedConfig.
+     *
+     * @param config    {@link Config} instance
+     * @param vaultName name of the vault in {@code azure.keyvault.vaults}
+     */
+    VaultScopedConfig(Config config, String vaultName) {
+        this.config = config;
+        this.vaultPrefix = VAULTS + "." + vaultName + ".";
+    }
+
+    @Override
+    public <T> T getValue(String propertyName, Class<T> propertyType) {
+        return getOptionalValue(propertyName, propertyType).orElseThrow(() -> new NoSuchElementException("Property " + propertyName + " not found"));
+    }
+
+    @Override
+    public ConfigValue getConfigValue(String propertyName) {
+        ConfigValue vaultValue = config.getConfigValue(toVaultPropertyName(propertyName));
+        return vaultValue.getValue() != null || !isShared(propertyName) ? vaultValue : config.getConfigValue(propertyName);
+    }
+
+    @Override
+    public <T> Optional<T> getOptionalValue(String propertyName, Class<T> propertyType) {
+        Optional<T> vaultValue = config.getOptionalValue(toVaultPropertyName(propertyName), propertyType);
+        return vaultValue.isPresent() || !isShared(propertyName) ? vaultValue : config.getOptionalValue(propertyName, propertyType);
+    }
+
+    @Override
+    public Iterable<String> getPropertyNames() {
+        return config.getPropertyNames();
+    }
+
+    @Override
+    public Iterable<ConfigSource> getConfigSources() {
+        return config.getConfigSources();
+    }
+
+    @Override
+    public <T> Optional<Converter<T>> getConverter(Class<T> forType) {
+        return config.getConverter(forType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) {
+        return config.unwrap(type);
+    }
+
+    private String toVaultPropertyName(String propertyName) {
+        return propertyName.startsWith(PREFIX) ? vaultPrefix + propertyName.substring(PREFIX.length()) : propertyName;
+    }
+
+    private static boolean isShared(String propertyName) {
+        return propertyName.startsWith(PREFIX) && !VAULT_ONLY_PROPERTIES.contains(propertyName);
+    }
+}
@@ -8,9 +8,13 @@
 module com.azure.microprofile.config.keyvault {
     requires microprofile.config.api;
     requires com.azure.identity;
+    requires com.azure.json;
+    requires java.management;
+    requires jdk.jfr;
     requires transitive com.azure.security.keyvault.secrets;
 
     exports com.azure.microprofile.config.keyvault;
 
     provides org.eclipse.microprofile.config.spi.ConfigSource with com.azure.microprofile.config.keyvault.AzureKeyVaultConfigSource;
+    provides org.eclipse.microprofile.config.spi.ConfigSourceProvider with com.azure.microprofile.config.keyvault.AzureKeyVaultConfigSourceProvider;
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AggregateAzureKeyVaultOperationTest {
+
+    @Mock
+    private AzureKeyVaultOperation platformVault;
+
+    @Mock
+    private AzureKeyVaultOperation serviceVault;
+
+    @Mock
+    private CachedAzureKeyVaultOperation cachedPlatformVault;
+
+    @Mock
+    private IndexedAzureKeyVaultOperation indexedServiceVault;
+
+    @Test
+    void testGetValueUsesFirstVaultHoldingSecret() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(serviceVault, platformVault));
+        when(serviceVault.getValue("shared")).thenReturn("service");
+        when(serviceVault.getValue("platform-only")).thenReturn(null);
+        when(platformVault.getValue("platform-only")).thenReturn("platform");
+
+        assertEquals("service", operation.getValue("shared"));
+        assertEquals("platform", operation.getValue("platform-only"));
+        verify(platformVault, never()).getValue("shared");
+    }
+
+    @Test
+    void testGetValueOfMissingSecret() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(serviceVault, platformVault));
+
+        assertNull(operation.getValue("missing"));
+    }
+
+    @Test
+    void testGetPropertiesMergesVaultsInPrecedenceOrder() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(serviceVault, platformVault));
+        when(serviceVault.getProperties()).thenReturn(Map.of("shared", "service", "service-only", "service"));
+        when(platformVault.getProperties()).thenReturn(Map.of("shared", "platform", "platform-only", "platform"));
+
+        assertEquals(Map.of("shared", "service", "service-only", "service", "platform-only", "platform"), operation.getProperties());
+    }
+
+    @Test
+    void testGetPropertyNamesLoadsVaultsConcurrently() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(serviceVault, platformVault));
+        when(serviceVault.getPropertyNames()).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Set.of("shared", "service-only");
+        });
+        when(platformVault.getPropertyNames()).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Set.of("shared", "platform-only");
+        });
+
+        long start = System.nanoTime();
+        assertEquals(Set.of("shared", "service-only", "platform-only"), operation.getPropertyNames());
+        assertTrue(System.nanoTime() - start < 550_000_000L, "The vaults must be loaded concurrently");
+    }
+
+    @Test
+    void testFailedVaultFailsLoad() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(serviceVault, platformVault));
+        when(serviceVault.getPropertyNames()).thenReturn(Set.of("service-only"));
+        when(platformVault.getPropertyNames()).thenThrow(new IllegalStateException("vault unavailable"));
+
+        assertThrows(IllegalStateException.class, operation::getPropertyNames);
+    }
+
+    @Test
+    void testGetValueOnlyAsksIndexedVaultsHoldingSecret() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(indexedServiceVault, cachedPlatformVault));
+        when(indexedServiceVault.getPropertyNames()).thenReturn(Set.of("shared", "service-only"));
+        when(cachedPlatformVault.getPropertyNames()).thenReturn(Set.of("shared", "platform-only"));
+        when(indexedServiceVault.getValue("SHARED")).thenReturn("service");
+        when(cachedPlatformVault.getValue("platform.only")).thenReturn("platform");
+
+        assertEquals("service", operation.getValue("SHARED"));
+        assertEquals("platform", operation.getValue("platform.only"));
+        assertNull(operation.getValue("missing"));
+        verify(indexedServiceVault, never()).getValue("platform.only");
+        verify(indexedServiceVault, never()).getValue("missing");
+        verify(cachedPlatformVault, never()).getValue("SHARED");
+        verify(cachedPlatformVault, never()).getValue("missing");
+    }
+
+    @Test
+    void testIndexIsRebuiltWhenVaultRefreshesSecretNames() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(indexedServiceVault, cachedPlatformVault));
+        Set<String> loaded = Set.of("platform-only");
+        Set<String> refreshed = Set.of("platform-only", "added");
+        when(indexedServiceVault.getPropertyNames()).thenReturn(Set.of("service-only"));
+        when(cachedPlatformVault.getPropertyNames()).thenReturn(loaded, loaded, refreshed);
+        when(cachedPlatformVault.getValue("added")).thenReturn("platform");
+
+        assertNull(operation.getValue("added"));
+        assertNull(operation.getValue("added"));
+        assertEquals("platform", operation.getValue("added"));
+        verify(cachedPlatformVault, times(1)).getValue("added");
+    }
+
+    @Test
+    void testVaultsWhichDontCacheNamesAreAskedInPrecedenceOrder() {
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(serviceVault, cachedPlatformVault));
+        when(cachedPlatformVault.getPropertyNames()).thenReturn(Set.of("shared"));
+        when(serviceVault.getValue("shared")).thenReturn(null);
+        when(serviceVault.getValue("service-only")).thenReturn("service");
+        when(cachedPlatformVault.getValue("shared")).thenReturn("platform");
+
+        assertEquals("platform", operation.getValue("shared"));
+        assertEquals("service", operation.getValue("service-only"));
+        verify(cachedPlatformVault, never()).getValue("service-only");
+    }
+
+    @Test
+    void testPinnedSecretIsAskedToEveryVault() {
+        String pinned = "my.secret/0123456789abcdef0123456789abcdef";
+        AggregateAzureKeyVaultOperation operation = new AggregateAzureKeyVaultOperation(Arrays.asList(indexedServiceVault, cachedPlatformVault));
+        when(indexedServiceVault.getPropertyNames()).thenReturn(Set.of("service-only"));
+        when(cachedPlatformVault.getPropertyNames()).thenReturn(Set.of("my-secret"));
+        when(indexedServiceVault.getValue(pinned)).thenReturn(null);
+        when(cachedPlatformVault.getValue(pinned)).thenReturn("pinned");
+
+        assertEquals("pinned", operation.getValue(pinned));
+    }
+}
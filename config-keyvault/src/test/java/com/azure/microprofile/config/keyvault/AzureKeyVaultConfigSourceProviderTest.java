@@ -0,0 +1,146 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AzureKeyVaultConfigSourceProviderTest {
+
+    @Mock
+    private Config config;
+
+    @Test
+    void testNoVaults() {
+        when(config.getOptionalValues("azure.keyvault.vaults", String.class)).thenReturn(Optional.empty());
+
+        assertTrue(AzureKeyVaultConfigSourceProvider.getConfigSources(config).isEmpty());
+    }
+
+    @Test
+    void testVaultsWithDifferentOrdinalsAreSeparateSources() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("azure.keyvault.cache", "false");
+        properties.put("azure.keyvault.vaults.platform.url", "https://platform.vault.azure.net");
+        properties.put("azure.keyvault.vaults.platform.ordinal", "80");
+        properties.put("azure.keyvault.vaults.service.url", "https://service.vault.azure.net");
+        properties.put("azure.keyvault.vaults.service.ordinal", "95");
+        whenConfig(properties, "platform", "service");
+
+        List<ConfigSource> configSources = AzureKeyVaultConfigSourceProvider.getConfigSources(config);
+
+        assertEquals(2, configSources.size());
+        assertEquals("AzureKeyVaultConfigSource[platform]", configSources.get(0).getName());
+        assertEquals(80, configSources.get(0).getOrdinal());
+        assertEquals("AzureKeyVaultConfigSource[service]", configSources.get(1).getName());
+        assertEquals(95, configSources.get(1).getOrdinal());
+    }
+
+    @Test
+    void testVaultsWithSameOrdinalAreAggregated() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("azure.keyvault.cache", "false");
+        properties.put("azure.keyvault.vaults.service.url", "https://service.vault.azure.net");
+        properties.put("azure.keyvault.vaults.platform.url", "https://platform.vault.azure.net");
+        whenConfig(properties, "service", "platform");
+
+        List<ConfigSource> configSources = AzureKeyVaultConfigSourceProvider.getConfigSources(config);
+
+        assertEquals(1, configSources.size());
+        assertEquals("AzureKeyVaultConfigSource[service,platform]", configSources.get(0).getName());
+        assertEquals(90, configSources.get(0).getOrdinal());
+    }
+
+    @Test
+    void testVaultWithoutUrlFails() {
+        whenConfig(new HashMap<>(Map.of("azure.keyvault.cache", "false")), "platform");
+
+        assertThrows(IllegalArgumentException.class, () -> AzureKeyVaultConfigSourceProvider.getConfigSources(config));
+    }
+
+    @Test
+    void testVaultsWithSameUrlFail() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("azure.keyvault.cache", "false");
+        properties.put("azure.keyvault.vaults.service.url", "https://service.vault.azure.net");
+        properties.put("azure.keyvault.vaults.platform.url", "https://SERVICE.vault.azure.net/");
+        whenConfig(properties, "service", "platform");
+
+        assertThrows(IllegalArgumentException.class, () -> AzureKeyVaultConfigSourceProvider.getConfigSources(config));
+    }
+
+    @Test
+    void testUrlWithVaultsFails() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("azure.keyvault.url", "https://service.vault.azure.net");
+        properties.put("azure.keyvault.vaults.service.url", "https://service.vault.azure.net");
+        whenConfig(properties, "service");
+
+        assertThrows(IllegalArgumentException.class, () -> AzureKeyVaultConfigSourceProvider.getConfigSources(config));
+        assertThrows(IllegalArgumentException.class, () -> new AzureKeyVaultConfigSource(config));
+    }
+
+    @Test
+    void testConfigSourceIsNotEnabledWithVaults() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("azure.keyvault.vaults.service.url", "https://service.vault.azure.net");
+        whenConfig(properties, "service");
+
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(config);
+
+        assertTrue(configSource.getPropertyNames().isEmpty());
+        assertNull(configSource.getValue("key1"));
+    }
+
+    @Test
+    void testVaultPropertiesFallBackToSharedProperties() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("azure.keyvault.url", "https://shared.vault.azure.net");
+        properties.put("azure.keyvault.cache.ttl", "1000");
+        properties.put("azure.keyvault.cache.snapshot.path", "/tmp/shared.bin");
+        properties.put("azure.keyvault.vaults.platform.cache.mode", "names");
+        whenConfig(properties);
+        VaultScopedConfig vaultConfig = new VaultScopedConfig(config, "platform");
+
+        assertEquals(Optional.of("names"), vaultConfig.getOptionalValue("azure.keyvault.cache.mode", String.class));
+        assertEquals(Optional.of(1000L), vaultConfig.getOptionalValue("azure.keyvault.cache.ttl", Long.class));
+        assertEquals(Optional.empty(), vaultConfig.getOptionalValue("azure.keyvault.url", String.class));
+        assertEquals(Optional.empty(), vaultConfig.getOptionalValue("azure.keyvault.cache.snapshot.path", String.class));
+    }
+
+    private void whenConfig(Map<String, String> properties, String... vaultNames) {
+        lenient().when(config.getOptionalValues("azure.keyvault.vaults", String.class)).thenReturn(Optional.of(Arrays.asList(vaultNames)));
+        when(config.getOptionalValue(anyString(), any())).thenAnswer(invocation -> {
+            String value = properties.get(invocation.<String>getArgument(0));
+            Class<?> propertyType = invocation.getArgument(1);
+            if (value == null) {
+                return Optional.empty();
+            }
+            if (propertyType == String.class) {
+                return Optional.of(value);
+            }
+            return Optional.of(propertyType.getMethod("valueOf", String.class).invoke(null, value));
+        });
+    }
+}
@@ -0,0 +1,138 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.eclipse.microprofile.config.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AzureKeyVaultConfigSourceStartupTest {
+
+    @Mock
+    private AzureKeyVaultOperation keyVaultOperation;
+
+    @Mock
+    private Config config;
+
+    @Test
+    void testSyncStartupDoesNotPrefetch() {
+        whenConfig(Collections.emptyMap());
+
+        new AzureKeyVaultConfigSource(keyVaultOperation, config);
+
+        verify(keyVaultOperation, never()).getPropertyNames();
+    }
+
+    @Test
+    void testSyncStartupInitializesOnCallerThread() {
+        whenConfig(Map.of("azure.keyvault.url", "https://test.vault.azure.net", "azure.keyvault.cache.mode", "unknown"));
+
+        // The invalid configuration fails the constructor rather than the first lookup
+        assertThrows(IllegalArgumentException.class, () -> new AzureKeyVaultConfigSource(config));
+    }
+
+    @Test
+    void testAsyncStartupInitializesOnStartupThread() {
+        whenConfig(Map.of("azure.keyvault.url", "https://test.vault.azure.net", "azure.keyvault.cache.mode", "unknown",
+                "azure.keyvault.startup.mode", "async"));
+
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(config);
+
+        assertThrows(IllegalArgumentException.class, () -> configSource.getValue("key1"));
+    }
+
+    @Test
+    void testAsyncStartupPrefetchesSecrets() {
+        whenConfig(Map.of("azure.keyvault.startup.mode", "async"));
+
+        new AzureKeyVaultConfigSource(keyVaultOperation, config);
+
+        verify(keyVaultOperation, timeout(5000)).getPropertyNames();
+    }
+
+    @Test
+    void testLookupWaitsForPrefetchWithinDeadline() {
+        whenConfig(Map.of("azure.keyvault.startup.mode", "async", "azure.keyvault.startup.deadline", "5000"));
+        CountDownLatch prefetching = new CountDownLatch(1);
+        when(keyVaultOperation.getPropertyNames()).thenAnswer(invocation -> {
+            prefetching.await(5, TimeUnit.SECONDS);
+            return Collections.singleton("key1");
+        });
+        lenient().when(keyVaultOperation.getValue("key1")).thenReturn("value1");
+
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(keyVaultOperation, config);
+        CompletableFuture.runAsync(prefetching::countDown, CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+
+        assertEquals("value1", configSource.getValue("key1"));
+        assertEquals(0, prefetching.getCount());
+    }
+
+    @Test
+    void testLookupFallsBackAfterDeadline() throws InterruptedException {
+        whenConfig(Map.of("azure.keyvault.startup.mode", "async", "azure.keyvault.startup.deadline", "100"));
+        CountDownLatch prefetching = new CountDownLatch(1);
+        CountDownLatch prefetched = new CountDownLatch(1);
+        when(keyVaultOperation.getPropertyNames()).thenAnswer(invocation -> {
+            prefetching.await(5, TimeUnit.SECONDS);
+            prefetched.countDown();
+            return Collections.singleton("key1");
+        });
+        lenient().when(keyVaultOperation.getValue("key1")).thenReturn("value1");
+
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(keyVaultOperation, config);
+
+        assertNull(configSource.getValue("key1"));
+        long start = System.nanoTime();
+        assertTrue(configSource.getProperties().isEmpty());
+        assertTrue(System.nanoTime() - start < 50_000_000L, "Lookups after the deadline must not wait for the prefetch");
+
+        prefetching.countDown();
+        assertTrue(prefetched.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals("value1", configSource.getValue("key1"));
+    }
+
+    @Test
+    void testUnsupportedStartupModeFails() {
+        whenConfig(Map.of("azure.keyvault.startup.mode", "unknown"));
+
+        assertThrows(IllegalArgumentException.class, () -> new AzureKeyVaultConfigSource(keyVaultOperation, config));
+    }
+
+    private void whenConfig(Map<String, String> properties) {
+        when(config.getOptionalValue(anyString(), any())).thenAnswer(invocation -> {
+            String value = properties.get(invocation.<String>getArgument(0));
+            Class<?> propertyType = invocation.getArgument(1);
+            if (value == null) {
+                return Optional.empty();
+            }
+            if (propertyType == String.class) {
+                return Optional.of(value);
+            }
+            return Optional.of(propertyType.getMethod("valueOf", String.class).invoke(null, value));
+        });
+    }
+}
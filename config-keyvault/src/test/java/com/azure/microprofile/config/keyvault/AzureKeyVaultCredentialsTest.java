@@ -0,0 +1,65 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.identity.AzureCliCredential;
+import com.azure.identity.ClientCertificateCredential;
+import com.azure.identity.ClientSecretCredential;
+import com.azure.identity.DefaultAzureCredential;
+import com.azure.identity.ManagedIdentityCredential;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AzureKeyVaultCredentialsTest {
+
+    private static final String CLIENT_ID = "00000000-0000-0000-0000-000000000001";
+    private static final String TENANT_ID = "00000000-0000-0000-0000-000000000002";
+
+    @Test
+    void testDefaultCredential() {
+        assertInstanceOf(DefaultAzureCredential.class, AzureKeyVaultCredentials.create(new AzureKeyVaultOptions()));
+        assertInstanceOf(DefaultAzureCredential.class, AzureKeyVaultCredentials.create(new AzureKeyVaultOptions()
+                .setCredentialType("default")
+                .setCredentialClientId(CLIENT_ID)));
+    }
+
+    @Test
+    void testManagedIdentityCredential() {
+        assertInstanceOf(ManagedIdentityCredential.class, AzureKeyVaultCredentials.create(new AzureKeyVaultOptions()
+                .setCredentialType("managed-identity")
+                .setCredentialClientId(CLIENT_ID)));
+    }
+
+    @Test
+    void testClientCertificateCredentialWithTokenCache() {
+        assertInstanceOf(ClientCertificateCredential.class, AzureKeyVaultCredentials.create(new AzureKeyVaultOptions()
+                .setCredentialType("client-certificate")
+                .setCredentialClientId(CLIENT_ID)
+                .setCredentialTenantId(TENANT_ID)
+                .setCredentialClientCertificatePath("/etc/certs/client.pem")
+                .setTokenCacheEnabled(true)
+                .setTokenCacheUnencryptedStorageAllowed(true)));
+    }
+
+    @Test
+    void testClientSecretCredential() {
+        assertInstanceOf(ClientSecretCredential.class, AzureKeyVaultCredentials.create(new AzureKeyVaultOptions()
+                .setCredentialType("CLIENT-SECRET")
+                .setCredentialClientId(CLIENT_ID)
+                .setCredentialTenantId(TENANT_ID)
+                .setCredentialClientSecret("secret")));
+    }
+
+    @Test
+    void testAzureCliCredential() {
+        assertInstanceOf(AzureCliCredential.class, AzureKeyVaultCredentials.create(new AzureKeyVaultOptions().setCredentialType("azure-cli")));
+    }
+
+    @Test
+    void testUnsupportedCredentialTypeFails() {
+        assertThrows(IllegalArgumentException.class, () -> AzureKeyVaultCredentials.create(new AzureKeyVaultOptions().setCredentialType("unknown")));
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AzureKeyVaultEventHandlerTest {
+
+    private static final String VAULT_URL = "https://my-vault.vault.azure.net/";
+    private static final long ONE_DAY_IN_MS = 86400000L;
+
+    private KeyVaultStandIn vault;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn()
+                .setSecret("my-secret", "my-value")
+                .setSecret("other-secret", "other-value");
+    }
+
+    @AfterEach
+    void tearDown() {
+        vault.close();
+    }
+
+    @Test
+    void testEventGridEventRefetchesOnlyAffectedSecret() {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(ONE_DAY_IN_MS));
+        AzureKeyVaultEventHandler.register(VAULT_URL, operation);
+        assertEquals("my-value", operation.getValue("my-secret"));
+        vault.setSecret("my-secret", "my-value-rotated");
+
+        assertNull(AzureKeyVaultEventHandler.handle(eventGridEvent("Microsoft.KeyVault.SecretNewVersionCreated", "my-vault", "my-secret")));
+
+        assertEquals("my-value-rotated", operation.getValue("my-secret"));
+        assertEquals("my-value-rotated", operation.getValue("my.secret"));
+        assertEquals("other-value", operation.getValue("other-secret"));
+        assertEquals(1, vault.getListRequests());
+        assertEquals(3, vault.getGetRequests());
+    }
+
+    @Test
+    void testCloudEventsBatchAddsNewSecret() {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(ONE_DAY_IN_MS));
+        AzureKeyVaultEventHandler.register(VAULT_URL, operation);
+        operation.getPropertyNames();
+        vault.setSecret("new-secret", "new-value");
+
+        AzureKeyVaultEventHandler.handle("[{\"specversion\":\"1.0\",\"id\":\"1\","
+                + "\"source\":\"/subscriptions/0/resourceGroups/rg/providers/Microsoft.KeyVault/vaults/my-vault\","
+                + "\"type\":\"Microsoft.KeyVault.SecretNewVersionCreated\",\"subject\":\"new-secret\",\"data\":{\"Version\":\"1\"}}]");
+
+        assertEquals("new-value", operation.getValue("new-secret"));
+        assertEquals(3, operation.getPropertyNames().size());
+    }
+
+    @Test
+    void testEventOfOtherVaultIsIgnored() {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(ONE_DAY_IN_MS));
+        AzureKeyVaultEventHandler.register(VAULT_URL, operation);
+        operation.getPropertyNames();
+        vault.setSecret("my-secret", "my-value-rotated");
+
+        AzureKeyVaultEventHandler.handle(eventGridEvent("Microsoft.KeyVault.SecretNewVersionCreated", "other-vault", "my-secret"));
+        AzureKeyVaultEventHandler.handle(eventGridEvent("Microsoft.KeyVault.SecretNearExpiry", "my-vault", "my-secret"));
+
+        assertEquals("my-value", operation.getValue("my-secret"));
+        assertEquals(2, vault.getGetRequests());
+    }
+
+    @Test
+    void testLazyCacheEvictsRemappedLookups() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(ONE_DAY_IN_MS));
+        AzureKeyVaultEventHandler.register(VAULT_URL, operation);
+        assertEquals("my-value", operation.getValue("my.secret"));
+        vault.setSecret("my-secret", "my-value-rotated");
+
+        AzureKeyVaultEventHandler.handle(eventGridEvent("Microsoft.KeyVault.SecretNewVersionCreated", "my-vault", "my-secret"));
+
+        assertEquals(0, operation.getCachedEntries());
+        assertEquals("my-value-rotated", operation.getValue("my.secret"));
+    }
+
+    @Test
+    void testSubscriptionValidation() {
+        String response = AzureKeyVaultEventHandler.handle("[{\"id\":\"1\",\"topic\":\"/subscriptions/0\",\"subject\":\"\","
+                + "\"data\":{\"validationCode\":\"512d38b6-c7b8-40c8-89fe-f46f9e9622b6\"},"
+                + "\"eventType\":\"Microsoft.EventGrid.SubscriptionValidationEvent\",\"dataVersion\":\"2\"}]");
+
+        assertEquals("{\"validationResponse\":\"512d38b6-c7b8-40c8-89fe-f46f9e9622b6\"}", response);
+    }
+
+    @Test
+    void testInvalidPayload() {
+        assertThrows(IllegalArgumentException.class, () -> AzureKeyVaultEventHandler.handle("not json"));
+        assertThrows(IllegalArgumentException.class, () -> AzureKeyVaultEventHandler.handle("\"event\""));
+    }
+
+    @Test
+    void testVaultName() {
+        assertEquals("my-vault", AzureKeyVaultEventHandler.toVaultName("https://My-Vault.vault.azure.net/"));
+        assertEquals("my-vault", AzureKeyVaultEventHandler.toVaultName("https://my-vault.vault.azure.net/secrets/my-secret/1"));
+    }
+
+    private static String eventGridEvent(String eventType, String vaultName, String secretName) {
+        return "[{\"id\":\"1\",\"topic\":\"/subscriptions/0/resourceGroups/rg/providers/Microsoft.KeyVault/vaults/" + vaultName + "\","
+                + "\"subject\":\"" + secretName + "\",\"eventType\":\"" + eventType + "\","
+                + "\"data\":{\"Id\":\"https://" + vaultName + ".vault.azure.net/secrets/" + secretName + "/1\",\"VaultName\":\"" + vaultName + "\","
+                + "\"ObjectType\":\"Secret\",\"ObjectName\":\"" + secretName + "\",\"Version\":\"1\",\"NBF\":null,\"EXP\":null},"
+                + "\"dataVersion\":\"1\",\"metadataVersion\":\"1\",\"eventTime\":\"2024-01-01T00:00:00Z\"}]";
+    }
+}
@@ -0,0 +1,146 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AzureKeyVaultMetricsTest {
+
+    private KeyVaultStandIn vault;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn()
+                .setSecret("my-secret", "my-value")
+                .setSecret("other-secret", "other-value");
+    }
+
+    @AfterEach
+    void tearDown() {
+        vault.close();
+    }
+
+    @Test
+    void testCachedOperationRecordsLookupsAndCalls() {
+        SecretFetcher fetcher = new SecretFetcher(vault.newSecretClient(), new AzureKeyVaultOptions());
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(fetcher, new AzureKeyVaultOptions());
+        AzureKeyVaultMetrics metrics = fetcher.getMetrics();
+
+        assertEquals(-1, metrics.getSnapshotAgeInMs());
+        assertEquals("my-value", operation.getValue("my-secret"));
+        assertEquals("my-value", operation.getValue("my.secret"));
+        assertNull(operation.getValue("missing"));
+
+        assertEquals(1, metrics.getHitCount());
+        assertEquals(1, metrics.getRemappedHitCount());
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(1, metrics.getRefreshCount());
+        assertEquals(0, metrics.getRefreshFailureCount());
+        assertEquals(1, metrics.getListCallCount());
+        assertEquals(2, metrics.getSecretCallCount());
+        assertEquals(2, Arrays.stream(metrics.getSecretCallHistogram()).sum());
+        assertEquals(2, metrics.getCachedEntries());
+        assertEquals((long) "my-secretmy-valueother-secretother-value".length() * Character.BYTES, metrics.getCachedBytes());
+        assertTrue(metrics.getSnapshotAgeInMs() >= 0);
+    }
+
+    @Test
+    void testFailedRefreshIsRecorded() {
+        SecretFetcher fetcher = new SecretFetcher(vault.newSecretClient(), new AzureKeyVaultOptions());
+        IndexedAzureKeyVaultOperation operation = new IndexedAzureKeyVaultOperation(fetcher, new AzureKeyVaultOptions());
+        vault.failNext(4, 500);
+
+        assertThrows(RuntimeException.class, operation::getPropertyNames);
+
+        assertEquals(1, fetcher.getMetrics().getRefreshCount());
+        assertEquals(1, fetcher.getMetrics().getRefreshFailureCount());
+    }
+
+    @Test
+    void testThrottledCallsAreRecorded() {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(null);
+        SecretFetcher fetcher = new SecretFetcher(vault.newSecretClient(scheduler.newThrottlingPolicy()), 1, scheduler);
+        vault.throttleNext(1, 0);
+
+        assertEquals("my-value", fetcher.getSecretValue("my-secret"));
+
+        assertEquals(1, fetcher.getMetrics().getThrottledCallCount());
+    }
+
+    @Test
+    void testThrottledCallWhichFailsIsRecordedOncePerResponse() {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(null);
+        SecretFetcher fetcher = new SecretFetcher(vault.newSecretClient(scheduler.newThrottlingPolicy()), 1, scheduler);
+        vault.throttleNext(4, 0);
+
+        assertThrows(RuntimeException.class, () -> fetcher.getSecretValue("my-secret"));
+
+        assertEquals(4, vault.getGetRequests());
+        assertEquals(4, fetcher.getMetrics().getThrottledCallCount());
+    }
+
+    @Test
+    void testHistogramBuckets() {
+        AzureKeyVaultMetrics metrics = new AzureKeyVaultMetrics(new VaultRequestScheduler(null));
+
+        metrics.recordSecretCall(System.nanoTime());
+        metrics.recordSecretCall(System.nanoTime() - 30_000_000L);
+        metrics.recordSecretCall(System.nanoTime() - 60_000_000_000L);
+
+        long[] histogram = metrics.getSecretCallHistogram();
+        assertEquals(metrics.getHistogramBoundsInMs().length + 1, histogram.length);
+        assertEquals(1, histogram[0]);
+        assertEquals(1, histogram[3]);
+        assertEquals(1, histogram[histogram.length - 1]);
+        assertTrue(metrics.getSecretCallMaxTimeInMs() >= 60_000L);
+    }
+
+    @Test
+    void testRegisteredWithPlatformMBeanServer() throws Exception {
+        AzureKeyVaultMetrics metrics = new AzureKeyVaultMetrics(new VaultRequestScheduler(null));
+        metrics.recordHit(false);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        ObjectName name = metrics.register("https://my-vault.vault.azure.net/", AzureKeyVaultConfigSource.CACHE_MODE_ALL, new AzureKeyVaultOptions());
+        try {
+            assertNotNull(name);
+            assertEquals("\"my-vault.vault.azure.net\"", name.getKeyProperty("vault"));
+            assertEquals(1L, server.getAttribute(name, "HitCount"));
+            assertArrayEquals(metrics.getHistogramBoundsInMs(), (long[]) server.getAttribute(name, "HistogramBoundsInMs"));
+
+            // A config source created again for the same vault replaces the previous metrics
+            AzureKeyVaultMetrics replacement = new AzureKeyVaultMetrics(new VaultRequestScheduler(null));
+            assertEquals(name, replacement.register("https://my-vault.vault.azure.net/", AzureKeyVaultConfigSource.CACHE_MODE_ALL, new AzureKeyVaultOptions()));
+            assertEquals(0L, server.getAttribute(name, "HitCount"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    void testNotRegisteredIfDisabled() {
+        AzureKeyVaultMetrics metrics = new AzureKeyVaultMetrics(new VaultRequestScheduler(null));
+
+        assertNull(metrics.register("https://disabled.vault.azure.net/", AzureKeyVaultConfigSource.CACHE_MODE_ALL,
+                new AzureKeyVaultOptions().setMetricsEnabled(false)));
+        assertFalse(ManagementFactory.getPlatformMBeanServer().queryNames(null, null).stream()
+                .anyMatch(objectName -> objectName.toString().contains("disabled.vault.azure.net")));
+    }
+}
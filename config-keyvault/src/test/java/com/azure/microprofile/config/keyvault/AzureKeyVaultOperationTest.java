@@ -6,7 +6,10 @@ package com.azure.microprofile.config.keyvault;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AzureKeyVaultOperationTest {
 
@@ -22,6 +25,28 @@ class AzureKeyVaultOperationTest {
         assertEquals("my123Secret", AzureKeyVaultOperation.toKeyVaultSecretName("my123Secret"));
     }
 
+    @Test
+    void testToKeyVaultSecretNameReturnsValidInputItself() {
+        String secretName = "my-secret";
+        assertSame(secretName, AzureKeyVaultOperation.toKeyVaultSecretName(secretName));
+    }
+
+    @Test
+    void testIsKeyVaultSecretName() {
+        assertTrue(AzureKeyVaultOperation.isKeyVaultSecretName("my-Secret-123"));
+        assertFalse(AzureKeyVaultOperation.isKeyVaultSecretName("my.secret"));
+        assertFalse(AzureKeyVaultOperation.isKeyVaultSecretName("my_secret"));
+        assertFalse(AzureKeyVaultOperation.isKeyVaultSecretName(""));
+    }
+
+    @Test
+    void testSecretNameFilter() {
+        assertTrue(AzureKeyVaultOperation.secretNameFilter(AzureKeyVaultOperation.DEFAULT_SECRET_NAME_REGEX).test("my-secret"));
+        assertFalse(AzureKeyVaultOperation.secretNameFilter(AzureKeyVaultOperation.DEFAULT_SECRET_NAME_REGEX).test("my.secret"));
+        assertTrue(AzureKeyVaultOperation.secretNameFilter("^app-.+$").test("app-secret"));
+        assertFalse(AzureKeyVaultOperation.secretNameFilter("^app-.+$").test("my-secret"));
+    }
+
     @Test
     void testToKeyVaultSecretNameWithDottedInput() {
         assertEquals("my-secret-name", AzureKeyVaultOperation.toKeyVaultSecretName("my.secret.name"));
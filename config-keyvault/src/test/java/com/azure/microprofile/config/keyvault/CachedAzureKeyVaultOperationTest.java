@@ -13,12 +13,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +45,8 @@ class CachedAzureKeyVaultOperationTest {
     @Mock
     private PagedIterable<SecretProperties> secretPropertiesPagedIterable;
 
+    private final AtomicReference<String> secretValue = new AtomicReference<>(SECRET_VALUE);
+
     private CachedAzureKeyVaultOperation operation;
 
     @BeforeEach
@@ -92,6 +103,23 @@ class CachedAzureKeyVaultOperationTest {
         verify(secretClient, times(1)).getSecret(SECRET_NAME_UPDATED);
     }
 
+    @Test
+    void testGetPropertyNamesIsStableSnapshot() throws InterruptedException {
+        whenStubbing(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE));
+        Set<String> propertyNames = operation.getPropertyNames();
+        Map<String, String> properties = operation.getProperties();
+
+        // Wait for cache to expire, the refresh replaces the snapshot instead of clearing it
+        Thread.sleep(CACHE_REFRESH_INTERVAL);
+        whenStubbing(new KeyVaultSecret(SECRET_NAME_UPDATED, SECRET_VALUE_UPDATED));
+        assertEquals(Collections.singleton(SECRET_NAME_UPDATED), operation.getPropertyNames());
+
+        // Previously returned names and properties are not affected by the refresh
+        assertEquals(Collections.singleton(SECRET_NAME), propertyNames);
+        assertEquals(Collections.singletonMap(SECRET_NAME, SECRET_VALUE), properties);
+        assertThrows(UnsupportedOperationException.class, () -> propertyNames.remove(SECRET_NAME));
+    }
+
     @Test
     void testGetValue() throws NoSuchFieldException, IllegalAccessException, InterruptedException {
         whenStubbing(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE));
@@ -162,11 +190,232 @@ class CachedAzureKeyVaultOperationTest {
     }
 
     @Test
+    void testGetValueWithEnvironmentStyleSecretName() {
+        // Setup cache with remapped secret name
+        String remappedSecretName = "my-secret-name";
+        whenStubbing(new KeyVaultSecret(remappedSecretName, SECRET_VALUE));
+
+        // Initialize cache
+        operation.getProperties();
+
+        // Try to get value with underscored and upper-case environment style names
+        assertEquals(SECRET_VALUE, operation.getValue("my_secret_name"));
+        assertEquals(SECRET_VALUE, operation.getValue("MY_SECRET_NAME"));
+        assertNull(operation.getValue("MY.SECRET.NAME"));
+    }
+
+    @Test
     void testGetValueWithNullSecretName() {
         String value = operation.getValue(null);
         assertEquals(null, value);
     }
 
+    @Test
+    void testBackgroundRefreshServesPreviousValuesWhileReloading() throws InterruptedException {
+        operation = new CachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(2000L)
+                .setBackgroundRefresh(true)
+                .setRefreshAheadInMs(1000L));
+        CountDownLatch reloadStarted = new CountDownLatch(1);
+        CountDownLatch reloadReleased = new CountDownLatch(1);
+        KeyVaultSecret secret = new KeyVaultSecret(SECRET_NAME, SECRET_VALUE);
+        when(secretPropertiesPagedIterable.stream()).thenAnswer(invocation -> Stream.of(secret.getProperties()));
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretClient.getSecret(SECRET_NAME))
+                .thenReturn(secret)
+                .thenAnswer(invocation -> {
+                    reloadStarted.countDown();
+                    assertTrue(reloadReleased.await(10, TimeUnit.SECONDS));
+                    return new KeyVaultSecret(SECRET_NAME, SECRET_VALUE_UPDATED);
+                });
+
+        // First call loads the cache on the caller thread
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+
+        // The scheduler starts reloading before the cache expires, the previous value is served meanwhile
+        assertTrue(reloadStarted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(1500);
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        assertEquals(Collections.singletonMap(SECRET_NAME, SECRET_VALUE), operation.getProperties());
+
+        // Once the reload completes, the updated value is served
+        reloadReleased.countDown();
+        verify(secretClient, timeout(5000).atLeast(2)).listPropertiesOfSecrets();
+        verify(secretClient, timeout(5000).times(2)).getSecret(SECRET_NAME);
+        Thread.sleep(100);
+        assertEquals(SECRET_VALUE_UPDATED, operation.getValue(SECRET_NAME));
+    }
+
+    @Test
+    void testBackgroundRefreshFallsBackToCallerAfterMaxStaleness() throws InterruptedException {
+        operation = new CachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(1000L)
+                .setBackgroundRefresh(true)
+                .setRefreshAheadInMs(500L)
+                .setMaxStalenessInMs(500L)
+                .setCacheRetryBackoffInMs(0L));
+        AtomicBoolean vaultAvailable = new AtomicBoolean(true);
+        KeyVaultSecret secret = new KeyVaultSecret(SECRET_NAME, SECRET_VALUE);
+        when(secretPropertiesPagedIterable.stream()).thenAnswer(invocation -> Stream.of(secret.getProperties()));
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretClient.getSecret(SECRET_NAME)).thenAnswer(invocation -> {
+            if (!vaultAvailable.get()) {
+                throw new IllegalStateException("vault unavailable");
+            }
+            return new KeyVaultSecret(SECRET_NAME, secretValue.get());
+        });
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        vaultAvailable.set(false);
+        secretValue.set(SECRET_VALUE_UPDATED);
+
+        // Background refreshes keep failing, the expired value is served within max staleness
+        Thread.sleep(1200);
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+
+        // Beyond max staleness, the caller reloads the cache itself
+        Thread.sleep(500);
+        assertThrows(IllegalStateException.class, () -> operation.getValue(SECRET_NAME));
+        vaultAvailable.set(true);
+        assertEquals(SECRET_VALUE_UPDATED, operation.getValue(SECRET_NAME));
+    }
+
+    @Test
+    void testRefreshOnlyFetchesAddedOrChangedSecrets() throws InterruptedException {
+        operation = new CachedAzureKeyVaultOperation(secretClient, 200L);
+        OffsetDateTime initialUpdate = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        OffsetDateTime laterUpdate = OffsetDateTime.parse("2024-01-02T00:00:00Z");
+        SecretProperties unchanged = secretProperties("unchanged", initialUpdate);
+        SecretProperties changedBefore = secretProperties("changed", initialUpdate);
+        SecretProperties changedAfter = secretProperties("changed", laterUpdate);
+        SecretProperties deleted = secretProperties("deleted", initialUpdate);
+        SecretProperties added = secretProperties("added", laterUpdate);
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretPropertiesPagedIterable.stream())
+                .thenReturn(Stream.of(unchanged, changedBefore, deleted))
+                .thenReturn(Stream.of(unchanged, changedAfter, added));
+        when(secretClient.getSecret("unchanged")).thenReturn(new KeyVaultSecret("unchanged", "unchanged-value"));
+        when(secretClient.getSecret("changed"))
+                .thenReturn(new KeyVaultSecret("changed", "changed-value"))
+                .thenReturn(new KeyVaultSecret("changed", "changed-value-updated"));
+        when(secretClient.getSecret("deleted")).thenReturn(new KeyVaultSecret("deleted", "deleted-value"));
+        when(secretClient.getSecret("added")).thenReturn(new KeyVaultSecret("added", "added-value"));
+
+        assertEquals(Map.of("unchanged", "unchanged-value", "changed", "changed-value", "deleted", "deleted-value"),
+                operation.getProperties());
+
+        // Wait for cache to expire
+        Thread.sleep(300);
+
+        assertEquals(Map.of("unchanged", "unchanged-value", "changed", "changed-value-updated", "added", "added-value"),
+                operation.getProperties());
+        verify(secretClient, times(1)).getSecret("unchanged");
+        verify(secretClient, times(2)).getSecret("changed");
+        verify(secretClient, times(1)).getSecret("deleted");
+        verify(secretClient, times(1)).getSecret("added");
+    }
+
+    @Test
+    void testFailedRefreshBacksOffWhileServingExpiredValues() throws InterruptedException {
+        operation = new CachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(100L)
+                .setCacheRetryBackoffInMs(600L));
+        AtomicBoolean vaultAvailable = new AtomicBoolean(true);
+        KeyVaultSecret secret = new KeyVaultSecret(SECRET_NAME, SECRET_VALUE);
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretPropertiesPagedIterable.stream()).thenAnswer(invocation -> {
+            if (!vaultAvailable.get()) {
+                throw new IllegalStateException("vault unavailable");
+            }
+            return Stream.of(secret.getProperties());
+        });
+        when(secretClient.getSecret(SECRET_NAME)).thenAnswer(invocation -> new KeyVaultSecret(SECRET_NAME, secretValue.get()));
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        vaultAvailable.set(false);
+        Thread.sleep(150);
+
+        // The failed refresh is only reported to the lookup which attempted it, the next lookups don't retry until the backoff ends
+        assertThrows(IllegalStateException.class, () -> operation.getValue(SECRET_NAME));
+        vaultAvailable.set(true);
+        secretValue.set(SECRET_VALUE_UPDATED);
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        verify(secretPropertiesPagedIterable, times(2)).stream();
+
+        Thread.sleep(700);
+        assertEquals(SECRET_VALUE_UPDATED, operation.getValue(SECRET_NAME));
+        verify(secretPropertiesPagedIterable, times(3)).stream();
+    }
+
+    @Test
+    void testFailingBackgroundRefreshBacksOff() throws InterruptedException {
+        operation = new CachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(200L)
+                .setBackgroundRefresh(true)
+                .setRefreshAheadInMs(100L)
+                .setCacheRetryBackoffInMs(200L)
+                .setCacheMaxRetryBackoffInMs(10000L));
+        AtomicBoolean vaultAvailable = new AtomicBoolean(true);
+        AtomicInteger failedRefreshes = new AtomicInteger();
+        KeyVaultSecret secret = new KeyVaultSecret(SECRET_NAME, SECRET_VALUE);
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretPropertiesPagedIterable.stream()).thenAnswer(invocation -> {
+            if (!vaultAvailable.get()) {
+                failedRefreshes.incrementAndGet();
+                throw new IllegalStateException("vault unavailable");
+            }
+            return Stream.of(secret.getProperties());
+        });
+        when(secretClient.getSecret(SECRET_NAME)).thenReturn(secret);
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        vaultAvailable.set(false);
+
+        // Background refreshes fail at about 100, 300, 700 and 1500 ms, instead of every 100 ms
+        Thread.sleep(1300);
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        int failures = failedRefreshes.get();
+        assertTrue(failures >= 2 && failures <= 4, "Background refreshes must back off, but failed " + failures + " times");
+    }
+
+    @Test
+    void testBackgroundRefreshContinuesAfterError() throws InterruptedException {
+        operation = new CachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(200L)
+                .setBackgroundRefresh(true)
+                .setRefreshAheadInMs(100L)
+                .setCacheRetryBackoffInMs(200L)
+                .setCacheMaxRetryBackoffInMs(10000L));
+        AtomicBoolean vaultAvailable = new AtomicBoolean(true);
+        AtomicInteger failedRefreshes = new AtomicInteger();
+        KeyVaultSecret secret = new KeyVaultSecret(SECRET_NAME, SECRET_VALUE);
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretPropertiesPagedIterable.stream()).thenAnswer(invocation -> {
+            if (!vaultAvailable.get()) {
+                failedRefreshes.incrementAndGet();
+                throw new NoClassDefFoundError("vault unavailable");
+            }
+            return Stream.of(secret.getProperties());
+        });
+        when(secretClient.getSecret(SECRET_NAME)).thenReturn(secret);
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        vaultAvailable.set(false);
+
+        // The background refresh is scheduled again after the error, instead of stopping for good
+        Thread.sleep(1300);
+        int failures = failedRefreshes.get();
+        assertTrue(failures >= 2, "Background refresh must continue after an error, but failed " + failures + " times");
+    }
+
+    private SecretProperties secretProperties(String name, OffsetDateTime updatedOn) {
+        SecretProperties properties = mock(SecretProperties.class);
+        lenient().when(properties.getName()).thenReturn(name);
+        lenient().when(properties.getUpdatedOn()).thenReturn(updatedOn);
+        return properties;
+    }
+
     private void whenStubbing(KeyVaultSecret keyVaultSecret) {
         when(secretPropertiesPagedIterable.stream()).thenReturn(Stream.of(keyVaultSecret.getProperties()));
         when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
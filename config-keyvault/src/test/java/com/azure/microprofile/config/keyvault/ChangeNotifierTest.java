@@ -0,0 +1,134 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeNotifierTest {
+
+    private final BlockingQueue<AzureKeyVaultChangeEvent> events = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+    private final AzureKeyVaultChangeListener listener = event -> {
+        threads.add(Thread.currentThread().getName());
+        events.add(event);
+    };
+
+    private KeyVaultStandIn vault;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn();
+        vault.setSecret("secret-1", "value-1");
+        vault.setSecret("secret-2", "value-2");
+        AzureKeyVaultConfigSource.addChangeListener(listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        AzureKeyVaultConfigSource.removeChangeListener(listener);
+        vault.close();
+    }
+
+    @Test
+    void testDiff() {
+        Map<String, String> previous = new HashMap<>();
+        previous.put("kept", "value");
+        previous.put("changed", "value");
+        previous.put("removed", "value");
+        Map<String, String> current = new HashMap<>();
+        current.put("kept", "value");
+        current.put("changed", "new-value");
+        current.put("added", "value");
+
+        AzureKeyVaultChangeEvent event = ChangeNotifier.diff("https://test.vault.azure.net", previous, current);
+
+        assertEquals(Collections.singleton("added"), event.getAddedKeys());
+        assertEquals(Collections.singleton("changed"), event.getChangedKeys());
+        assertEquals(Collections.singleton("removed"), event.getRemovedKeys());
+        assertTrue(ChangeNotifier.diff("https://test.vault.azure.net", previous, previous).isEmpty());
+    }
+
+    @Test
+    void testCachedReloadNotifiesChangesOffRefreshThread() throws InterruptedException {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(200L));
+        assertEquals("value-1", operation.getValue("secret-1"));
+
+        vault.setSecret("secret-1", "value-1-rotated");
+        vault.setSecret("secret-3", "value-3");
+        Thread.sleep(300);
+        assertEquals("value-1-rotated", operation.getValue("secret-1"));
+
+        AzureKeyVaultChangeEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(Collections.singleton("secret-3"), event.getAddedKeys());
+        assertEquals(Collections.singleton("secret-1"), event.getChangedKeys());
+        assertTrue(event.getRemovedKeys().isEmpty());
+        assertEquals("azure-keyvault-change-notifier", threads.poll());
+        assertNull(events.poll(300, TimeUnit.MILLISECONDS), "The initial load must not be published");
+    }
+
+    @Test
+    void testUnchangedReloadIsNotPublished() throws InterruptedException {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(100L));
+        operation.getPropertyNames();
+        Thread.sleep(200);
+        operation.getPropertyNames();
+
+        assertEquals(2, vault.getListRequests());
+        assertNull(events.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testLazyRefetchNotifiesChangedValue() throws InterruptedException {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(100L));
+        assertEquals("value-2", operation.getValue("secret-2"));
+
+        vault.setSecret("secret-2", "value-2-rotated");
+        Thread.sleep(200);
+        assertEquals("value-2-rotated", operation.getValue("secret-2"));
+
+        AzureKeyVaultChangeEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(Collections.singleton("secret-2"), event.getChangedKeys());
+    }
+
+    @Test
+    void testFailingListenerDoesNotPreventOthers() throws InterruptedException {
+        AzureKeyVaultChangeListener failing = event -> {
+            throw new IllegalStateException("listener failure");
+        };
+        AzureKeyVaultConfigSource.removeChangeListener(listener);
+        AzureKeyVaultConfigSource.addChangeListener(failing);
+        AzureKeyVaultConfigSource.addChangeListener(listener);
+        try {
+            AzureKeyVaultChangeEvent published = new AzureKeyVaultChangeEvent("https://test.vault.azure.net",
+                    Collections.singleton("secret-1"), new HashSet<>(), new HashSet<>());
+            ChangeNotifier.publish(published);
+
+            assertSame(published, events.poll(5, TimeUnit.SECONDS));
+        } finally {
+            AzureKeyVaultConfigSource.removeChangeListener(failing);
+        }
+    }
+}
@@ -9,9 +9,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.lang.reflect.Field;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,4 +40,58 @@ class DefaultCachingBehaviorTest {
         // This test mainly verifies that the default caching behavior has been changed from false to true
         // in the source code, which we can verify by code inspection
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDefaultCacheModeUsesCachedOperation() throws NoSuchFieldException, IllegalAccessException {
+        whenConfig(Map.of("azure.keyvault.url", "https://my-vault.vault.azure.net"));
+
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(null, config);
+
+        assertInstanceOf(CachedAzureKeyVaultOperation.class, getKeyVaultOperation(configSource));
+    }
+
+    @Test
+    void testNamesCacheModeUsesIndexedOperation() throws NoSuchFieldException, IllegalAccessException {
+        whenConfig(Map.of("azure.keyvault.url", "https://my-vault.vault.azure.net", "azure.keyvault.cache.mode", "names"));
+
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(null, config);
+
+        assertInstanceOf(IndexedAzureKeyVaultOperation.class, getKeyVaultOperation(configSource));
+    }
+
+    @Test
+    void testLazyCacheModeUsesLazyCachedOperation() throws NoSuchFieldException, IllegalAccessException {
+        whenConfig(Map.of("azure.keyvault.url", "https://my-vault.vault.azure.net", "azure.keyvault.cache.mode", "lazy"));
+
+        AzureKeyVaultConfigSource configSource = new AzureKeyVaultConfigSource(null, config);
+
+        assertInstanceOf(LazyCachedAzureKeyVaultOperation.class, getKeyVaultOperation(configSource));
+    }
+
+    @Test
+    void testUnsupportedCacheModeFails() {
+        whenConfig(Map.of("azure.keyvault.url", "https://my-vault.vault.azure.net", "azure.keyvault.cache.mode", "unknown"));
+
+        assertThrows(IllegalArgumentException.class, () -> new AzureKeyVaultConfigSource(null, config));
+    }
+
+    private void whenConfig(Map<String, String> properties) {
+        when(config.getOptionalValue(anyString(), any())).thenAnswer(invocation -> {
+            String value = properties.get(invocation.<String>getArgument(0));
+            Class<?> propertyType = invocation.getArgument(1);
+            if (value == null) {
+                return Optional.empty();
+            }
+            if (propertyType == String.class) {
+                return Optional.of(value);
+            }
+            return Optional.of(propertyType.getMethod("valueOf", String.class).invoke(null, value));
+        });
+    }
+
+    private AzureKeyVaultOperation getKeyVaultOperation(AzureKeyVaultConfigSource configSource) throws NoSuchFieldException, IllegalAccessException {
+        Field keyVaultOperationField = AzureKeyVaultConfigSource.class.getDeclaredField("keyVaultOperation");
+        keyVaultOperationField.setAccessible(true);
+        return (AzureKeyVaultOperation) keyVaultOperationField.get(configSource);
+    }
+}
@@ -0,0 +1,109 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.json.JsonProviders;
+import com.azure.json.JsonReader;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncryptedSnapshotStoreTest {
+
+    private static final String VAULT_URL = "https://test.vault.azure.net";
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_KEY = Base64.getEncoder().encodeToString(new byte[16]);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        EncryptedSnapshotStore store = new EncryptedSnapshotStore(directory.resolve("snapshot.bin"), KEY, VAULT_URL);
+        SecretProperties properties = secretProperties("key1", "0123456789abcdef", 1700000001L);
+
+        store.write(new SecretsSnapshot(Collections.singletonMap("key1", "value1"), Collections.singletonMap("key1", properties), 42L));
+        SecretsSnapshot restored = store.read();
+
+        assertTrue(restored.isRestored());
+        assertEquals(42L, restored.getLoadedAtInMs());
+        assertEquals("value1", restored.get("key1"));
+        assertEquals("key1", restored.resolve("KEY1"));
+        assertEquals("value1", restored.getValueIfUnchanged(properties));
+        assertNull(restored.getValueIfUnchanged(secretProperties("key1", "fedcba9876543210", 1700000002L)));
+    }
+
+    @Test
+    void testFileDoesNotContainPlaintext() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        EncryptedSnapshotStore store = new EncryptedSnapshotStore(path, KEY, VAULT_URL);
+
+        store.write(new SecretsSnapshot(Collections.singletonMap("plain-name", "plain-value"), 1L));
+
+        String content = new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+        assertFalse(content.contains("plain-name"));
+        assertFalse(content.contains("plain-value"));
+    }
+
+    @Test
+    void testMissingFileIsNotRead() {
+        assertNull(new EncryptedSnapshotStore(directory.resolve("missing.bin"), KEY, VAULT_URL).read());
+    }
+
+    @Test
+    void testFileOfOtherKeyOrVaultIsNotRead() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        Map<String, String> secrets = new HashMap<>();
+        secrets.put("key1", "value1");
+        new EncryptedSnapshotStore(path, KEY, VAULT_URL).write(new SecretsSnapshot(secrets, 1L));
+
+        assertNull(new EncryptedSnapshotStore(path, OTHER_KEY, VAULT_URL).read());
+        assertNull(new EncryptedSnapshotStore(path, KEY, "https://other.vault.azure.net").read());
+    }
+
+    @Test
+    void testTamperedFileIsNotRead() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        EncryptedSnapshotStore store = new EncryptedSnapshotStore(path, KEY, VAULT_URL);
+        store.write(new SecretsSnapshot(Collections.singletonMap("key1", "value1"), 1L));
+
+        byte[] content = Files.readAllBytes(path);
+        content[content.length - 1] ^= 1;
+        Files.write(path, content);
+
+        assertNull(store.read());
+    }
+
+    @Test
+    void testInvalidKeyIsRejected() {
+        Path path = directory.resolve("snapshot.bin");
+
+        assertThrows(IllegalArgumentException.class, () -> new EncryptedSnapshotStore(path, null, VAULT_URL));
+        assertThrows(IllegalArgumentException.class, () -> new EncryptedSnapshotStore(path, "not base64!", VAULT_URL));
+        assertThrows(IllegalArgumentException.class, () -> new EncryptedSnapshotStore(path, Base64.getEncoder().encodeToString(new byte[10]), VAULT_URL));
+    }
+
+    private static SecretProperties secretProperties(String name, String version, long updatedInSeconds) throws IOException {
+        String json = "{\"id\":\"" + VAULT_URL + "/secrets/" + name + "/" + version + "\",\"attributes\":{\"enabled\":true,\"updated\":"
+                + updatedInSeconds + ",\"recoveryLevel\":\"Recoverable+Purgeable\"}}";
+        try (JsonReader reader = JsonProviders.createReader(json)) {
+            return SecretProperties.fromJson(reader);
+        }
+    }
+}
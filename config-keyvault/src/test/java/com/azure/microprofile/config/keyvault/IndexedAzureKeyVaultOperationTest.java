@@ -0,0 +1,133 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.http.rest.PagedIterable;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexedAzureKeyVaultOperationTest {
+
+    private static final String SECRET_NAME = "my-secret";
+    private static final String SECRET_VALUE = "my-secret-value";
+    private static final String SECRET_VALUE_UPDATED = "my-secret-value-updated";
+
+    @Mock
+    private SecretClient secretClient;
+
+    @Mock
+    private PagedIterable<SecretProperties> secretPropertiesPagedIterable;
+
+    private IndexedAzureKeyVaultOperation operation;
+
+    @BeforeEach
+    void setUp() {
+        operation = new IndexedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(200L));
+    }
+
+    @Test
+    void testGetValueFetchesIndexedSecretEveryTime() {
+        whenListing(SECRET_NAME);
+        when(secretClient.getSecret(SECRET_NAME))
+                .thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE))
+                .thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE_UPDATED));
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        assertEquals(SECRET_VALUE_UPDATED, operation.getValue(SECRET_NAME));
+        verify(secretClient, times(1)).listPropertiesOfSecrets();
+        verify(secretClient, times(2)).getSecret(SECRET_NAME);
+    }
+
+    @Test
+    void testGetValueWithUnknownSecretNameIsAnsweredLocally() {
+        whenListing(SECRET_NAME);
+
+        assertNull(operation.getValue("unknown-secret"));
+        assertNull(operation.getValue("unknown.property.name"));
+        verify(secretClient, times(1)).listPropertiesOfSecrets();
+        verify(secretClient, never()).getSecret(any());
+    }
+
+    @Test
+    void testGetValueWithDottedSecretName() {
+        whenListing("my-secret-name");
+        when(secretClient.getSecret("my-secret-name")).thenReturn(new KeyVaultSecret("my-secret-name", SECRET_VALUE));
+
+        assertEquals(SECRET_VALUE, operation.getValue("my.secret.name"));
+        verify(secretClient, never()).getSecret("my.secret.name");
+    }
+
+    @Test
+    void testGetValueWithNullSecretName() {
+        assertNull(operation.getValue(null));
+        verify(secretClient, never()).listPropertiesOfSecrets();
+    }
+
+    @Test
+    void testIndexIsRefreshedAfterExpiry() throws InterruptedException {
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretPropertiesPagedIterable.stream())
+                .thenReturn(Stream.of(secretProperties(SECRET_NAME)))
+                .thenReturn(Stream.of(secretProperties("another-secret")));
+
+        assertEquals(Collections.singleton(SECRET_NAME), operation.getPropertyNames());
+        assertEquals(Collections.singleton(SECRET_NAME), operation.getPropertyNames());
+
+        // Wait for index to expire
+        Thread.sleep(300);
+
+        assertEquals(Collections.singleton("another-secret"), operation.getPropertyNames());
+        verify(secretClient, times(2)).listPropertiesOfSecrets();
+    }
+
+    @Test
+    void testExpiredIndexIsUsedIfRefreshFails() throws InterruptedException {
+        when(secretClient.listPropertiesOfSecrets())
+                .thenReturn(secretPropertiesPagedIterable)
+                .thenThrow(new IllegalStateException("vault unavailable"));
+        when(secretPropertiesPagedIterable.stream()).thenReturn(Stream.of(secretProperties(SECRET_NAME)));
+
+        assertEquals(Collections.singleton(SECRET_NAME), operation.getPropertyNames());
+
+        // Wait for index to expire
+        Thread.sleep(300);
+
+        assertEquals(Collections.singleton(SECRET_NAME), operation.getPropertyNames());
+    }
+
+    @Test
+    void testGetProperties() {
+        whenListing(SECRET_NAME);
+        when(secretClient.getSecret(SECRET_NAME)).thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE));
+
+        Map<String, String> properties = operation.getProperties();
+
+        assertEquals(Collections.singletonMap(SECRET_NAME, SECRET_VALUE), properties);
+    }
+
+    private void whenListing(String secretName) {
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretPropertiesPagedIterable.stream()).thenReturn(Stream.of(secretProperties(secretName)));
+    }
+
+    private SecretProperties secretProperties(String secretName) {
+        return new KeyVaultSecret(secretName, "").getProperties();
+    }
+}
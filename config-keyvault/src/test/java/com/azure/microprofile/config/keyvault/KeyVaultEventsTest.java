@@ -0,0 +1,113 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyVaultEventsTest {
+
+    private KeyVaultStandIn vault;
+
+    @TempDir
+    Path recordingDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn().setSecret("my-secret", "my-value");
+    }
+
+    @AfterEach
+    void tearDown() {
+        vault.close();
+    }
+
+    @Test
+    void testHashDoesNotDiscloseName() {
+        String hash = KeyVaultEvents.hash("my-secret");
+
+        assertEquals(16, hash.length());
+        assertEquals(hash, KeyVaultEvents.hash("my-secret"));
+        assertFalse(hash.equals(KeyVaultEvents.hash("my.secret")));
+        assertFalse(hash.contains("secret"));
+        assertNull(KeyVaultEvents.hash(null));
+    }
+
+    @Test
+    void testLookupRecordsVaultCallAndStall() throws IOException {
+        NoCacheAzureKeyVaultOperation operation = new NoCacheAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+
+        List<RecordedEvent> events = record(() -> assertEquals("my-value", operation.getValue("my-secret")));
+
+        RecordedEvent call = single(events, "VaultCall");
+        assertEquals("getSecret", call.getString("call"));
+        assertEquals(KeyVaultEvents.hash("my-secret"), call.getString("secretNameHash"));
+        assertEquals("INTERACTIVE", call.getString("priority"));
+        assertTrue(call.getBoolean("succeeded"));
+        assertEquals(Thread.currentThread().getName(), call.getThread().getJavaName());
+
+        RecordedEvent stall = single(events, "LookupStall");
+        assertEquals(KeyVaultEvents.CAUSE_REMOTE, stall.getString("cause"));
+        assertEquals(KeyVaultEvents.hash("my-secret"), stall.getString("propertyNameHash"));
+        assertTrue(stall.getDuration().compareTo(call.getDuration()) >= 0);
+        events.forEach(event -> assertFalse(event.toString().contains("my-value")));
+    }
+
+    @Test
+    void testCachedLoadRecordsRefreshAndListing() throws IOException {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+
+        List<RecordedEvent> events = record(() -> assertEquals("my-value", operation.getValue("my-secret")));
+
+        RecordedEvent refresh = single(events, "Refresh");
+        assertEquals(AzureKeyVaultConfigSource.CACHE_MODE_ALL, refresh.getString("mode"));
+        assertEquals(1, refresh.getInt("secrets"));
+        assertTrue(refresh.getBoolean("succeeded"));
+        assertEquals("list", single(events, "VaultCall", "list").getString("call"));
+        assertEquals(KeyVaultEvents.CAUSE_REFRESH, single(events, "LookupStall").getString("cause"));
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        Path file = recordingDirectory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String eventName : new String[] {"VaultCall", "Refresh", "LookupStall"}) {
+                recording.enable("com.azure.microprofile.config.keyvault." + eventName).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String eventName) {
+        return single(events, eventName, null);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String eventName, String call) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.azure.microprofile.config.keyvault." + eventName))
+                .filter(event -> call == null || call.equals(event.getString("call")))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), eventName);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,317 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.policy.ExponentialBackoff;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.http.policy.RetryPolicy;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.SecretClientBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in of the Azure Key Vault secrets REST API, listening on localhost.
+ *
+ * <ul>
+ *     <li>It serves the list and get secret calls from a fixture set of secrets, listing them in pages of pageSize. Every version of a secret can be read.</li>
+ *     <li>Every request is answered after latencyInMs, which simulates the round trip to Azure Key Vault.</li>
+ *     <li>Queued faults answer the next requests with HTTP 429 and Retry-After, or with 5xx errors, before serving them again.</li>
+ * </ul>
+ */
+final class KeyVaultStandIn implements AutoCloseable {
+    private static final String SECRETS_PATH = "/secrets";
+    private static final long CREATED_IN_SECONDS = 1700000000L;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, String> secrets = new ConcurrentHashMap<>();
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+    private final Map<String, String> versionValues = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final Queue<Fault> faults = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger listRequests = new AtomicInteger();
+    private final AtomicInteger getRequests = new AtomicInteger();
+    private volatile long latencyInMs;
+    private volatile int pageSize = 25;
+
+    /**
+     * Start a stand-in on an ephemeral port of localhost.
+     *
+     * @throws IOException if the server cannot be started.
+     */
+    KeyVaultStandIn() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "key-vault-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext(SECRETS_PATH, this::handle);
+        this.server.start();
+    }
+
+    /**
+     * Get the URL of the stand-in, which is used as vault URL.
+     *
+     * @return the URL of the stand-in.
+     */
+    String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Create a {@link SecretClient} which sends its requests to the stand-in.
+     *
+     * @param policies additional policies of the pipeline, which are run for every retry
+     * @return the {@link SecretClient}.
+     * @implNote The pipeline has no authentication policy, which requires HTTPS, and retries throttled or failed requests
+     * like the default pipeline does, honoring Retry-After.
+     */
+    SecretClient newSecretClient(HttpPipelinePolicy... policies) {
+        List<HttpPipelinePolicy> pipelinePolicies = new ArrayList<>();
+        pipelinePolicies.add(new RetryPolicy(new ExponentialBackoff(3, Duration.ofMillis(10), Duration.ofMillis(100))));
+        pipelinePolicies.addAll(Arrays.asList(policies));
+        return new SecretClientBuilder()
+                .vaultUrl(getUrl())
+                .pipeline(new HttpPipelineBuilder()
+                        .policies(pipelinePolicies.toArray(new HttpPipelinePolicy[0]))
+                        .httpClient(HttpClient.createDefault())
+                        .build())
+                .buildClient();
+    }
+
+    /**
+     * Add or update a secret of the fixture set, which changes its version and update time.
+     *
+     * @param secretName  name of the secret
+     * @param secretValue value of the secret
+     * @return this stand-in.
+     */
+    KeyVaultStandIn setSecret(String secretName, String secretValue) {
+        contentTypes.remove(secretName);
+        secrets.put(secretName, secretValue);
+        versionValues.put(secretName + "/" + getVersion(versions.merge(secretName, 1, Integer::sum)), secretValue);
+        return this;
+    }
+
+    /**
+     * Add or update a secret of the fixture set with a content type, which changes its version and update time.
+     *
+     * @param secretName  name of the secret
+     * @param secretValue value of the secret
+     * @param contentType content type of the secret
+     * @return this stand-in.
+     */
+    KeyVaultStandIn setSecret(String secretName, String secretValue, String contentType) {
+        setSecret(secretName, secretValue);
+        contentTypes.put(secretName, contentType);
+        return this;
+    }
+
+    /**
+     * Get the identifier of a secret version, the secret gets a new version every time it is set.
+     *
+     * @param version number of times the secret was set
+     * @return the 32 hexadecimal digits version.
+     */
+    static String getVersion(int version) {
+        return String.format("%032x", version);
+    }
+
+    /**
+     * Set the latency of every request.
+     *
+     * @param latencyInMs latency in milliseconds
+     * @return this stand-in.
+     */
+    KeyVaultStandIn setLatencyInMs(long latencyInMs) {
+        this.latencyInMs = latencyInMs;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of secrets in a page of the list call.
+     *
+     * @param pageSize page size
+     * @return this stand-in.
+     */
+    KeyVaultStandIn setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Answer the next requests with HTTP 429.
+     *
+     * @param requests          number of throttled requests
+     * @param retryAfterSeconds value of the Retry-After header
+     * @return this stand-in.
+     */
+    KeyVaultStandIn throttleNext(int requests, int retryAfterSeconds) {
+        for (int i = 0; i < requests; i++) {
+            faults.add(new Fault(429, retryAfterSeconds));
+        }
+        return this;
+    }
+
+    /**
+     * Answer the next requests with a server error.
+     *
+     * @param requests   number of failed requests
+     * @param statusCode 5xx status code
+     * @return this stand-in.
+     */
+    KeyVaultStandIn failNext(int requests, int statusCode) {
+        for (int i = 0; i < requests; i++) {
+            faults.add(new Fault(statusCode, 0));
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of list calls, counting every page and every faulted call.
+     *
+     * @return the number of list calls.
+     */
+    int getListRequests() {
+        return listRequests.get();
+    }
+
+    /**
+     * Get the number of get secret calls, counting every faulted call.
+     *
+     * @return the number of get secret calls.
+     */
+    int getGetRequests() {
+        return getRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath();
+            boolean list = path.equals(SECRETS_PATH) || path.equals(SECRETS_PATH + "/");
+            (list ? listRequests : getRequests).incrementAndGet();
+
+            if (latencyInMs > 0) {
+                Thread.sleep(latencyInMs);
+            }
+
+            Fault fault = faults.poll();
+            if (fault != null) {
+                if (fault.retryAfterSeconds > 0) {
+                    exchange.getResponseHeaders().set("Retry-After", String.valueOf(fault.retryAfterSeconds));
+                }
+                respond(exchange, fault.statusCode, error(fault.statusCode == 429 ? "Throttled" : "ServiceUnavailable", "Injected fault"));
+            } else if (list) {
+                listSecrets(exchange, uri.getRawQuery());
+            } else {
+                String[] segments = path.substring(SECRETS_PATH.length() + 1).split("/", 2);
+                getSecret(exchange, segments[0], segments.length > 1 && !segments[1].isEmpty() ? segments[1] : null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void getSecret(HttpExchange exchange, String secretName, String version) throws IOException {
+        String value = version == null ? secrets.get(secretName) : versionValues.get(secretName + "/" + version);
+        if (value == null) {
+            respond(exchange, 404, error("SecretNotFound", "A secret with (name/id) " + secretName + " was not found in this key vault."));
+            return;
+        }
+        respond(exchange, 200, "{\"value\":\"" + escape(value) + "\"," + contentType(secretName)
+                + "\"id\":\"" + getUrl() + SECRETS_PATH + "/" + secretName + "/"
+                + (version == null ? getVersion(versions.get(secretName)) : version) + "\",\"attributes\":" + attributes(secretName) + "}");
+    }
+
+    private void listSecrets(HttpExchange exchange, String query) throws IOException {
+        int skip = query != null && query.contains("$skiptoken=") ? Integer.parseInt(query.replaceAll(".*\\$skiptoken=(\\d+).*", "$1")) : 0;
+        List<String> secretNames = new ArrayList<>(secrets.keySet());
+        secretNames.sort(null);
+
+        StringBuilder body = new StringBuilder("{\"value\":[");
+        int end = Math.min(skip + pageSize, secretNames.size());
+        for (int i = skip; i < end; i++) {
+            body.append(i > skip ? "," : "").append("{\"id\":\"").append(getUrl()).append(SECRETS_PATH).append('/').append(secretNames.get(i))
+                    .append("\",").append(contentType(secretNames.get(i))).append("\"attributes\":").append(attributes(secretNames.get(i))).append('}');
+        }
+        body.append("],\"nextLink\":");
+        if (end < secretNames.size()) {
+            body.append('"').append(getUrl()).append(SECRETS_PATH).append("?api-version=7.5&maxresults=").append(pageSize)
+                    .append("&$skiptoken=").append(end).append('"');
+        } else {
+            body.append("null");
+        }
+        respond(exchange, 200, body.append('}').toString());
+    }
+
+    private String attributes(String secretName) {
+        return "{\"enabled\":true,\"created\":" + CREATED_IN_SECONDS + ",\"updated\":" + (CREATED_IN_SECONDS + versions.getOrDefault(secretName, 0))
+                + ",\"recoveryLevel\":\"Recoverable+Purgeable\",\"recoverableDays\":90}";
+    }
+
+    private String contentType(String secretName) {
+        String contentType = contentTypes.get(secretName);
+        return contentType == null ? "" : "\"contentType\":\"" + escape(contentType) + "\",";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String error(String code, String message) {
+        return "{\"error\":{\"code\":\"" + code + "\",\"message\":\"" + message + "\"}}";
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    /**
+     * Injected fault of a request.
+     */
+    private static final class Fault {
+        private final int statusCode;
+        private final int retryAfterSeconds;
+
+        private Fault(int statusCode, int retryAfterSeconds) {
+            this.statusCode = statusCode;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency, throttling and failure tests of the operations against {@link KeyVaultStandIn}, which run without a real vault.
+ */
+class KeyVaultStandInTest {
+
+    private static final int SECRET_COUNT = 60;
+
+    private KeyVaultStandIn vault;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn();
+        for (int i = 0; i < SECRET_COUNT; i++) {
+            vault.setSecret("secret-" + i, "value-" + i);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        vault.close();
+    }
+
+    @Test
+    void testCachedOperationLoadsAllPages() {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+
+        assertEquals(SECRET_COUNT, operation.getPropertyNames().size());
+        assertEquals("value-42", operation.getValue("secret.42"));
+        assertEquals(3, vault.getListRequests());
+        assertEquals(SECRET_COUNT, vault.getGetRequests());
+    }
+
+    @Test
+    void testCachedLookupsDoNotWaitOnSlowVault() {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+        operation.getPropertyNames();
+        vault.setLatencyInMs(200);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals("value-" + (i % SECRET_COUNT), operation.getValue("secret-" + (i % SECRET_COUNT)));
+        }
+
+        assertTrue(System.nanoTime() - start < 200_000_000L, "Cached lookups must not call the vault");
+    }
+
+    @Test
+    void testThrottledLookupIsRetriedAfterRetryAfter() {
+        NoCacheAzureKeyVaultOperation operation = new NoCacheAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+        vault.throttleNext(1, 1);
+
+        long start = System.nanoTime();
+        assertEquals("value-1", operation.getValue("secret-1"));
+
+        assertTrue(System.nanoTime() - start >= 1_000_000_000L, "The retry must wait for Retry-After");
+        assertEquals(2, vault.getGetRequests());
+    }
+
+    @Test
+    void testThrottledCallPausesOtherCalls() throws Exception {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(null);
+        SecretFetcher fetcher = new SecretFetcher(vault.newSecretClient(scheduler.newThrottlingPolicy()), 1, scheduler);
+        vault.throttleNext(1, 1);
+
+        CompletableFuture<String> throttled = CompletableFuture.supplyAsync(() -> fetcher.getSecret("secret-1").getValue());
+        Thread.sleep(200);
+        long start = System.nanoTime();
+        assertEquals("value-2", fetcher.getSecret("secret-2").getValue());
+
+        assertTrue(System.nanoTime() - start >= 500_000_000L, "Other calls must wait for Retry-After of the throttled call");
+        assertEquals("value-1", throttled.get(5, TimeUnit.SECONDS));
+        assertEquals(3, vault.getGetRequests());
+    }
+
+    @Test
+    void testEveryListPageTakesToken() {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(1000);
+        SecretFetcher fetcher = new SecretFetcher(vault.newSecretClient(scheduler.newThrottlingPolicy()), 1, scheduler);
+
+        assertEquals(SECRET_COUNT, fetcher.listSecretProperties().count());
+
+        assertEquals(3, vault.getListRequests());
+        assertEquals(3, scheduler.getTakenTokens());
+    }
+
+    @Test
+    void testEveryRetryTakesToken() {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(1000);
+        SecretFetcher fetcher = new SecretFetcher(vault.newSecretClient(scheduler.newThrottlingPolicy()), 1, scheduler);
+        vault.failNext(2, 503);
+
+        assertEquals("value-1", fetcher.getSecret("secret-1").getValue());
+
+        assertEquals(3, vault.getGetRequests());
+        assertEquals(3, scheduler.getTakenTokens());
+    }
+
+    @Test
+    void testServerErrorsAreRetried() {
+        NoCacheAzureKeyVaultOperation operation = new NoCacheAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+        vault.failNext(2, 503);
+
+        assertEquals("value-1", operation.getValue("secret-1"));
+        assertEquals(3, vault.getGetRequests());
+    }
+
+    @Test
+    void testNoCacheLookupOfMissingSecret() {
+        NoCacheAzureKeyVaultOperation operation = new NoCacheAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+
+        assertNull(operation.getValue("missing-secret"));
+        assertNull(operation.getValue("missing.secret"));
+        assertEquals(2, vault.getGetRequests());
+    }
+
+    @Test
+    void testBackgroundRefreshKeepsServingCachedValuesWhileVaultFails() throws InterruptedException {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(500L)
+                .setBackgroundRefresh(true)
+                .setRefreshAheadInMs(250L));
+        assertEquals("value-1", operation.getValue("secret-1"));
+        vault.setSecret("secret-1", "value-1-updated").failNext(1000, 500);
+
+        // Wait for the cache to expire while every refresh fails
+        Thread.sleep(1000);
+
+        assertEquals("value-1", operation.getValue("secret-1"));
+    }
+
+    @Test
+    void testWarmStartServesSnapshotAndRevalidatesInBackground() throws InterruptedException {
+        AzureKeyVaultOptions options = snapshotOptions();
+        assertEquals("value-1", new CachedAzureKeyVaultOperation(vault.newSecretClient(), options).getValue("secret-1"));
+        awaitSnapshotFile();
+        vault.setSecret("secret-1", "value-1-updated").setLatencyInMs(500);
+
+        long start = System.nanoTime();
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(), options);
+        assertEquals("value-1", operation.getValue("secret-1"));
+        assertTrue(System.nanoTime() - start < 400_000_000L, "A warm start must not wait on the vault");
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!"value-1-updated".equals(operation.getValue("secret-1")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals("value-1-updated", operation.getValue("secret-1"));
+    }
+
+    @Test
+    void testWarmStartServesSnapshotWhileVaultIsDown() throws InterruptedException {
+        AzureKeyVaultOptions options = snapshotOptions();
+        new CachedAzureKeyVaultOperation(vault.newSecretClient(), options).getPropertyNames();
+        awaitSnapshotFile();
+        vault.failNext(1000, 503);
+
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(), options);
+
+        assertEquals(SECRET_COUNT, operation.getPropertyNames().size());
+        assertEquals("value-42", operation.getValue("secret.42"));
+    }
+
+    private AzureKeyVaultOptions snapshotOptions() {
+        return new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(1000L)
+                .setSnapshotPath(snapshotDirectory.resolve("snapshot.bin").toString())
+                .setSnapshotKey(Base64.getEncoder().encodeToString(new byte[32]));
+    }
+
+    private void awaitSnapshotFile() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(snapshotDirectory.resolve("snapshot.bin")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(snapshotDirectory.resolve("snapshot.bin")), "The snapshot must be persisted after the first load");
+    }
+}
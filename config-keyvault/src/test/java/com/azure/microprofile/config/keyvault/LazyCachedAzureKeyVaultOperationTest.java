@@ -0,0 +1,194 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.exception.ResourceNotFoundException;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LazyCachedAzureKeyVaultOperationTest {
+
+    private static final String SECRET_NAME = "my-secret";
+    private static final String SECRET_VALUE = "my-secret-value";
+    private static final String SECRET_VALUE_UPDATED = "my-secret-value-updated";
+
+    @Mock
+    private SecretClient secretClient;
+
+    @Test
+    void testGetValueIsCachedUntilExpiry() throws InterruptedException {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient,
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(200L));
+        when(secretClient.getSecret(SECRET_NAME))
+                .thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE))
+                .thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE_UPDATED));
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        verify(secretClient, times(1)).getSecret(SECRET_NAME);
+
+        // Wait for the entry to expire
+        Thread.sleep(300);
+
+        assertEquals(SECRET_VALUE_UPDATED, operation.getValue(SECRET_NAME));
+        verify(secretClient, times(2)).getSecret(SECRET_NAME);
+        verify(secretClient, never()).listPropertiesOfSecrets();
+    }
+
+    @Test
+    void testGetValueWithDottedSecretNameIsCachedUnderSecretName() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions());
+        when(secretClient.getSecret("my-secret-name")).thenReturn(new KeyVaultSecret("my-secret-name", SECRET_VALUE));
+
+        assertEquals(SECRET_VALUE, operation.getValue("my.secret.name"));
+        assertEquals(SECRET_VALUE, operation.getValue("my.secret.name"));
+        verify(secretClient, times(1)).getSecret("my-secret-name");
+        verify(secretClient, never()).getSecret("my.secret.name");
+    }
+
+    @Test
+    void testPropertyNamesOfSameSecretShareOneEntry() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions());
+        when(secretClient.getSecret("my-secret-name")).thenReturn(new KeyVaultSecret("my-secret-name", SECRET_VALUE));
+
+        assertEquals(SECRET_VALUE, operation.getValue("my.secret.name"));
+        assertEquals(SECRET_VALUE, operation.getValue("my_secret_name"));
+        assertEquals(SECRET_VALUE, operation.getValue("MY_SECRET_NAME"));
+        assertEquals(1, operation.getCachedEntries());
+        verify(secretClient, times(1)).getSecret(anyString());
+    }
+
+    @Test
+    void testInvalidateMatchesSecretNameCaseInsensitively() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions());
+        when(secretClient.getSecret("my-secret-name"))
+                .thenReturn(new KeyVaultSecret("my-secret-name", SECRET_VALUE))
+                .thenReturn(new KeyVaultSecret("my-secret-name", SECRET_VALUE_UPDATED));
+
+        assertEquals(SECRET_VALUE, operation.getValue("my.secret.name"));
+        operation.invalidate("My-Secret-Name");
+
+        assertEquals(0, operation.getCachedEntries());
+        assertEquals(SECRET_VALUE_UPDATED, operation.getValue("my.secret.name"));
+    }
+
+    @Test
+    void testExpiredEntryIsServedWhenFetchFails() throws InterruptedException {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient,
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(100L));
+        when(secretClient.getSecret(SECRET_NAME))
+                .thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE))
+                .thenThrow(new IllegalStateException("vault unavailable"));
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+
+        // Wait for the entry to expire
+        Thread.sleep(200);
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        verify(secretClient, times(2)).getSecret(SECRET_NAME);
+    }
+
+    @Test
+    void testExpiredEntryIsNotServedBeyondMaxStaleness() throws InterruptedException {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient,
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(100L).setMaxStalenessInMs(100L));
+        when(secretClient.getSecret(SECRET_NAME))
+                .thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE))
+                .thenThrow(new IllegalStateException("vault unavailable"));
+
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+
+        // Wait for the entry to be expired for longer than the max staleness
+        Thread.sleep(400);
+
+        assertNull(operation.getValue(SECRET_NAME));
+    }
+
+    @Test
+    void testMissIsCachedWithNegativeTtl() throws InterruptedException {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient,
+                new AzureKeyVaultOptions().setNegativeCacheRefreshIntervalInMs(200L));
+        when(secretClient.getSecret("missing-secret"))
+                .thenThrow(new ResourceNotFoundException("not found", null))
+                .thenReturn(new KeyVaultSecret("missing-secret", SECRET_VALUE));
+
+        assertNull(operation.getValue("missing-secret"));
+        assertNull(operation.getValue("missing-secret"));
+        verify(secretClient, times(1)).getSecret("missing-secret");
+
+        // Wait for the miss to expire
+        Thread.sleep(300);
+
+        assertEquals(SECRET_VALUE, operation.getValue("missing-secret"));
+    }
+
+    @Test
+    void testFailureIsNotCached() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions());
+        when(secretClient.getSecret(SECRET_NAME))
+                .thenThrow(new IllegalStateException("vault unavailable"))
+                .thenReturn(new KeyVaultSecret(SECRET_NAME, SECRET_VALUE));
+
+        assertNull(operation.getValue(SECRET_NAME));
+        assertEquals(SECRET_VALUE, operation.getValue(SECRET_NAME));
+        assertEquals(1, operation.getCachedEntries());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvictedBeyondMaxEntries() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient,
+                new AzureKeyVaultOptions().setCacheMaxEntries(2));
+        when(secretClient.getSecret(anyString())).thenAnswer(invocation -> new KeyVaultSecret(invocation.getArgument(0), "value"));
+
+        operation.getValue("first");
+        operation.getValue("second");
+        operation.getValue("first");
+        operation.getValue("third");
+
+        assertEquals(2, operation.getCachedEntries());
+
+        // "second" was the least recently used, so it was evicted and is fetched again
+        operation.getValue("first");
+        operation.getValue("third");
+        operation.getValue("second");
+        verify(secretClient, times(1)).getSecret("first");
+        verify(secretClient, times(2)).getSecret("second");
+        verify(secretClient, times(1)).getSecret("third");
+    }
+
+    @Test
+    void testEntriesAreEvictedBeyondMaxBytes() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient,
+                new AzureKeyVaultOptions().setCacheMaxBytes(70L));
+        when(secretClient.getSecret(anyString())).thenAnswer(invocation -> new KeyVaultSecret(invocation.getArgument(0), "0123456789"));
+
+        operation.getValue("first");
+        operation.getValue("second");
+        operation.getValue("third");
+
+        assertTrue(operation.getCachedBytes() <= 70L);
+        assertEquals(2, operation.getCachedEntries());
+    }
+
+    @Test
+    void testGetValueWithNullSecretName() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(secretClient, new AzureKeyVaultOptions());
+
+        assertNull(operation.getValue(null));
+        verify(secretClient, never()).getSecret(any());
+    }
+}
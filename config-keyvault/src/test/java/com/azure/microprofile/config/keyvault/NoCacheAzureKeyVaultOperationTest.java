@@ -3,6 +3,7 @@
 
 package com.azure.microprofile.config.keyvault;
 
+import com.azure.core.exception.ResourceNotFoundException;
 import com.azure.core.http.rest.PagedIterable;
 import com.azure.security.keyvault.secrets.SecretClient;
 import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
@@ -13,12 +14,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
 
@@ -159,4 +171,79 @@ class NoCacheAzureKeyVaultOperationTest {
         assertEquals(null, value);
         verify(secretClient, never()).getSecret(any());
     }
+
+    @Test
+    void testConcurrentLookupsShareOneCall() throws Exception {
+        when(keyVaultSecret.getValue()).thenReturn(SECRET_VALUE);
+        when(secretClient.getSecret(SECRET_NAME)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return keyVaultSecret;
+        });
+
+        List<String> values = lookUpConcurrently("my.secret", 50);
+
+        assertEquals(Collections.nCopies(50, SECRET_VALUE), values);
+        verify(secretClient, times(1)).getSecret(SECRET_NAME);
+    }
+
+    @Test
+    void testConcurrentLookupsShareMissingSecret() throws Exception {
+        when(secretClient.getSecret(SECRET_NAME)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            throw new ResourceNotFoundException("SecretNotFound", null);
+        });
+
+        List<String> values = lookUpConcurrently(SECRET_NAME, 50);
+
+        assertEquals(Collections.nCopies(50, null), values);
+        verify(secretClient, times(1)).getSecret(SECRET_NAME);
+
+        // The result is not kept once the call completed
+        assertNull(operation.getValue(SECRET_NAME));
+        verify(secretClient, times(2)).getSecret(SECRET_NAME);
+    }
+
+    @Test
+    void testConcurrentLookupsAreReleasedWhenFetchThrowsError() throws Exception {
+        when(secretClient.getSecret(SECRET_NAME)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            throw new StackOverflowError();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<String>> pendingValues = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                pendingValues.add(executor.submit(() -> operation.getValue(SECRET_NAME)));
+            }
+            for (Future<String> pendingValue : pendingValues) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> pendingValue.get(10, TimeUnit.SECONDS));
+                assertInstanceOf(StackOverflowError.class, e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> lookUpConcurrently(String propertyName, int lookups) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(lookups);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> pendingValues = new ArrayList<>();
+            for (int i = 0; i < lookups; i++) {
+                pendingValues.add(executor.submit(() -> {
+                    start.await();
+                    return operation.getValue(propertyName);
+                }));
+            }
+            start.countDown();
+            List<String> values = new ArrayList<>();
+            for (Future<String> pendingValue : pendingValues) {
+                values.add(pendingValue.get(10, TimeUnit.SECONDS));
+            }
+            return values;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PinnedSecretCacheTest {
+
+    private static final String VERSION_1 = KeyVaultStandIn.getVersion(1);
+    private static final String VERSION_2 = KeyVaultStandIn.getVersion(2);
+
+    private KeyVaultStandIn vault;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn()
+                .setSecret("my-secret", "my-value-1")
+                .setSecret("my-secret", "my-value-2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        vault.close();
+    }
+
+    @Test
+    void testIsPinned() {
+        PinnedSecretCache cache = new PinnedSecretCache(new SecretFetcher(vault.newSecretClient(), 1), new AzureKeyVaultOptions());
+
+        assertTrue(cache.isPinned("my-secret/" + VERSION_1));
+        assertTrue(cache.isPinned("my.secret/" + VERSION_1));
+        assertFalse(cache.isPinned("my-secret"));
+        assertFalse(cache.isPinned("my-secret/"));
+        assertFalse(cache.isPinned("/" + VERSION_1));
+        assertFalse(cache.isPinned("my-secret/not-a-version"));
+        assertFalse(cache.isPinned("app/config"));
+    }
+
+    @Test
+    void testCustomSeparator() {
+        PinnedSecretCache cache = new PinnedSecretCache(new SecretFetcher(vault.newSecretClient(), 1),
+                new AzureKeyVaultOptions().setSecretVersionSeparator("@"));
+
+        assertTrue(cache.isPinned("my-secret@" + VERSION_1));
+        assertFalse(cache.isPinned("my-secret/" + VERSION_1));
+        assertEquals("my-value-1", cache.getValue("my.secret@" + VERSION_1));
+    }
+
+    @Test
+    void testCachedOperationServesPinnedVersionsPermanently() throws InterruptedException {
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setCacheRefreshIntervalInMs(1L));
+
+        assertEquals("my-value-1", operation.getValue("my-secret/" + VERSION_1));
+        assertEquals("my-value-2", operation.getValue("my-secret/" + VERSION_2));
+        assertEquals(0, vault.getListRequests());
+        assertEquals(2, vault.getGetRequests());
+
+        Thread.sleep(5);
+        vault.setSecret("my-secret", "my-value-3");
+        operation.invalidate("my-secret");
+
+        assertEquals("my-value-1", operation.getValue("my-secret/" + VERSION_1));
+        assertEquals("my-value-2", operation.getValue("my-secret/" + VERSION_2));
+        assertEquals(0, vault.getListRequests());
+        assertEquals(2, vault.getGetRequests());
+        assertEquals("my-value-3", operation.getValue("my-secret"));
+    }
+
+    @Test
+    void testNoCacheOperationFetchesPinnedVersionOnce() {
+        NoCacheAzureKeyVaultOperation operation = new NoCacheAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("my-value-1", operation.getValue("my.secret/" + VERSION_1));
+        }
+        assertEquals(1, vault.getGetRequests());
+    }
+
+    @Test
+    void testMissingVersionIsNotCached() {
+        LazyCachedAzureKeyVaultOperation operation = new LazyCachedAzureKeyVaultOperation(vault.newSecretClient(), new AzureKeyVaultOptions());
+        String version3 = KeyVaultStandIn.getVersion(3);
+
+        assertNull(operation.getValue("my-secret/" + version3));
+        vault.setSecret("my-secret", "my-value-3");
+
+        assertEquals("my-value-3", operation.getValue("my-secret/" + version3));
+        assertEquals(2, vault.getGetRequests());
+        assertEquals(0, operation.getCachedEntries());
+    }
+}
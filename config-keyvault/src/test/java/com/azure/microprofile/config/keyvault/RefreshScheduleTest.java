@@ -0,0 +1,104 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshScheduleTest {
+
+    private static final long TTL_IN_MS = 10000L;
+
+    @Test
+    void testNoJitterByDefault() {
+        RefreshSchedule schedule = new RefreshSchedule(TTL_IN_MS, new AzureKeyVaultOptions());
+
+        assertEquals(TTL_IN_MS, schedule.getTimeToLiveInMs());
+        schedule.onLoaded();
+        assertEquals(TTL_IN_MS, schedule.getTimeToLiveInMs());
+    }
+
+    @Test
+    void testRandomJitterIsWithinWindow() {
+        RefreshSchedule schedule = new RefreshSchedule(TTL_IN_MS, new AzureKeyVaultOptions().setCacheJitter(0.2));
+        Set<Long> timesToLive = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            schedule.onLoaded();
+            long timeToLive = schedule.getTimeToLiveInMs();
+            assertTrue(timeToLive > TTL_IN_MS - 2000 && timeToLive <= TTL_IN_MS, "TTL " + timeToLive);
+            timesToLive.add(timeToLive);
+        }
+        assertTrue(timesToLive.size() > 1);
+    }
+
+    @Test
+    void testInstanceIdSpreadsInstancesDeterministically() {
+        AzureKeyVaultOptions options = new AzureKeyVaultOptions().setCacheJitter(1.0).setCacheInstanceId("my-app-7d9f8b6c4-x2k9p");
+        RefreshSchedule schedule = new RefreshSchedule(TTL_IN_MS, options);
+        long timeToLive = schedule.getTimeToLiveInMs();
+
+        schedule.onLoaded();
+        assertEquals(timeToLive, schedule.getTimeToLiveInMs());
+        assertEquals(timeToLive, new RefreshSchedule(TTL_IN_MS, options).getTimeToLiveInMs());
+
+        // Pods with similar names land in every tenth of the window
+        Set<Integer> tenths = new HashSet<>();
+        IntStream.range(0, 100).forEach(i -> tenths.add((int) (RefreshSchedule.toInstanceOffset("my-app-7d9f8b6c4-" + i) * 10)));
+        assertEquals(10, tenths.size());
+    }
+
+    @Test
+    void testBackoffDoublesUpToMaximumAndResets() throws NoSuchFieldException, IllegalAccessException {
+        RefreshSchedule schedule = new RefreshSchedule(TTL_IN_MS, new AzureKeyVaultOptions()
+                .setCacheRetryBackoffInMs(1000L)
+                .setCacheMaxRetryBackoffInMs(3000L));
+        IllegalStateException failure = new IllegalStateException("vault unavailable");
+        assertNull(schedule.getBackoffFailure());
+
+        long start = System.currentTimeMillis();
+        schedule.onFailed(failure);
+        assertSame(failure, schedule.getBackoffFailure());
+        schedule.onFailed(failure);
+        schedule.onFailed(failure);
+        long retryAt = retryAtInMs(schedule);
+        assertTrue(retryAt >= start + 3000 && retryAt <= System.currentTimeMillis() + 3000, "retry at " + (retryAt - start));
+
+        schedule.onLoaded();
+        assertNull(schedule.getBackoffFailure());
+        schedule.onFailed(failure);
+        assertTrue(retryAtInMs(schedule) <= System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void testZeroBackoffRetriesRightAway() {
+        RefreshSchedule schedule = new RefreshSchedule(TTL_IN_MS, new AzureKeyVaultOptions().setCacheRetryBackoffInMs(0L));
+
+        schedule.onFailed(new IllegalStateException("vault unavailable"));
+
+        assertNull(schedule.getBackoffFailure());
+    }
+
+    @Test
+    void testInvalidJitter() {
+        assertThrows(IllegalArgumentException.class, () -> new RefreshSchedule(TTL_IN_MS, new AzureKeyVaultOptions().setCacheJitter(1.5)));
+        assertThrows(IllegalArgumentException.class, () -> new RefreshSchedule(TTL_IN_MS, new AzureKeyVaultOptions().setCacheJitter(-0.1)));
+    }
+
+    private static long retryAtInMs(RefreshSchedule schedule) throws NoSuchFieldException, IllegalAccessException {
+        Field retryAtInMsField = RefreshSchedule.class.getDeclaredField("retryAtInMs");
+        retryAtInMsField.setAccessible(true);
+        return retryAtInMsField.getLong(schedule);
+    }
+}
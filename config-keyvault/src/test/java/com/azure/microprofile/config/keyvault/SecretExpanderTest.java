@@ -0,0 +1,129 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.json.JsonProviders;
+import com.azure.json.JsonReader;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecretExpanderTest {
+
+    private static final String VAULT_URL = "https://test.vault.azure.net";
+
+    private KeyVaultStandIn vault;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vault.close();
+    }
+
+    @Test
+    void testJsonIsFlattened() throws IOException {
+        SecretExpander expander = new SecretExpander(new AzureKeyVaultOptions().setExpansionEnabled(true));
+        String json = "{\"url\":\"jdbc:postgresql://db:5432/app\",\"pool\":{\"size\":10,\"enabled\":true},\"hosts\":[\"a\",\"b,c\"],"
+                + "\"replicas\":[{\"url\":\"r0\"}],\"unset\":null}";
+
+        Map<String, String> expanded = expander.expand(secretProperties("db", "application/json; charset=utf-8", 1L), json);
+
+        assertEquals("jdbc:postgresql://db:5432/app", expanded.get("db.url"));
+        assertEquals("10", expanded.get("db.pool.size"));
+        assertEquals("true", expanded.get("db.pool.enabled"));
+        assertEquals("a,b\\,c", expanded.get("db.hosts"));
+        assertEquals("r0", expanded.get("db.replicas[0].url"));
+        assertFalse(expanded.containsKey("db.unset"));
+        assertEquals(5, expanded.size());
+    }
+
+    @Test
+    void testPropertiesAreParsedWithoutPrefix() throws IOException {
+        SecretExpander expander = new SecretExpander(new AzureKeyVaultOptions().setExpansionEnabled(true).setExpansionPrefixed(false));
+
+        Map<String, String> expanded = expander.expand(secretProperties("app-config", "text/x-java-properties", 1L),
+                "db.url=jdbc:h2:mem:app\ndb.user = admin\n# comment\n");
+
+        assertEquals("jdbc:h2:mem:app", expanded.get("db.url"));
+        assertEquals("admin", expanded.get("db.user"));
+        assertEquals(2, expanded.size());
+    }
+
+    @Test
+    void testSecretIsParsedOncePerVersion() throws IOException {
+        SecretExpander expander = new SecretExpander(new AzureKeyVaultOptions().setExpansionEnabled(true));
+        Map<String, String> expanded = expander.expand(secretProperties("db", "application/json", 1L), "{\"url\":\"u1\"}");
+
+        assertSame(expanded, expander.expand(secretProperties("db", "application/json", 1L), "{\"url\":\"u1\"}"));
+        assertEquals("u2", expander.expand(secretProperties("db", "application/json", 2L), "{\"url\":\"u2\"}").get("db.url"));
+    }
+
+    @Test
+    void testUnstructuredOrInvalidSecretIsNotExpanded() throws IOException {
+        SecretExpander expander = new SecretExpander(new AzureKeyVaultOptions().setExpansionEnabled(true));
+
+        assertTrue(expander.expand(secretProperties("db", "text/plain", 1L), "{\"url\":\"u1\"}").isEmpty());
+        assertTrue(expander.expand(secretProperties("db", "application/json", 1L), "not json").isEmpty());
+        assertTrue(expander.expand(secretProperties("db", "application/json", 1L), "[1, 2]").isEmpty());
+        assertTrue(new SecretExpander(new AzureKeyVaultOptions()).expand(secretProperties("db", "application/json", 1L), "{\"url\":\"u1\"}").isEmpty());
+    }
+
+    @Test
+    void testCachedOperationServesExpandedSecrets() {
+        StringBuilder json = new StringBuilder("{");
+        StringBuilder properties = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            json.append(i > 0 ? "," : "").append("\"key").append(i).append("\":\"json-").append(i).append('"');
+            properties.append("key").append(i).append("=properties-").append(i).append('\n');
+        }
+        vault.setSecret("orders", json.append('}').toString(), "application/json");
+        vault.setSecret("payments", properties.toString(), "text/x-java-properties");
+        vault.setSecret("plain", "plain-value");
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setExpansionEnabled(true));
+
+        assertEquals("json-7", operation.getValue("orders.key7"));
+        assertEquals("properties-29", operation.getValue("payments.key29"));
+        assertEquals("plain-value", operation.getValue("plain"));
+        assertTrue(operation.getValue("orders").startsWith("{"));
+        assertEquals(63, operation.getPropertyNames().size());
+        assertEquals(3, vault.getGetRequests());
+    }
+
+    @Test
+    void testInvalidatedSecretReplacesExpandedProperties() {
+        vault.setSecret("db", "{\"url\":\"u1\",\"user\":\"admin\"}", "application/json");
+        CachedAzureKeyVaultOperation operation = new CachedAzureKeyVaultOperation(vault.newSecretClient(),
+                new AzureKeyVaultOptions().setExpansionEnabled(true));
+        assertEquals("admin", operation.getValue("db.user"));
+
+        vault.setSecret("db", "{\"url\":\"u2\"}", "application/json");
+        operation.invalidate("db");
+
+        assertEquals("u2", operation.getValue("db.url"));
+        assertNull(operation.getValue("db.user"));
+    }
+
+    private static SecretProperties secretProperties(String name, String contentType, long updatedInSeconds) throws IOException {
+        String json = "{\"id\":\"" + VAULT_URL + "/secrets/" + name + "\",\"contentType\":\"" + contentType
+                + "\",\"attributes\":{\"enabled\":true,\"updated\":" + updatedInSeconds + "}}";
+        try (JsonReader reader = JsonProviders.createReader(json)) {
+            return SecretProperties.fromJson(reader);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.http.rest.PagedIterable;
+import com.azure.security.keyvault.secrets.SecretClient;
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SecretFetcherTest {
+
+    @Mock
+    private SecretClient secretClient;
+
+    @Mock
+    private PagedIterable<SecretProperties> secretPropertiesPagedIterable;
+
+    @Test
+    void testGetSecretsWithBoundedParallelism() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(secretClient.getSecret(anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            String name = invocation.getArgument(0);
+            return new KeyVaultSecret(name, name + "-value");
+        });
+
+        SecretFetcher fetcher = new SecretFetcher(secretClient, 4);
+        List<String> names = new ArrayList<>();
+        IntStream.range(0, 40).forEach(i -> names.add("secret-" + i));
+        Map<String, KeyVaultSecret> secrets = fetcher.getSecrets(names.stream());
+
+        assertEquals(names, new ArrayList<>(secrets.keySet()));
+        names.forEach(name -> assertEquals(name + "-value", secrets.get(name).getValue()));
+        assertTrue(maxRunning.get() <= 4);
+        assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    void testGetSecretsOnVirtualThreadsWithBoundedParallelism() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        when(secretClient.getSecret(anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threadNames.add(Thread.currentThread().getName());
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return new KeyVaultSecret(invocation.getArgument(0), "value");
+        });
+
+        SecretFetcher fetcher = new SecretFetcher(secretClient, new AzureKeyVaultOptions().setFetchParallelism(4).setFetchThreads("virtual"));
+        List<String> names = new ArrayList<>();
+        IntStream.range(0, 40).forEach(i -> names.add("secret-" + i));
+
+        assertEquals(names, new ArrayList<>(fetcher.getSecrets(names.stream()).keySet()));
+        assertTrue(maxRunning.get() <= 4);
+        assertTrue(maxRunning.get() > 1);
+        // Virtual threads are numbered, JDKs without them fall back to the platform pool
+        boolean virtual = SecretFetcher.newVirtualThreadFactory("test-") != null;
+        threadNames.forEach(name -> assertEquals(virtual, name.startsWith("azure-keyvault-secret-fetch-")));
+    }
+
+    @Test
+    void testUnsupportedFetchThreads() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SecretFetcher(secretClient, new AzureKeyVaultOptions().setFetchThreads("carrier")));
+    }
+
+    @Test
+    void testGetSecretsStartsBeforeListingCompletes() {
+        CountDownLatch firstFetched = new CountDownLatch(1);
+        when(secretClient.getSecret(anyString())).thenAnswer(invocation -> {
+            firstFetched.countDown();
+            return new KeyVaultSecret(invocation.getArgument(0), "value");
+        });
+
+        // The second name is only listed once the first secret has been fetched
+        Stream<String> lazilyListedNames = Stream.of("first", "second").peek(name -> {
+            if ("second".equals(name)) {
+                try {
+                    assertTrue(firstFetched.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        Map<String, KeyVaultSecret> secrets = new SecretFetcher(secretClient, 2).getSecrets(lazilyListedNames);
+
+        assertEquals(2, secrets.size());
+    }
+
+    @Test
+    void testGetSecretsRethrowsFailure() {
+        when(secretClient.getSecret(anyString())).thenAnswer(invocation -> {
+            if ("broken".equals(invocation.getArgument(0))) {
+                throw new IllegalStateException("broken secret");
+            }
+            return new KeyVaultSecret(invocation.getArgument(0), "value");
+        });
+
+        SecretFetcher fetcher = new SecretFetcher(secretClient, 2);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> fetcher.getSecrets(Stream.of("ok", "broken", "other")));
+        assertEquals("broken secret", exception.getMessage());
+    }
+
+    @Test
+    void testGetSecretsSequentiallyOnCallerThread() {
+        Thread caller = Thread.currentThread();
+        when(secretClient.getSecret(anyString())).thenAnswer(invocation -> {
+            assertEquals(caller, Thread.currentThread());
+            return new KeyVaultSecret(invocation.getArgument(0), "value");
+        });
+
+        SecretFetcher fetcher = new SecretFetcher(secretClient, 1);
+
+        assertEquals(1, fetcher.getParallelism());
+        assertEquals(2, fetcher.getSecrets(Stream.of("first", "second")).size());
+    }
+
+    @Test
+    void testFilteredSecretsAreNeitherListedNorFetched() {
+        SecretProperties selected = new KeyVaultSecret("app-selected", "value").getProperties()
+                .setTags(Collections.singletonMap("app", "orders"));
+        SecretProperties otherTag = new KeyVaultSecret("app-other", "value").getProperties()
+                .setTags(Collections.singletonMap("app", "billing"));
+        SecretProperties otherPrefix = new KeyVaultSecret("unrelated", "value").getProperties()
+                .setTags(Collections.singletonMap("app", "orders"));
+        when(secretPropertiesPagedIterable.stream()).thenReturn(Stream.of(selected, otherTag, otherPrefix));
+        when(secretClient.listPropertiesOfSecrets()).thenReturn(secretPropertiesPagedIterable);
+        when(secretClient.getSecret("app-selected")).thenReturn(new KeyVaultSecret("app-selected", "value"));
+
+        SecretFetcher fetcher = new SecretFetcher(secretClient, new AzureKeyVaultOptions()
+                .setFilterNamePrefix("app-")
+                .setFilterTags(Collections.singletonList("app=orders")));
+        Map<String, KeyVaultSecret> secrets = fetcher.getSecrets(fetcher.listSecretProperties().map(SecretProperties::getName));
+
+        assertEquals(Collections.singletonList("app-selected"), new ArrayList<>(secrets.keySet()));
+        assertNull(fetcher.getSecretValue("unrelated"));
+        verify(secretClient, never()).getSecret("app-other");
+        verify(secretClient, never()).getSecret("unrelated");
+    }
+}
@@ -0,0 +1,78 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
+import com.azure.security.keyvault.secrets.models.SecretProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecretFilterTest {
+
+    @Test
+    void testDefaultSelectsAllSecrets() {
+        SecretFilter filter = new SecretFilter(new AzureKeyVaultOptions());
+
+        assertTrue(filter.test(properties("any-secret")));
+        assertTrue(filter.test(properties("any-secret").setEnabled(false)));
+        assertTrue(filter.testName("any-secret"));
+    }
+
+    @Test
+    void testEnabledOnly() {
+        SecretFilter filter = new SecretFilter(new AzureKeyVaultOptions().setFilterEnabledOnly(true));
+
+        assertTrue(filter.test(properties("any-secret").setEnabled(true)));
+        assertFalse(filter.test(properties("any-secret").setEnabled(false)));
+    }
+
+    @Test
+    void testNamePrefixAndRegex() {
+        SecretFilter filter = new SecretFilter(new AzureKeyVaultOptions()
+                .setFilterNamePrefix("app-")
+                .setFilterNameRegex(".*-db-.*"));
+
+        assertTrue(filter.testName("app-db-password"));
+        assertFalse(filter.testName("app-api-key"));
+        assertFalse(filter.testName("other-db-password"));
+        assertFalse(filter.test(properties("other-db-password")));
+    }
+
+    @Test
+    void testRequiredTags() {
+        SecretFilter filter = new SecretFilter(new AzureKeyVaultOptions().setFilterTags(Arrays.asList("app=orders", "config")));
+
+        assertTrue(filter.test(properties("secret").setTags(tags("app", "orders", "config", ""))));
+        assertFalse(filter.test(properties("secret").setTags(tags("app", "billing", "config", ""))));
+        assertFalse(filter.test(properties("secret").setTags(tags("app", "orders"))));
+        assertFalse(filter.test(properties("secret")));
+    }
+
+    @Test
+    void testContentTypeIgnoresCase() {
+        SecretFilter filter = new SecretFilter(new AzureKeyVaultOptions().setFilterContentType("text/plain"));
+
+        assertTrue(filter.test(properties("secret").setContentType("Text/Plain")));
+        assertFalse(filter.test(properties("secret").setContentType("application/x-pkcs12")));
+        assertFalse(filter.test(properties("secret")));
+    }
+
+    private static SecretProperties properties(String name) {
+        return new KeyVaultSecret(name, "value").getProperties();
+    }
+
+    private static Map<String, String> tags(String... namesAndValues) {
+        Map<String, String> tags = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            tags.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return tags;
+    }
+}
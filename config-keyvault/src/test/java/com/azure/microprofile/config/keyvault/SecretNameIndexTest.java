@@ -0,0 +1,58 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SecretNameIndexTest {
+
+    private final SecretNameIndex index = new SecretNameIndex(Arrays.asList("my-secret-name", "database-url", "app-config-value"), 1L);
+
+    @Test
+    void testResolveExactName() {
+        assertEquals("my-secret-name", index.resolve("my-secret-name"));
+    }
+
+    @Test
+    void testResolveAliases() {
+        assertEquals("my-secret-name", index.resolve("my.secret.name"));
+        assertEquals("my-secret-name", index.resolve("my_secret_name"));
+        assertEquals("database-url", index.resolve("DATABASE_URL"));
+    }
+
+    @Test
+    void testResolveRemappedName() {
+        assertEquals("my-secret-name", index.resolve("my_secret.name"));
+        assertEquals("app-config-value", index.resolve("app/config@value"));
+    }
+
+    @Test
+    void testResolveExactNameTakesPrecedenceOverAlias() {
+        SecretNameIndex caseSensitiveIndex = new SecretNameIndex(Arrays.asList("mysecret", "MYSECRET"), 1L);
+
+        // "MYSECRET" is also the environment style alias of "mysecret"
+        assertEquals("MYSECRET", caseSensitiveIndex.resolve("MYSECRET"));
+        assertEquals("mysecret", caseSensitiveIndex.resolve("mysecret"));
+    }
+
+    @Test
+    void testResolveSeparatorAliasTakesPrecedenceOverEnvironmentAlias() {
+        SecretNameIndex caseSensitiveIndex = new SecretNameIndex(Arrays.asList("my-secret", "MY-SECRET"), 1L);
+
+        // "MY_SECRET" is the environment style alias of "my-secret" and the underscore alias of "MY-SECRET"
+        assertEquals("MY-SECRET", caseSensitiveIndex.resolve("MY_SECRET"));
+    }
+
+    @Test
+    void testResolveUnknownName() {
+        assertNull(index.resolve("unknown-secret"));
+        assertNull(index.resolve("unknown.property.name"));
+        assertNull(index.resolve("My.Secret.Name"));
+    }
+}
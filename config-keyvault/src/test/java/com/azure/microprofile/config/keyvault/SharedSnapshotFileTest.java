@@ -0,0 +1,145 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SharedSnapshotFileTest {
+
+    private static final String VAULT_URL = "https://test.vault.azure.net";
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_KEY = Base64.getEncoder().encodeToString(new byte[16]);
+
+    private KeyVaultStandIn vault;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vault = new KeyVaultStandIn();
+        vault.setSecret("secret-1", "value-1");
+        vault.setSecret("secret-2", "value-2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        vault.close();
+    }
+
+    @Test
+    void testPublishedSnapshotIsReadOncePerSequence() {
+        Path path = directory.resolve("shared.bin");
+        SharedSnapshotFile publisher = new SharedSnapshotFile(path, KEY, VAULT_URL);
+        SharedSnapshotFile reader = new SharedSnapshotFile(path, KEY, VAULT_URL);
+        assertNull(reader.read());
+
+        publish(publisher, new SecretsSnapshot(Collections.singletonMap("key1", "value1"), 42L));
+        SecretsSnapshot published = reader.read();
+
+        assertFalse(published.isRestored());
+        assertEquals(42L, published.getLoadedAtInMs());
+        assertEquals("value1", published.get("key1"));
+        assertNull(reader.read());
+
+        publish(publisher, new SecretsSnapshot(Collections.singletonMap("key1", "value2"), 43L));
+        assertEquals("value2", reader.read().get("key1"));
+    }
+
+    @Test
+    void testLargerSnapshotIsReadFromGrownFile() {
+        Path path = directory.resolve("shared.bin");
+        SharedSnapshotFile publisher = new SharedSnapshotFile(path, KEY, VAULT_URL);
+        SharedSnapshotFile reader = new SharedSnapshotFile(path, KEY, VAULT_URL);
+        publish(publisher, new SecretsSnapshot(Collections.singletonMap("key1", "value1"), 1L));
+        reader.read();
+
+        Map<String, String> secrets = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            secrets.put("key" + i, "value" + i);
+        }
+        publish(publisher, new SecretsSnapshot(secrets, 2L));
+
+        SecretsSnapshot published = reader.read();
+        assertEquals(1000, published.getPropertyNames().size());
+        assertEquals("value999", published.get("key999"));
+    }
+
+    @Test
+    void testSnapshotIsNotPublishedWithoutLock() {
+        Path path = directory.resolve("shared.bin");
+        SharedSnapshotFile publisher = new SharedSnapshotFile(path, KEY, VAULT_URL);
+        SharedSnapshotFile reader = new SharedSnapshotFile(path, KEY, VAULT_URL);
+
+        publisher.publish(new SecretsSnapshot(Collections.singletonMap("key1", "value1"), 1L));
+
+        assertFalse(Files.exists(path));
+        assertNull(reader.read());
+    }
+
+    @Test
+    void testSnapshotOfOtherKeyIsNotRead() {
+        Path path = directory.resolve("shared.bin");
+        publish(new SharedSnapshotFile(path, KEY, VAULT_URL), new SecretsSnapshot(Collections.singletonMap("key1", "value1"), 1L));
+
+        assertNull(new SharedSnapshotFile(path, OTHER_KEY, VAULT_URL).read());
+    }
+
+    @Test
+    void testOtherProcessAdoptsPublishedSnapshot() {
+        AzureKeyVaultOptions options = new AzureKeyVaultOptions()
+                .setSharedPath(directory.resolve("shared.bin").toString())
+                .setSnapshotKey(KEY);
+        CachedAzureKeyVaultOperation first = new CachedAzureKeyVaultOperation(vault.newSecretClient(), options);
+        assertEquals("value-1", first.getValue("secret-1"));
+        int listRequests = vault.getListRequests();
+        int getRequests = vault.getGetRequests();
+
+        CachedAzureKeyVaultOperation second = new CachedAzureKeyVaultOperation(vault.newSecretClient(), options);
+
+        assertEquals("value-1", second.getValue("secret-1"));
+        assertEquals("value-2", second.getValue("secret.2"));
+        assertEquals(listRequests, vault.getListRequests());
+        assertEquals(getRequests, vault.getGetRequests());
+    }
+
+    @Test
+    void testExpiredCacheIsReloadedByOneProcess() throws InterruptedException {
+        AzureKeyVaultOptions options = new AzureKeyVaultOptions()
+                .setCacheRefreshIntervalInMs(200L)
+                .setSharedPath(directory.resolve("shared.bin").toString())
+                .setSnapshotKey(KEY);
+        CachedAzureKeyVaultOperation first = new CachedAzureKeyVaultOperation(vault.newSecretClient(), options);
+        CachedAzureKeyVaultOperation second = new CachedAzureKeyVaultOperation(vault.newSecretClient(), options);
+        assertEquals("value-1", first.getValue("secret-1"));
+        assertEquals("value-1", second.getValue("secret-1"));
+        assertEquals(1, vault.getListRequests());
+
+        vault.setSecret("secret-1", "value-1-updated");
+        Thread.sleep(300);
+
+        assertEquals("value-1-updated", first.getValue("secret-1"));
+        assertEquals("value-1-updated", second.getValue("secret-1"));
+        assertEquals(2, vault.getListRequests());
+    }
+
+    private static void publish(SharedSnapshotFile file, SecretsSnapshot snapshot) {
+        file.runExclusively(() -> file.publish(snapshot));
+    }
+}
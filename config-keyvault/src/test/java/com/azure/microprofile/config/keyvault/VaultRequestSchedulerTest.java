@@ -0,0 +1,76 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.microprofile.config.keyvault;
+
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.microprofile.config.keyvault.VaultRequestScheduler.Priority;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VaultRequestSchedulerTest {
+
+    @Test
+    void testUnlimitedBudgetDoesNotWait() {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10000; i++) {
+            scheduler.acquire(Priority.BULK);
+        }
+
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    @Test
+    void testBudgetLimitsCalls() {
+        // 100 calls per 10 seconds refill a token every 100 ms
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(100);
+        for (int i = 0; i < 100; i++) {
+            scheduler.acquire(Priority.INTERACTIVE);
+        }
+
+        long start = System.nanoTime();
+        scheduler.acquire(Priority.INTERACTIVE);
+
+        assertTrue(System.nanoTime() - start >= 50_000_000L, "The call must wait for the bucket to refill");
+    }
+
+    @Test
+    void testBulkCallsLeaveReserveToInteractiveCalls() {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(100);
+        for (int i = 0; i < 80; i++) {
+            scheduler.acquire(Priority.BULK);
+        }
+
+        long start = System.nanoTime();
+        scheduler.acquire(Priority.INTERACTIVE);
+        assertTrue(System.nanoTime() - start < 50_000_000L, "The interactive call must take the reserve");
+
+        start = System.nanoTime();
+        scheduler.acquire(Priority.BULK);
+        assertTrue(System.nanoTime() - start >= 50_000_000L, "The bulk call must not take the reserve");
+    }
+
+    @Test
+    void testThrottledCallPausesCalls() {
+        VaultRequestScheduler scheduler = new VaultRequestScheduler(null);
+        scheduler.onThrottled(new HttpHeaders().set(HttpHeaderName.fromString("retry-after-ms"), "300"));
+
+        long start = System.nanoTime();
+        scheduler.acquire(Priority.INTERACTIVE);
+
+        assertTrue(System.nanoTime() - start >= 250_000_000L, "The call must wait for Retry-After");
+    }
+
+    @Test
+    void testGetRetryAfterInMs() {
+        assertEquals(1500L, VaultRequestScheduler.getRetryAfterInMs(new HttpHeaders().set(HttpHeaderName.fromString("x-ms-retry-after-ms"), "1500")));
+        assertEquals(2000L, VaultRequestScheduler.getRetryAfterInMs(new HttpHeaders().set(HttpHeaderName.RETRY_AFTER, "2")));
+        assertEquals(1000L, VaultRequestScheduler.getRetryAfterInMs(new HttpHeaders()));
+        assertEquals(1000L, VaultRequestScheduler.getRetryAfterInMs(null));
+    }
+}